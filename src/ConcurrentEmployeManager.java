@@ -0,0 +1,754 @@
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// EmployeManager that can be shared between request threads.
+//
+// - searchById / hasEmployee / getEmployeeCount take no lock: they read the id map and check the
+//   roster version around it (a seqlock, like the salary version), see findById
+// - single-employee changes lock that employee's stripe, so two updates to the same employee
+//   (e.g. two percentage raises) never interleave, and updates to different employees run side
+//   by side. Address/DOB changes only need the stripe. A salary change or rename also holds the
+//   write lock of the one index that follows it (salaries or names) for the field write and the
+//   index update, a few microseconds; the global lock is only taken shared, to keep out bulk
+//   updates.
+// - adds and deletes change the roster's structure, so they take the roster, name and salary
+//   index locks exclusively (the global lock still only shared)
+// - queries take the global lock shared plus the read locks of the indexes they walk
+// - bulk operations and salary revisions hold the global write lock for the whole pass, so they
+//   work on a consistent roster and readers see the roster either before or after them; they also
+//   bump the salary version, which lets getSalaries read several salaries consistently without a
+//   lock
+//
+// Locks are always taken in the order stripe, global, roster, names, salaries.
+//
+// With metrics attached, the operations record how long they ran once they had their locks; the
+// time spent waiting for them is recorded separately as lockWait.read/write/stripe/roster/names/
+// salaries.
+public class ConcurrentEmployeManager extends EmployeManager {
+    private static final int STRIPES = 64; // power of two
+
+    // the index locks a query or update needs, as a bit set
+    private static final int ROSTER = 1;   // the id-ordered roster, the id map and the department lists
+    private static final int NAMES = 2;    // the name lists and NameIndex
+    private static final int SALARIES = 4; // the salary rank trees and DepartmentStats
+    private static final int ALL = ROSTER | NAMES | SALARIES;
+
+    // odd while an add, delete or load is changing the roster; bumped under the roster write lock
+    private volatile long rosterVersion;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock rosterLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock namesLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock salariesLock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public ConcurrentEmployeManager() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    private ReentrantLock stripe(int empId) {
+        int h = empId * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    // lock() plus recording how long it waited
+    private void lock(Lock target, String waitMetric) {
+        long start = startTimer();
+        target.lock();
+        stopTimer(waitMetric, start);
+    }
+
+    private void lockRead() {
+        lock(lock.readLock(), "lockWait.read");
+    }
+
+    private void lockWrite() {
+        lock(lock.writeLock(), "lockWait.write");
+    }
+
+    private void lockStripe(ReentrantLock row) {
+        lock(row, "lockWait.stripe");
+    }
+
+    // the global lock shared, then the read locks of `indexes` (ROSTER | NAMES | SALARIES)
+    private void lockIndexesRead(int indexes) {
+        lockRead();
+        if ((indexes & ROSTER) != 0) {
+            lock(rosterLock.readLock(), "lockWait.roster");
+        }
+        if ((indexes & NAMES) != 0) {
+            lock(namesLock.readLock(), "lockWait.names");
+        }
+        if ((indexes & SALARIES) != 0) {
+            lock(salariesLock.readLock(), "lockWait.salaries");
+        }
+    }
+
+    private void unlockIndexesRead(int indexes) {
+        if ((indexes & SALARIES) != 0) {
+            salariesLock.readLock().unlock();
+        }
+        if ((indexes & NAMES) != 0) {
+            namesLock.readLock().unlock();
+        }
+        if ((indexes & ROSTER) != 0) {
+            rosterLock.readLock().unlock();
+        }
+        lock.readLock().unlock();
+    }
+
+    // the global lock shared, then the write locks of `indexes`
+    private void lockIndexesWrite(int indexes) {
+        lockRead();
+        if ((indexes & ROSTER) != 0) {
+            lock(rosterLock.writeLock(), "lockWait.roster");
+        }
+        if ((indexes & NAMES) != 0) {
+            lock(namesLock.writeLock(), "lockWait.names");
+        }
+        if ((indexes & SALARIES) != 0) {
+            lock(salariesLock.writeLock(), "lockWait.salaries");
+        }
+    }
+
+    private void unlockIndexesWrite(int indexes) {
+        if ((indexes & SALARIES) != 0) {
+            salariesLock.writeLock().unlock();
+        }
+        if ((indexes & NAMES) != 0) {
+            namesLock.writeLock().unlock();
+        }
+        if ((indexes & ROSTER) != 0) {
+            rosterLock.writeLock().unlock();
+        }
+        lock.readLock().unlock();
+    }
+
+    // Lets searchById (and the updates that look the employee up first) skip the lock: read the
+    // roster version, look the id up, read the version again. The same even number both times
+    // means no add or delete moved the id map in between, so the answer stands; otherwise (an add
+    // or delete in progress, or one finished meanwhile) retry, and after a few tries take the
+    // roster read lock. IntEmployeeMap.get copes with the torn table a racing writer can leave.
+    @Override
+    Employee findById(int empId) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            long version = rosterVersion;
+            if ((version & 1) == 0) {
+                Employee emp = super.findById(empId);
+                VarHandle.acquireFence(); // keep the map reads before the second version read
+                if (rosterVersion == version) {
+                    return emp;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        lock(rosterLock.readLock(), "lockWait.roster");
+        try {
+            return super.findById(empId);
+        } finally {
+            rosterLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean hasEmployee(int empId) {
+        return findById(empId) != null;
+    }
+
+    // one int, so a racy read can only be stale; the volatile read makes it at least as new as the
+    // last add or delete that finished
+    @Override
+    public int getEmployeeCount() {
+        long version = rosterVersion;
+        return super.getEmployeeCount();
+    }
+
+    // called with the roster write lock held, around every change to the id map
+    private void beginRosterWrite() {
+        rosterVersion++;
+        VarHandle.storeStoreFence(); // the map writes can't move before the odd version
+    }
+
+    private void endRosterWrite() {
+        rosterVersion++;
+    }
+
+    // Salaries of several employees as of one moment (NaN for an unknown id), without locking in
+    // the common case: read the salary version, the salaries, then the version again, and retry
+    // under the read lock if a salary revision was being written in between.
+    public double[] getSalaries(int... empIds) {
+        long start = startTimer();
+        try {
+            double[] salaries = new double[empIds.length];
+            for (int attempt = 0; attempt < 3; attempt++) {
+                long version = getSalaryVersion();
+                if ((version & 1) == 0) {
+                    readSalaries(empIds, salaries);
+                    VarHandle.acquireFence(); // keep the salary reads before the second version read
+                    if (getSalaryVersion() == version) {
+                        return salaries;
+                    }
+                }
+                Thread.onSpinWait();
+            }
+            lockRead();
+            try {
+                readSalaries(empIds, salaries);
+                return salaries;
+            } finally {
+                lock.readLock().unlock();
+            }
+        } finally {
+            stopTimer("getSalaries", start);
+        }
+    }
+
+    private void readSalaries(int[] empIds, double[] salaries) {
+        for (int i = 0; i < empIds.length; i++) {
+            Employee emp = findById(empIds[i]);
+            salaries[i] = emp == null ? Double.NaN : emp.getSalary();
+        }
+    }
+
+    @Override
+    public boolean addEmployee(Employee emp) {
+        if (emp == null) {
+            return false;
+        }
+        ReentrantLock row = stripe(emp.getEmployeeId());
+        lockStripe(row);
+        lockIndexesWrite(ALL);
+        beginRosterWrite();
+        try {
+            return super.addEmployee(emp);
+        } finally {
+            endRosterWrite();
+            unlockIndexesWrite(ALL);
+            row.unlock();
+        }
+    }
+
+    // the index locks once for the whole batch instead of once per row; the rows aren't visible to
+    // anyone yet, so their stripes don't need to be taken
+    @Override
+    public List<Employee> addEmployees(List<Employee> batch) {
+        List<Employee> rejected = new ArrayList<>();
+        lockIndexesWrite(ALL);
+        beginRosterWrite();
+        long start = startTimer();
+        beginBatch();
+        try {
+            for (Employee emp : batch) {
+                if (emp == null || !insert(emp)) {
+                    rejected.add(emp);
+                }
+            }
+            return rejected;
+        } finally {
+            endBatch();
+            stopTimer("addEmployees", start);
+            endRosterWrite();
+            unlockIndexesWrite(ALL);
+        }
+    }
+
+    // same as addEmployees: one write lock for the whole load, no stripes
+    @Override
+    public int loadAll(Employee[] rows) {
+        lockIndexesWrite(ALL);
+        beginRosterWrite();
+        try {
+            return super.loadAll(rows);
+        } finally {
+            endRosterWrite();
+            unlockIndexesWrite(ALL);
+        }
+    }
+
+    @Override
+    public boolean deleteEmployee(int empId) {
+        ReentrantLock row = stripe(empId);
+        lockStripe(row);
+        lockIndexesWrite(ALL);
+        beginRosterWrite();
+        try {
+            return super.deleteEmployee(empId);
+        } finally {
+            endRosterWrite();
+            unlockIndexesWrite(ALL);
+            row.unlock();
+        }
+    }
+
+    // ---- single-employee updates ----
+
+    @Override
+    public boolean updateSalaryById(int empId, double newSalary) {
+        ReentrantLock row = stripe(empId);
+        lockStripe(row);
+        lockRead();
+        try {
+            return super.updateSalaryById(empId, newSalary);
+        } finally {
+            lock.readLock().unlock();
+            row.unlock();
+        }
+    }
+
+    @Override
+    public boolean updateSalaryByPercentageById(int empId, double percentage) {
+        ReentrantLock row = stripe(empId);
+        lockStripe(row);
+        lockRead();
+        try {
+            return super.updateSalaryByPercentageById(empId, percentage);
+        } finally {
+            lock.readLock().unlock();
+            row.unlock();
+        }
+    }
+
+    @Override
+    public boolean updateName(int empId, String newName) {
+        ReentrantLock row = stripe(empId);
+        lockStripe(row);
+        lockRead();
+        try {
+            return super.updateName(empId, newName);
+        } finally {
+            lock.readLock().unlock();
+            row.unlock();
+        }
+    }
+
+    @Override
+    public boolean updateAddress(int empId, String newAddress) {
+        ReentrantLock row = stripe(empId);
+        lockStripe(row);
+        try {
+            return super.updateAddress(empId, newAddress);
+        } finally {
+            row.unlock();
+        }
+    }
+
+    @Override
+    public boolean updateDob(int empId, String newDob) {
+        ReentrantLock row = stripe(empId);
+        lockStripe(row);
+        try {
+            return super.updateDob(empId, newDob);
+        } finally {
+            row.unlock();
+        }
+    }
+
+    // called with the stripe and the shared global lock held; the index lock covers the field write
+    // as well as the index update, so a reader holding the index's read lock sees every row's field
+    // and index position agree
+    @Override
+    void applySalary(Employee emp, double newSalary) {
+        lock(salariesLock.writeLock(), "lockWait.salaries");
+        try {
+            super.applySalary(emp, newSalary);
+        } finally {
+            salariesLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    void applyName(Employee emp, String newName) {
+        lock(namesLock.writeLock(), "lockWait.names");
+        try {
+            super.applyName(emp, newName);
+        } finally {
+            namesLock.writeLock().unlock();
+        }
+    }
+
+    // ---- bulk updates ----
+
+    @Override
+    public int updateSalaryByDepartment(String dept, double newSalary) {
+        lockWrite();
+        beginSalaryWrite();
+        try {
+            return super.updateSalaryByDepartment(dept, newSalary);
+        } finally {
+            endSalaryWrite();
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int updateSalaryForAll(double newSalary) {
+        lockWrite();
+        beginSalaryWrite();
+        try {
+            return super.updateSalaryForAll(newSalary);
+        } finally {
+            endSalaryWrite();
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int updateSalaryByPercentageByDepartment(String dept, double percentage) {
+        lockWrite();
+        beginSalaryWrite();
+        try {
+            return super.updateSalaryByPercentageByDepartment(dept, percentage);
+        } finally {
+            endSalaryWrite();
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int updateSalaryByPercentageForAll(double percentage) {
+        lockWrite();
+        beginSalaryWrite();
+        try {
+            return super.updateSalaryByPercentageForAll(percentage);
+        } finally {
+            endSalaryWrite();
+            lock.writeLock().unlock();
+        }
+    }
+
+    // the whole revision is validated and written under one write lock, so no locking reader (and
+    // no other writer) sees it half applied; getSalaries covers the lock-free readers
+    @Override
+    boolean commitSalaryRevision(SalaryRevision revision) {
+        lockWrite();
+        try {
+            return super.commitSalaryRevision(revision);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // taking the snapshot holds the read locks (to bump the version and copy the head count and
+    // department figures without an add/delete or salary change in between), O(departments); its
+    // reads then take the roster read lock one chunk of rows at a time
+    @Override
+    public RosterSnapshot snapshot() {
+        lockIndexesRead(ROSTER | SALARIES);
+        try {
+            return super.snapshot();
+        } finally {
+            unlockIndexesRead(ROSTER | SALARIES);
+        }
+    }
+
+    @Override
+    List<Employee> snapshotRows(long version, Integer afterId, int limit) {
+        lockIndexesRead(ROSTER);
+        try {
+            return super.snapshotRows(version, afterId, limit);
+        } finally {
+            unlockIndexesRead(ROSTER);
+        }
+    }
+
+    // ---- queries ----
+
+    // the whole query (planning, the index walk and the sort) runs under the read locks of every
+    // index, so it sees one consistent roster
+    @Override
+    List<Employee> runQuery(EmployeeQuery query) {
+        lockIndexesRead(ALL);
+        try {
+            return super.runQuery(query);
+        } finally {
+            unlockIndexesRead(ALL);
+        }
+    }
+
+    @Override
+    String explainQuery(EmployeeQuery query) {
+        lockIndexesRead(ALL);
+        try {
+            return super.explainQuery(query);
+        } finally {
+            unlockIndexesRead(ALL);
+        }
+    }
+
+    @Override
+    public List<Employee> searchByName(String name) {
+        lockIndexesRead(NAMES);
+        try {
+            return super.searchByName(name);
+        } finally {
+            unlockIndexesRead(NAMES);
+        }
+    }
+
+    @Override
+    public List<Employee> searchByNamePrefix(String prefix, int limit) {
+        lockIndexesRead(NAMES);
+        try {
+            return super.searchByNamePrefix(prefix, limit);
+        } finally {
+            unlockIndexesRead(NAMES);
+        }
+    }
+
+    @Override
+    public List<Employee> searchByNameContaining(String text, int limit) {
+        lockIndexesRead(NAMES);
+        try {
+            return super.searchByNameContaining(text, limit);
+        } finally {
+            unlockIndexesRead(NAMES);
+        }
+    }
+
+    @Override
+    public List<Employee> searchByNameFuzzy(String name, int maxEdits, int limit) {
+        lockIndexesRead(NAMES);
+        try {
+            return super.searchByNameFuzzy(name, maxEdits, limit);
+        } finally {
+            unlockIndexesRead(NAMES);
+        }
+    }
+
+    @Override
+    public List<Employee> searchByDepartment(String dept) {
+        lockIndexesRead(ROSTER);
+        try {
+            return super.searchByDepartment(dept);
+        } finally {
+            unlockIndexesRead(ROSTER);
+        }
+    }
+
+    @Override
+    public Employee getHighestSalaryEmployee() {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getHighestSalaryEmployee();
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public Employee getLowestSalaryEmployee() {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getLowestSalaryEmployee();
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public List<Employee> getTopSalaryEmployees(int k) {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getTopSalaryEmployees(k);
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public List<Employee> getBottomSalaryEmployees(int k) {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getBottomSalaryEmployees(k);
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public List<Employee> getEmployeesInSalaryRange(double minSalary, double maxSalary) {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getEmployeesInSalaryRange(minSalary, maxSalary);
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public List<Employee> getTopSalaryEmployees(String dept, int k) {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getTopSalaryEmployees(dept, k);
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public List<Employee> getBottomSalaryEmployees(String dept, int k) {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getBottomSalaryEmployees(dept, k);
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public int getSalaryRank(int empId) {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getSalaryRank(empId);
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public int getDepartmentSalaryRank(int empId) {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getDepartmentSalaryRank(empId);
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public Employee getEmployeeAtSalaryPercentile(String dept, double percentile) {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getEmployeeAtSalaryPercentile(dept, percentile);
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public List<Employee> getEmployeesBetweenSalaryPercentiles(String dept, double from, double to) {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getEmployeesBetweenSalaryPercentiles(dept, from, to);
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public int countEmployeesInSalaryRange(String dept, double minSalary, double maxSalary) {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.countEmployeesInSalaryRange(dept, minSalary, maxSalary);
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public List<String> getAllDepartments() {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getAllDepartments();
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public int getDepartmentCount() {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getDepartmentCount();
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public DepartmentStats getDepartmentStats(String dept) {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getDepartmentStats(dept);
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public List<DepartmentStats> getAllDepartmentStats() {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getAllDepartmentStats();
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public DepartmentStats getPayrollStats() {
+        lockIndexesRead(SALARIES);
+        try {
+            return super.getPayrollStats();
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    // the read locks are held while the action runs, so keep it short or copy first (and don't
+    // change the roster from inside it)
+    @Override
+    public void forEachEmployee(Consumer<Employee> action) {
+        lockIndexesRead(ROSTER);
+        try {
+            super.forEachEmployee(action);
+        } finally {
+            unlockIndexesRead(ROSTER);
+        }
+    }
+
+    @Override
+    public void forEachInDepartment(String dept, Consumer<Employee> action) {
+        lockIndexesRead(ROSTER);
+        try {
+            super.forEachInDepartment(dept, action);
+        } finally {
+            unlockIndexesRead(ROSTER);
+        }
+    }
+
+    @Override
+    public void forEachInSalaryRange(double minSalary, double maxSalary, Consumer<Employee> action) {
+        lockIndexesRead(SALARIES);
+        try {
+            super.forEachInSalaryRange(minSalary, maxSalary, action);
+        } finally {
+            unlockIndexesRead(SALARIES);
+        }
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        lockIndexesRead(ROSTER);
+        try {
+            return super.getAllEmployees();
+        } finally {
+            unlockIndexesRead(ROSTER);
+        }
+    }
+
+    @Override
+    public List<Employee> getEmployeesAfter(Integer afterId, int pageSize) {
+        lockIndexesRead(ROSTER);
+        try {
+            return super.getEmployeesAfter(afterId, pageSize);
+        } finally {
+            unlockIndexesRead(ROSTER);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.Collection;
+
+// Running payroll figures for one department: headcount, salary total, lowest/highest salary and
+// a SalarySketch for percentiles. EmployeManager keeps one per department (case-folded, like
+// searchByDepartment) and updates it on every add, delete and salary change, so dashboards read
+// these instead of walking the roster.
+//
+// Copies handed out by the manager (getDepartmentStats, RosterSnapshot) never change; combine()
+// adds departments up, e.g. into company-wide figures.
+public class DepartmentStats {
+    private final String department;
+    private long headcount;
+    private double totalSalary;
+    // only set on copies: the manager's own figures take them from the department's salary index
+    // when they're copied, so a removed top salary never needs a rescan
+    private double minSalary = Double.NaN;
+    private double maxSalary = Double.NaN;
+    private final SalarySketch sketch;
+
+    DepartmentStats(String department) {
+        this.department = department;
+        this.sketch = new SalarySketch();
+    }
+
+    DepartmentStats(DepartmentStats other, double minSalary, double maxSalary) {
+        department = other.department;
+        headcount = other.headcount;
+        totalSalary = other.totalSalary;
+        this.minSalary = minSalary;
+        this.maxSalary = maxSalary;
+        sketch = new SalarySketch(other.sketch);
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public long getHeadcount() {
+        return headcount;
+    }
+
+    public double getTotalSalary() {
+        return totalSalary;
+    }
+
+    public double getAverageSalary() {
+        return headcount == 0 ? 0 : totalSalary / headcount;
+    }
+
+    public double getMinSalary() {
+        return minSalary;
+    }
+
+    public double getMaxSalary() {
+        return maxSalary;
+    }
+
+    // within SalarySketch.RELATIVE_ACCURACY of the true percentile; NaN for an empty department
+    public double getSalaryQuantile(double q) {
+        return sketch.quantile(q);
+    }
+
+    public double getMedianSalary() {
+        return sketch.quantile(0.5);
+    }
+
+    public double getP90Salary() {
+        return sketch.quantile(0.9);
+    }
+
+    // the figures for all of `parts` together, under the name `label`
+    public static DepartmentStats combine(String label, Collection<DepartmentStats> parts) {
+        DepartmentStats combined = new DepartmentStats(label);
+        for (DepartmentStats part : parts) {
+            combined.merge(part);
+        }
+        return combined;
+    }
+
+    private void merge(DepartmentStats other) {
+        if (other.headcount == 0) {
+            return;
+        }
+        minSalary = headcount == 0 ? other.minSalary : Math.min(minSalary, other.minSalary);
+        maxSalary = headcount == 0 ? other.maxSalary : Math.max(maxSalary, other.maxSalary);
+        headcount += other.headcount;
+        totalSalary += other.totalSalary;
+        sketch.merge(other.sketch);
+    }
+
+    void add(double salary) {
+        headcount++;
+        totalSalary += salary;
+        sketch.add(salary);
+    }
+
+    void remove(double salary) {
+        headcount--;
+        sketch.remove(salary);
+        if (headcount == 0) {
+            totalSalary = 0; // drop the rounding error that's built up
+            return;
+        }
+        totalSalary -= salary;
+    }
+
+    void salaryChanged(double oldSalary, double newSalary) {
+        if (oldSalary == newSalary) {
+            return;
+        }
+        remove(oldSalary);
+        add(newSalary);
+    }
+
+    boolean isEmpty() {
+        return headcount == 0;
+    }
+}
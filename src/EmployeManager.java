@@ -1,38 +1,382 @@
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 public class EmployeManager {
-    private List<Employee> employeeList = new ArrayList<>();
+    // kept sorted by id so a delete is O(log N) instead of an ArrayList scan + shift,
+    // and listings still come back in a stable order
+    private NavigableMap<Integer, Employee> roster = new TreeMap<>();
 
-    private Map<Integer, Employee> employeeById = new HashMap<>();
+    // primitive int keys, so an id lookup doesn't box and the map is a few bytes per row
+    private IntEmployeeMap employeeById = new IntEmployeeMap();
+
+    // case-folded secondary indexes, so name/department lookups only touch the matches;
+    // departments are keyed by their FieldDictionary group, names by the lower-cased name
+    private Map<Integer, NavigableMap<Integer, Employee>> employeesByDepartment = new HashMap<>();
+    private Map<String, NavigableMap<Integer, Employee>> employeesByName = new HashMap<>();
+
+    // prefix/substring/typo-tolerant lookups over the distinct lower-cased names; during a batch
+    // (see beginBatch) the names wait in pendingNames and are indexed together
+    private NameIndex nameIndex = new NameIndex();
+    private List<String> pendingNames;
+
+    // salary order (ties broken by id) with ranks, so highest/lowest/top-K/percentiles don't scan
+    // everyone; one over the whole roster and one per department group
+    private SalaryRankIndex employeesBySalary = new SalaryRankIndex();
+    private Map<Integer, SalaryRankIndex> departmentSalaries = new HashMap<>();
+    private static final SalaryRankIndex NO_SALARIES = new SalaryRankIndex();
+
+    // running payroll figures per department group (first-seen order), kept up to date on every
+    // add/delete/salary change so dashboards don't walk the roster
+    private NavigableMap<Integer, DepartmentStats> departmentStats = new TreeMap<>();
+
+    // every mutation is written here before it is applied (null = not journaled); in a batch the
+    // wait for the journal's fsync is left to endBatch, see durable
+    private EmployeeJournal journal;
+    private long batchSequence;
+
+    // bulk salary updates over at least PARALLEL_THRESHOLD rows run on this pool (null = sequential)
+    static final int PARALLEL_THRESHOLD = 10_000;
+    private ForkJoinPool bulkUpdatePool;
+
+    // call counts and latencies of the public operations (null = not measured, see MetricsRegistry)
+    private MetricsRegistry metrics;
+
+    // odd while a salary revision (or, in ConcurrentEmployeManager, a bulk update) is being
+    // written; a seqlock for readers that don't take a lock, see getSalaryVersion
+    private volatile long salaryVersion;
+
+    // MVCC read snapshots (see RosterSnapshot): adds and row changes are stamped with
+    // snapshotVersion and every snapshot bumps it. Rows keep their old states, and deleted rows a
+    // frozen copy in retiredRows, only while an open snapshot can see them.
+    private volatile long snapshotVersion;
+    private final ConcurrentSkipListMap<Long, Integer> openSnapshots = new ConcurrentSkipListMap<>();
+    private final Set<Employee> versionedRows = ConcurrentHashMap.newKeySet();
+    private final ConcurrentSkipListMap<Integer, RetiredRow> retiredRows = new ConcurrentSkipListMap<>();
+
+    // a deleted row as the snapshots taken in [addedAt, deletedAt) saw it; an id that was deleted,
+    // re-added and deleted again has a chain, newest first. Immutable, trimmed by copying.
+    private static final class RetiredRow {
+        final Employee row; // Employee.retire(), keeps the row's older states
+        final long addedAt;
+        final long deletedAt;
+        final RetiredRow older;
+
+        RetiredRow(Employee row, long addedAt, long deletedAt, RetiredRow older) {
+            this.row = row;
+            this.addedAt = addedAt;
+            this.deletedAt = deletedAt;
+            this.older = older;
+        }
+
+        Employee rowAt(long version) {
+            for (RetiredRow retired = this; retired != null; retired = retired.older) {
+                if (retired.addedAt <= version && version < retired.deletedAt) {
+                    return retired.row.rowAt(version);
+                }
+            }
+            return null;
+        }
+
+        // the chain without the rows no snapshot taken at oldestOpen or later sees, null if empty
+        RetiredRow trim(EmployeManager manager, long oldestOpen) {
+            RetiredRow rest = older == null ? null : older.trim(manager, oldestOpen);
+            if (deletedAt <= oldestOpen) {
+                return rest;
+            }
+            row.trimHistory(manager, oldestOpen);
+            return rest == older ? this : new RetiredRow(row, addedAt, deletedAt, rest);
+        }
+    }
 
     public boolean addEmployee(Employee emp) {
+        long start = startTimer();
+        try {
+            return insert(emp);
+        } finally {
+            stopTimer("addEmployee", start);
+        }
+    }
+
+    // addEmployee without the timing, for batches that are timed as a whole
+    boolean insert(Employee emp) {
         // if we want to add employee, if the map already contains empID return false;
         if (emp == null || employeeById.containsKey(emp.getEmployeeId())) {
             return false;
         }
+        // an employee can only be indexed by one manager at a time
+        if (emp.getOwner() != null) {
+            return false;
+        }
 
-        employeeList.add(emp);
+        if (journal != null) {
+            durable(journal.logAdd(emp));
+        }
+
+        roster.put(emp.getEmployeeId(), emp);
         employeeById.put(emp.getEmployeeId(), emp);
+        addToIndex(employeesByDepartment, departmentKey(emp), emp);
+        addToIndex(employeesByName, indexKey(emp.getName()), emp);
+        if (pendingNames != null) {
+            pendingNames.add(indexKey(emp.getName()));
+        } else {
+            nameIndex.add(indexKey(emp.getName()));
+        }
+        employeesBySalary.add(emp);
+        departmentSalaries.computeIfAbsent(departmentKey(emp), group -> new SalaryRankIndex()).add(emp);
+        departmentStats.computeIfAbsent(departmentKey(emp), group -> new DepartmentStats(emp.getDepartmentName()))
+                .add(emp.getSalary());
+        emp.setOwner(this);
 
         return true;
     }
 
-    public boolean deleteEmployee(int empId) {
-        Employee emp = employeeById.get(empId);
-        if (emp == null) {
-            return false;
+    // adds a batch (e.g. from a CSV import) and returns the employees that could not be added
+    public List<Employee> addEmployees(List<Employee> batch) {
+        long start = startTimer();
+        beginBatch();
+        try {
+            List<Employee> rejected = new ArrayList<>();
+            for (Employee emp : batch) {
+                if (!insert(emp)) {
+                    rejected.add(emp);
+                }
+            }
+            return rejected;
+        } finally {
+            endBatch();
+            stopTimer("addEmployees", start);
         }
+    }
 
-        employeeList.remove(emp);
-        employeeById.remove(empId);
+    // Adds a whole roster at once (EmployeeSnapshotStore.load) and returns how many were added;
+    // rows that addEmployee would refuse are skipped. Into an empty, unjournaled manager the rows
+    // only go into the roster and the id/department/name maps one by one. The rest is built once
+    // they are all in: the name triples in one NameIndex.addAll, the department figures in one
+    // pass and the salary trees bottom-up from one sort.
+    public int loadAll(Employee[] rows) {
+        long start = startTimer();
+        try {
+            if (!roster.isEmpty() || journal != null) {
+                int added = 0;
+                beginBatch();
+                try {
+                    for (Employee emp : rows) {
+                        if (insert(emp)) {
+                            added++;
+                        }
+                    }
+                } finally {
+                    endBatch();
+                }
+                return added;
+            }
 
-        return true;
+            List<String> names = new ArrayList<>(rows.length);
+            for (Employee emp : rows) {
+                if (emp == null || emp.getOwner() != null || employeeById.containsKey(emp.getEmployeeId())) {
+                    continue;
+                }
+                roster.put(emp.getEmployeeId(), emp);
+                employeeById.put(emp.getEmployeeId(), emp);
+                addToIndex(employeesByDepartment, departmentKey(emp), emp);
+                addToIndex(employeesByName, indexKey(emp.getName()), emp);
+                names.add(indexKey(emp.getName()));
+                emp.setOwner(this);
+            }
+            nameIndex.addAll(names);
+            for (Employee emp : roster.values()) {
+                departmentStats.computeIfAbsent(departmentKey(emp), group -> new DepartmentStats(emp.getDepartmentName()))
+                        .add(emp.getSalary());
+                departmentSalaries.computeIfAbsent(departmentKey(emp), group -> new SalaryRankIndex());
+            }
+            rebuildSalaryIndex();
+            return roster.size();
+        } finally {
+            stopTimer("loadAll", start);
+        }
+    }
+
+    // Between these, insert leaves the names for NameIndex.addAll, which posts the letter triples
+    // of all the new words in one pass. Nothing may search by name in between (EmployeManager
+    // isn't shared, ConcurrentEmployeManager holds its write locks).
+    void beginBatch() {
+        pendingNames = new ArrayList<>();
+    }
+
+    void endBatch() {
+        nameIndex.addAll(pendingNames);
+        pendingNames = null;
+        if (batchSequence > 0) {
+            long sequence = batchSequence;
+            batchSequence = 0;
+            journal.awaitDurable(sequence);
+        }
+    }
+
+    // Waits until the journal has the change's record on disk (with GROUP_COMMIT, the fsync that
+    // covers it), before the change is applied. A batch applies its rows and waits once, at the end.
+    private void durable(long sequence) {
+        if (pendingNames != null) {
+            batchSequence = sequence;
+        } else {
+            journal.awaitDurable(sequence);
+        }
+    }
+
+    public boolean deleteEmployee(int empId) {
+        long start = startTimer();
+        try {
+            Employee emp = employeeById.get(empId);
+            if (emp == null) {
+                return false;
+            }
+            if (journal != null) {
+                durable(journal.logId(EmployeeJournal.DELETE, empId));
+            }
+
+            roster.remove(empId);
+            employeeById.remove(empId);
+            removeFromIndex(employeesByDepartment, departmentKey(emp), emp);
+            removeFromIndex(employeesByName, indexKey(emp.getName()), emp);
+            nameIndex.remove(indexKey(emp.getName()));
+            employeesBySalary.remove(emp.getSalary(), empId);
+            SalaryRankIndex salaries = departmentSalaries.get(departmentKey(emp));
+            salaries.remove(emp.getSalary(), empId);
+            if (salaries.isEmpty()) {
+                departmentSalaries.remove(departmentKey(emp));
+            }
+            DepartmentStats stats = departmentStats.get(departmentKey(emp));
+            stats.remove(emp.getSalary());
+            if (stats.isEmpty()) {
+                departmentStats.remove(departmentKey(emp));
+            }
+            // a snapshot's searchById that no longer finds the live row finds this one
+            long version = snapshotVersion;
+            if (isSeenBySnapshot(emp.getAddedAt(), version)) {
+                Employee frozen = emp.retire();
+                retiredRows.compute(empId, (id, older) -> new RetiredRow(frozen, frozen.getAddedAt(), version, older));
+            }
+            emp.setOwner(null);
+
+            return true;
+        } finally {
+            stopTimer("deleteEmployee", start);
+        }
     }
 
     public Employee searchById(int empId) {
+        long start = startTimer();
+        try {
+            return findById(empId);
+        } finally {
+            stopTimer("searchById", start);
+        }
+    }
+
+    // searchById without the timing, for the operations that look an employee up first
+    Employee findById(int empId) {
         return employeeById.get(empId);
     }
 
+    public EmployeeJournal getJournal() {
+        return journal;
+    }
+
+    // attach after replaying the journal, so replayed operations aren't logged twice
+    public void setJournal(EmployeeJournal journal) {
+        this.journal = journal;
+    }
+
+    public ForkJoinPool getBulkUpdatePool() {
+        return bulkUpdatePool;
+    }
+
+    // e.g. ForkJoinPool.commonPool() or new ForkJoinPool(16); null switches back to sequential loops
+    public void setBulkUpdatePool(ForkJoinPool bulkUpdatePool) {
+        this.bulkUpdatePool = bulkUpdatePool;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    // every public operation (and ConcurrentEmployeManager's lock waits) then records its latency
+    // under its method name; attach after loading/replaying so startup doesn't skew the numbers
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    // 0 when nothing is measured, so an unmeasured call doesn't even read the clock
+    final long startTimer() {
+        return metrics == null ? 0 : System.nanoTime();
+    }
+
+    final void stopTimer(String operation, long start) {
+        MetricsRegistry registry = metrics;
+        if (registry != null && start != 0) {
+            registry.record(operation, start);
+        }
+    }
+
+    // the name/address/DOB updates from Main go through the manager so they get journaled
+    public boolean updateName(int empId, String newName) {
+        long start = startTimer();
+        try {
+            Employee emp = findById(empId);
+            if (emp == null) {
+                return false;
+            }
+            if (journal != null) {
+                durable(journal.logIdString(EmployeeJournal.SET_NAME, empId, newName));
+            }
+            applyName(emp, newName);
+            return true;
+        } finally {
+            stopTimer("updateName", start);
+        }
+    }
+
+    public boolean updateAddress(int empId, String newAddress) {
+        long start = startTimer();
+        try {
+            Employee emp = findById(empId);
+            if (emp == null) {
+                return false;
+            }
+            if (journal != null) {
+                durable(journal.logIdString(EmployeeJournal.SET_ADDRESS, empId, newAddress));
+            }
+            emp.setAddress(newAddress);
+            return true;
+        } finally {
+            stopTimer("updateAddress", start);
+        }
+    }
+
+    public boolean updateDob(int empId, String newDob) {
+        long start = startTimer();
+        try {
+            Employee emp = findById(empId);
+            if (emp == null) {
+                return false;
+            }
+            if (journal != null) {
+                durable(journal.logIdString(EmployeeJournal.SET_DOB, empId, newDob));
+            }
+            emp.setDob(newDob);
+            return true;
+        } finally {
+            stopTimer("updateDob", start);
+        }
+    }
+
 
     // we are not using this, (check) from line 38 to 47 ...
     @Override
@@ -40,91 +384,745 @@ public class EmployeManager {
         if (o == null || getClass() != o.getClass())
             return false;
         EmployeManager that = (EmployeManager) o;
-        return Objects.equals(employeeList, that.employeeList);
+        return Objects.equals(roster, that.roster);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(employeeList);
+        return Objects.hashCode(roster);
     }
 
     public List<Employee> searchByName(String name) {
-        List<Employee> result = new ArrayList<>();
-        for (Employee emp : employeeList) {
-            if (emp.getName().equalsIgnoreCase(name)) {
-                result.add(emp);
-            }
+        long start = startTimer();
+        try {
+            return new ArrayList<>(name == null ? Collections.emptyList() : lookup(employeesByName, indexKey(name)));
+        } finally {
+            stopTimer("searchByName", start);
         }
-        return result;
     }
 
     public List<Employee> searchByDepartment(String dept) {
-        List<Employee> result = new ArrayList<>();
-        for (Employee emp : employeeList) {
-            if (emp.getDepartmentName().equalsIgnoreCase(dept)) {
-                result.add(emp);
+        long start = startTimer();
+        try {
+            return new ArrayList<>(inDepartment(dept));
+        } finally {
+            stopTimer("searchByDepartment", start);
+        }
+    }
+
+    // Partial and misspelled name lookups, all case-insensitive and ranked (best match first, then
+    // alphabetical, then by id); each returns at most `limit` employees.
+
+    // the name, or any word of it, starts with prefix ("ra" finds "Ravi Kumar" and "Amit Rao")
+    public List<Employee> searchByNamePrefix(String prefix, int limit) {
+        long start = startTimer();
+        try {
+            String key = indexKey(prefix).trim();
+            return nameMatches(limit, visitor -> nameIndex.prefix(key, visitor));
+        } finally {
+            stopTimer("searchByNamePrefix", start);
+        }
+    }
+
+    // the name contains text; prefix matches come first
+    public List<Employee> searchByNameContaining(String text, int limit) {
+        long start = startTimer();
+        try {
+            String key = indexKey(text).trim();
+            return nameMatches(limit, visitor -> nameIndex.substring(key, visitor));
+        } finally {
+            stopTimer("searchByNameContaining", start);
+        }
+    }
+
+    // every word of name matches a word of the employee's name with at most maxEdits typos
+    // (a wrong, missing, extra or swapped letter each count as one; words shorter than 7 letters
+    // allow at most one, shorter than 3 none); fewest typos first
+    public List<Employee> searchByNameFuzzy(String name, int maxEdits, int limit) {
+        long start = startTimer();
+        try {
+            String key = indexKey(name);
+            return nameMatches(limit, visitor -> nameIndex.fuzzy(key, maxEdits, visitor));
+        } finally {
+            stopTimer("searchByNameFuzzy", start);
+        }
+    }
+
+    private List<Employee> nameMatches(int limit, Consumer<Predicate<String>> query) {
+        List<Employee> matches = new ArrayList<>();
+        if (limit <= 0) {
+            return matches;
+        }
+        query.accept(name -> {
+            for (Employee emp : lookup(employeesByName, name)) {
+                if (matches.size() >= limit) {
+                    return false;
+                }
+                matches.add(emp);
+            }
+            return matches.size() < limit;
+        });
+        return matches;
+    }
+
+    // Single-row renames and salary changes write the field through these, so that
+    // ConcurrentEmployeManager can hold the lock of the index that follows the change (the field
+    // write and the index update then look like one step to its readers). Bulk updates call
+    // Employee.setSalary directly.
+    void applyName(Employee emp, String newName) {
+        emp.setName(newName);
+    }
+
+    void applySalary(Employee emp, double newSalary) {
+        emp.setSalary(newSalary);
+    }
+
+    // called by Employee.setName so the name index follows renames
+    void nameChanged(Employee emp, String oldName) {
+        removeFromIndex(employeesByName, indexKey(oldName), emp);
+        addToIndex(employeesByName, indexKey(emp.getName()), emp);
+        nameIndex.remove(indexKey(oldName));
+        nameIndex.add(indexKey(emp.getName()));
+    }
+
+    // called by Employee.setSalary so the salary order and department figures follow every update
+    void salaryChanged(Employee emp, double oldSalary) {
+        employeesBySalary.move(emp, oldSalary);
+        departmentSalaries.get(departmentKey(emp)).move(emp, oldSalary);
+        departmentStats.get(departmentKey(emp)).salaryChanged(oldSalary, emp.getSalary());
+    }
+
+    private static String indexKey(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static int departmentKey(Employee emp) {
+        return FieldDictionary.DEPARTMENTS.group(emp.getDepartmentCode());
+    }
+
+    // everyone in dept, matched on the case-folded dictionary group instead of comparing strings
+    private Collection<Employee> inDepartment(String dept) {
+        if (dept == null) {
+            return Collections.emptyList();
+        }
+        int group = FieldDictionary.DEPARTMENTS.groupOf(dept);
+        return group == FieldDictionary.NONE ? Collections.emptyList() : lookup(employeesByDepartment, group);
+    }
+
+    private static <K> void addToIndex(Map<K, NavigableMap<Integer, Employee>> index, K key, Employee emp) {
+        index.computeIfAbsent(key, k -> new TreeMap<>()).put(emp.getEmployeeId(), emp);
+    }
+
+    private static <K> void removeFromIndex(Map<K, NavigableMap<Integer, Employee>> index, K key, Employee emp) {
+        NavigableMap<Integer, Employee> matches = index.get(key);
+        if (matches != null) {
+            matches.remove(emp.getEmployeeId());
+            if (matches.isEmpty()) {
+                index.remove(key);
             }
         }
-        return result;
+    }
+
+    private static <K> Collection<Employee> lookup(Map<K, NavigableMap<Integer, Employee>> index, K key) {
+        NavigableMap<Integer, Employee> matches = index.get(key);
+        return matches == null ? Collections.emptyList() : matches.values();
     }
 
     public boolean updateSalaryById(int empId, double newSalary) {
-        Employee emp = searchById(empId);
-        if (emp != null && newSalary >= 0) {
-            emp.setSalary(newSalary);
-            return true;
+        long start = startTimer();
+        try {
+            Employee emp = findById(empId);
+            if (emp != null && Validation.isValidNewSalary(newSalary)) {
+                if (journal != null) {
+                    durable(journal.logIdValue(EmployeeJournal.SET_SALARY, empId, newSalary));
+                }
+                applySalary(emp, newSalary);
+                return true;
+            }
+            return false;
+        } finally {
+            stopTimer("updateSalaryById", start);
         }
-        return false;
     }
 
 
     // this function is returning how many emp get their salary updated using this function
     public int updateSalaryByDepartment(String dept, double newSalary) {
-        if (newSalary < 0) {
-            return 0;
-        }
+        long start = startTimer();
+        try {
+            if (!Validation.isValidNewSalary(newSalary)) {
+                return 0;
+            }
+            if (journal != null) {
+                durable(journal.logStringValue(EmployeeJournal.SET_DEPARTMENT_SALARY, dept, newSalary));
+            }
 
-        int count = 0;
-        for (Employee emp : employeeList) {
-            // .equalsIgnoreCase is a method of string
-            if (emp.getDepartmentName().equalsIgnoreCase(dept)) {
+            Collection<Employee> rows = inDepartment(dept);
+            if (runsInParallel(rows)) {
+                return updateInParallel(rows, salary -> newSalary);
+            }
+            int count = 0;
+            for (Employee emp : rows) {
                 emp.setSalary(newSalary);
                 count++;
             }
+            return count;
+        } finally {
+            stopTimer("updateSalaryByDepartment", start);
         }
-        return count;
     }
 
     public int updateSalaryForAll(double newSalary) {
-        if (newSalary < 0) {
-            return 0;
+        long start = startTimer();
+        try {
+            if (!Validation.isValidNewSalary(newSalary)) {
+                return 0;
+            }
+            if (journal != null) {
+                durable(journal.logValue(EmployeeJournal.SET_ALL_SALARY, newSalary));
+            }
+
+            if (runsInParallel(roster.values())) {
+                return updateInParallel(roster.values(), salary -> newSalary);
+            }
+            roster.values().forEach(emp -> emp.setSalary(newSalary));
+            return roster.size();
+        } finally {
+            stopTimer("updateSalaryForAll", start);
+        }
+    }
+
+    private boolean runsInParallel(Collection<Employee> rows) {
+        return bulkUpdatePool != null && rows.size() >= PARALLEL_THRESHOLD;
+    }
+
+    // Applies newSalary to every row on the bulk update pool and returns how many rows changed.
+    // Rows whose new salary would be out of range are left alone, like the sequential loops do. Each
+    // worker owns a disjoint slice of the rows; the salary index isn't thread-safe, so it is fixed
+    // up afterwards on this thread.
+    private int updateInParallel(Collection<Employee> rows, DoubleUnaryOperator newSalary) {
+        Employee[] targets = rows.toArray(new Employee[0]);
+        double[] oldSalaries = new double[targets.length];
+        int updated;
+        try {
+            updated = bulkUpdatePool.submit(() -> IntStream.range(0, targets.length).parallel().map(i -> {
+                Employee emp = targets[i];
+                oldSalaries[i] = emp.getSalary();
+                double salary = newSalary.applyAsDouble(oldSalaries[i]);
+                if (!Validation.isValidNewSalary(salary)) {
+                    return 0;
+                }
+                emp.setSalaryUnindexed(salary);
+                return 1;
+            }).sum()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk salary update interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Bulk salary update failed", e.getCause());
+        } finally {
+            // also after a failure, so the index matches whatever salaries were written
+            reindexSalaries(targets, oldSalaries);
+        }
+        return updated;
+    }
+
+    // brings the salary index up to date after rows' salaries were written with setSalaryUnindexed
+    private void reindexSalaries(Employee[] rows, double[] oldSalaries) {
+        if (rows.length * 4L >= roster.size()) {
+            rebuildSalaryIndex();
+            for (int i = 0; i < rows.length; i++) {
+                departmentStats.get(departmentKey(rows[i])).salaryChanged(oldSalaries[i], rows[i].getSalary());
+            }
+        } else {
+            // a small share of the roster: moving its rows is cheaper than re-sorting everyone
+            for (int i = 0; i < rows.length; i++) {
+                salaryChanged(rows[i], oldSalaries[i]);
+            }
+        }
+    }
+
+    // sorts everyone by (salary, id) in parallel and rebuilds the salary indexes (the whole roster's
+    // and every department's) from that order in O(N)
+    private void rebuildSalaryIndex() {
+        Employee[] bySalary = roster.values().toArray(new Employee[0]);
+        Arrays.parallelSort(bySalary, Comparator.comparingDouble(Employee::getSalary)
+                .thenComparingInt(Employee::getEmployeeId));
+        employeesBySalary.build(bySalary);
+        Map<Integer, List<Employee>> byDepartment = new HashMap<>();
+        for (Employee emp : bySalary) {
+            byDepartment.computeIfAbsent(departmentKey(emp), group -> new ArrayList<>()).add(emp);
+        }
+        byDepartment.forEach((group, rows) -> departmentSalaries.get(group).build(rows.toArray(new Employee[0])));
+    }
+
+    // An immutable point-in-time view of the roster for reports and exports: later changes don't
+    // show up in it and writers never wait for its readers. Taking one costs O(departments): it
+    // records the version, the head count and the department figures, and reads the rows from the
+    // live roster later (see RosterSnapshot). Close it when done so the old row states it pins can
+    // be dropped.
+    public RosterSnapshot snapshot() {
+        long start = startTimer();
+        try {
+            long taken;
+            synchronized (openSnapshots) {
+                taken = snapshotVersion;
+                openSnapshots.merge(taken, 1, Integer::sum);
+                snapshotVersion = taken + 1;
+            }
+            return new RosterSnapshot(this, taken, roster.size(), copyDepartmentStats(),
+                    highestSalaryEmployee(), lowestSalaryEmployee());
+        } finally {
+            stopTimer("snapshot", start);
+        }
+    }
+
+    // Up to `limit` rows as the snapshot taken at `version` sees them, ids above afterId (from the
+    // start when null), in id order: the live rows added by then merged with the rows deleted
+    // since. Detached copies.
+    List<Employee> snapshotRows(long version, Integer afterId, int limit) {
+        Iterator<Employee> live = (afterId == null ? roster : roster.tailMap(afterId, false)).values().iterator();
+        Iterator<Map.Entry<Integer, RetiredRow>> retired = (afterId == null ? retiredRows
+                : retiredRows.tailMap(afterId, false)).entrySet().iterator();
+        List<Employee> rows = new ArrayList<>(Math.min(limit, 1024));
+        Employee nextLive = nextAddedBy(live, version);
+        Map.Entry<Integer, RetiredRow> nextRetired = retired.hasNext() ? retired.next() : null;
+        while (rows.size() < limit && (nextLive != null || nextRetired != null)) {
+            if (nextRetired == null
+                    || (nextLive != null && nextLive.getEmployeeId() < nextRetired.getKey())) {
+                rows.add(nextLive.rowAt(version));
+                nextLive = nextAddedBy(live, version);
+            } else {
+                Employee row = nextRetired.getValue().rowAt(version);
+                if (row != null) {
+                    rows.add(row);
+                }
+                nextRetired = retired.hasNext() ? retired.next() : null;
+            }
+        }
+        return rows;
+    }
+
+    private static Employee nextAddedBy(Iterator<Employee> live, long version) {
+        while (live.hasNext()) {
+            Employee emp = live.next();
+            if (emp.getAddedAt() <= version) {
+                return emp;
+            }
+        }
+        return null;
+    }
+
+    // one row as the snapshot taken at `version` sees it, null if it had no such employee
+    Employee snapshotRow(long version, int empId) {
+        Employee emp = findById(empId);
+        if (emp != null && emp.getAddedAt() <= version) {
+            return emp.rowAt(version);
+        }
+        RetiredRow retired = retiredRows.get(empId);
+        return retired == null ? null : retired.rowAt(version);
+    }
+
+    void releaseSnapshot(long taken) {
+        synchronized (openSnapshots) {
+            openSnapshots.computeIfPresent(taken, (version, readers) -> readers == 1 ? null : readers - 1);
+        }
+        long oldest = getOldestSnapshotVersion();
+        for (Employee emp : versionedRows) {
+            emp.trimHistory(this, oldest);
+        }
+        for (Integer id : retiredRows.keySet()) {
+            retiredRows.computeIfPresent(id, (key, row) -> row.trim(this, oldest));
+        }
+    }
+
+    long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    // the oldest open snapshot's version, or the current version when none is open. Never above the
+    // current version: a snapshot opened right after this returns (while releaseSnapshot is still
+    // trimming with it) must keep the states saved for it. The version is read first, so every
+    // snapshot taken before it is already in openSnapshots.
+    long getOldestSnapshotVersion() {
+        long current = snapshotVersion;
+        Map.Entry<Long, Integer> oldest = openSnapshots.firstEntry();
+        return oldest == null ? current : Math.min(oldest.getKey(), current);
+    }
+
+    // whether a row state valid from `from` until `to` is what some open snapshot sees
+    boolean isSeenBySnapshot(long from, long to) {
+        Long newest = openSnapshots.lowerKey(to);
+        return newest != null && newest >= from;
+    }
+
+    void rowVersioned(Employee emp) {
+        versionedRows.add(emp);
+    }
+
+    void rowUnversioned(Employee emp) {
+        versionedRows.remove(emp);
+    }
+
+    // stages salary changes that are validated together and applied all at once (see SalaryRevision)
+    public SalaryRevision beginSalaryRevision() {
+        return new SalaryRevision(this);
+    }
+
+    // Validates the revision against the current salaries and, if every change is valid, writes all
+    // the new salaries. Returns false without changing anything otherwise.
+    boolean commitSalaryRevision(SalaryRevision revision) {
+        long start = startTimer();
+        try {
+            Map<Employee, Double> newSalaries = revision.resolve(this);
+            if (newSalaries == null) {
+                return false;
+            }
+            if (newSalaries.isEmpty()) {
+                return true;
+            }
+            if (journal != null) {
+                durable(journal.logSalaryRevision(revision));
+            }
+
+            Employee[] rows = new Employee[newSalaries.size()];
+            double[] oldSalaries = new double[rows.length];
+            int i = 0;
+            beginSalaryWrite();
+            try {
+                for (Map.Entry<Employee, Double> entry : newSalaries.entrySet()) {
+                    rows[i] = entry.getKey();
+                    oldSalaries[i] = rows[i].getSalary();
+                    rows[i].setSalaryUnindexed(entry.getValue());
+                    i++;
+                }
+            } finally {
+                endSalaryWrite();
+            }
+            reindexSalaries(rows, oldSalaries);
+            return true;
+        } finally {
+            stopTimer("commitSalaryRevision", start);
+        }
+    }
+
+    // Changes once before and once after every salary revision is written. A reader that doesn't
+    // lock (e.g. ConcurrentEmployeManager.searchById) can read it, read the salaries it needs, and
+    // read it again: the same even number both times means no revision was half written in between.
+    public long getSalaryVersion() {
+        return salaryVersion;
+    }
+
+    // callers hold whatever lock keeps other writers out
+    void beginSalaryWrite() {
+        salaryVersion++;
+    }
+
+    void endSalaryWrite() {
+        salaryVersion++;
+    }
+
+    Collection<Employee> departmentRows(String dept) {
+        return inDepartment(dept);
+    }
+
+    Collection<Employee> allRows() {
+        return roster.values();
+    }
+
+    // combined criteria with sort and limit, walking whichever index fits best (see EmployeeQuery)
+    public EmployeeQuery query() {
+        return new EmployeeQuery(this);
+    }
+
+    List<Employee> runQuery(EmployeeQuery query) {
+        long start = startTimer();
+        try {
+            return query.run(this);
+        } finally {
+            stopTimer("runQuery", start);
+        }
+    }
+
+    String explainQuery(EmployeeQuery query) {
+        return query.explain(this);
+    }
+
+    // the index walks a query can use, in id (or salary) order or reversed
+    Collection<Employee> departmentRows(String dept, boolean descending) {
+        int group = dept == null ? FieldDictionary.NONE : FieldDictionary.DEPARTMENTS.groupOf(dept);
+        NavigableMap<Integer, Employee> rows = employeesByDepartment.get(group);
+        if (rows == null) {
+            return Collections.emptyList();
         }
+        return descending ? rows.descendingMap().values() : rows.values();
+    }
 
-        employeeList.forEach(emp -> emp.setSalary(newSalary));
-        return employeeList.size();
+    Collection<Employee> salaryRows(double minSalary, double maxSalary, boolean descending) {
+        if (!(minSalary <= maxSalary)) {
+            return Collections.emptyList();
+        }
+        return employeesBySalary.range(employeesBySalary.countBelow(minSalary),
+                employeesBySalary.countAtMost(maxSalary), descending);
+    }
+
+    Collection<Employee> allRows(boolean descending) {
+        return descending ? roster.descendingMap().values() : roster.values();
+    }
+
+    // how many employees (of dept, or of everyone if dept is null) earn between min and max, from
+    // the salary ranks in O(log N)
+    long countSalaryRows(String dept, double minSalary, double maxSalary) {
+        return salaryIndex(dept).countBetween(minSalary, maxSalary);
+    }
+
+    // the salary index of dept, or of everyone if dept is null (empty for an unknown department)
+    private SalaryRankIndex salaryIndex(String dept) {
+        if (dept == null) {
+            return employeesBySalary;
+        }
+        SalaryRankIndex salaries = departmentSalaries.get(FieldDictionary.DEPARTMENTS.groupOf(dept));
+        return salaries == null ? NO_SALARIES : salaries;
     }
 
     public Employee getHighestSalaryEmployee() {
-        // here Collections.max nedded to know what is the the basis of comaparison as Employee has different parameters(name, salary)
-        return employeeList.isEmpty() ? null
-                : Collections.max(employeeList, Comparator.comparingDouble(Employee::getSalary));
+        long start = startTimer();
+        try {
+            return highestSalaryEmployee();
+        } finally {
+            stopTimer("getHighestSalaryEmployee", start);
+        }
     }
 
     public Employee getLowestSalaryEmployee() {
-        return employeeList.isEmpty() ? null
-                : Collections.min(employeeList, Comparator.comparingDouble(Employee::getSalary));
+        long start = startTimer();
+        try {
+            return lowestSalaryEmployee();
+        } finally {
+            stopTimer("getLowestSalaryEmployee", start);
+        }
+    }
+
+    private Employee highestSalaryEmployee() {
+        if (employeesBySalary.isEmpty()) {
+            return null;
+        }
+        // among equal top salaries return the lowest id, same as Collections.max over the list did
+        double highest = employeesBySalary.select(employeesBySalary.size() - 1).getSalary();
+        return employeesBySalary.select(employeesBySalary.countBelow(highest));
+    }
+
+    private Employee lowestSalaryEmployee() {
+        return employeesBySalary.select(0);
+    }
+
+    // the k best paid employees, highest salary first
+    public List<Employee> getTopSalaryEmployees(int k) {
+        long start = startTimer();
+        try {
+            return firstK(employeesBySalary.all(true), k);
+        } finally {
+            stopTimer("getTopSalaryEmployees", start);
+        }
+    }
+
+    // the k lowest paid employees, lowest salary first
+    public List<Employee> getBottomSalaryEmployees(int k) {
+        long start = startTimer();
+        try {
+            return firstK(employeesBySalary.all(false), k);
+        } finally {
+            stopTimer("getBottomSalaryEmployees", start);
+        }
+    }
+
+    // everyone with minSalary <= salary <= maxSalary, lowest salary first
+    public List<Employee> getEmployeesInSalaryRange(double minSalary, double maxSalary) {
+        long start = startTimer();
+        try {
+            if (minSalary > maxSalary) {
+                return new ArrayList<>();
+            }
+            return new ArrayList<>(salaryRows(minSalary, maxSalary, false));
+        } finally {
+            stopTimer("getEmployeesInSalaryRange", start);
+        }
+    }
+
+    // Ranked salary questions over everyone (dept null) or one department, each O(log N) plus the
+    // rows returned, from the salary rank indexes. Ties in salary are ordered by id.
+
+    // the k best paid employees of dept, highest salary first
+    public List<Employee> getTopSalaryEmployees(String dept, int k) {
+        long start = startTimer();
+        try {
+            return firstK(salaryIndex(dept).all(true), k);
+        } finally {
+            stopTimer("getTopSalaryEmployees(dept)", start);
+        }
+    }
+
+    // the k lowest paid employees of dept, lowest salary first
+    public List<Employee> getBottomSalaryEmployees(String dept, int k) {
+        long start = startTimer();
+        try {
+            return firstK(salaryIndex(dept).all(false), k);
+        } finally {
+            stopTimer("getBottomSalaryEmployees(dept)", start);
+        }
+    }
+
+    // 1 + how many employees earn more than empId, so equal salaries share a rank (1 = best paid);
+    // 0 if there is no such employee
+    public int getSalaryRank(int empId) {
+        long start = startTimer();
+        try {
+            Employee emp = findById(empId);
+            return emp == null ? 0 : rankIn(employeesBySalary, emp);
+        } finally {
+            stopTimer("getSalaryRank", start);
+        }
+    }
+
+    // the same within empId's own department
+    public int getDepartmentSalaryRank(int empId) {
+        long start = startTimer();
+        try {
+            Employee emp = findById(empId);
+            return emp == null ? 0 : rankIn(departmentSalaries.get(departmentKey(emp)), emp);
+        } finally {
+            stopTimer("getDepartmentSalaryRank", start);
+        }
+    }
+
+    private static int rankIn(SalaryRankIndex salaries, Employee emp) {
+        return salaries.size() - salaries.countAtMost(emp.getSalary()) + 1;
+    }
+
+    // the employee at a salary percentile (0-100, nearest rank: 50 is the median, 100 the best
+    // paid); null if nobody works there or the percentile is out of range
+    public Employee getEmployeeAtSalaryPercentile(String dept, double percentile) {
+        long start = startTimer();
+        try {
+            SalaryRankIndex salaries = salaryIndex(dept);
+            if (!(percentile >= 0 && percentile <= 100)) {
+                return null;
+            }
+            return salaries.select(percentileRank(salaries, percentile) - 1);
+        } finally {
+            stopTimer("getEmployeeAtSalaryPercentile", start);
+        }
+    }
+
+    // everyone from the `from` to the `to` salary percentile (nearest ranks, both ends included),
+    // lowest salary first; e.g. (dept, 90, 95) for the band just below the top 5%
+    public List<Employee> getEmployeesBetweenSalaryPercentiles(String dept, double from, double to) {
+        long start = startTimer();
+        try {
+            SalaryRankIndex salaries = salaryIndex(dept);
+            if (!(from >= 0 && from <= to && to <= 100)) {
+                return new ArrayList<>();
+            }
+            return new ArrayList<>(salaries.range(percentileRank(salaries, from) - 1,
+                    percentileRank(salaries, to), false));
+        } finally {
+            stopTimer("getEmployeesBetweenSalaryPercentiles", start);
+        }
+    }
+
+    // 1-based position of a percentile in salary order (0 when there is nobody)
+    private static int percentileRank(SalaryRankIndex salaries, double percentile) {
+        int n = salaries.size();
+        return n == 0 ? 0 : Math.max(1, (int) Math.ceil(percentile / 100 * n));
+    }
+
+    // how many employees of dept earn between minSalary and maxSalary (both included), without
+    // walking them
+    public int countEmployeesInSalaryRange(String dept, double minSalary, double maxSalary) {
+        long start = startTimer();
+        try {
+            return salaryIndex(dept).countBetween(minSalary, maxSalary);
+        } finally {
+            stopTimer("countEmployeesInSalaryRange", start);
+        }
+    }
+
+    private static List<Employee> firstK(Collection<Employee> ordered, int k) {
+        List<Employee> result = new ArrayList<>(Math.max(0, Math.min(k, ordered.size())));
+        for (Employee emp : ordered) {
+            if (result.size() >= k) {
+                break;
+            }
+            result.add(emp);
+        }
+        return result;
     }
 
     public int getEmployeeCount() {
-        return employeeList.size();
+        return roster.size();
     }
 
+    // one name per department, spelled the way it was first added; O(departments)
     public List<String> getAllDepartments() {
-        Set<String> departments = new HashSet<>();
-        for (Employee emp : employeeList) {
-            departments.add(emp.getDepartmentName());
+        long start = startTimer();
+        try {
+            List<String> departments = new ArrayList<>(departmentStats.size());
+            for (DepartmentStats stats : departmentStats.values()) {
+                departments.add(stats.getDepartment());
+            }
+            return departments;
+        } finally {
+            stopTimer("getAllDepartments", start);
         }
-        return new ArrayList<>(departments);
+    }
+
+    public int getDepartmentCount() {
+        return departmentStats.size();
+    }
+
+    // headcount, total/average/min/max salary and salary percentiles of dept, or null if nobody
+    // works there; the copy doesn't change afterwards
+    public DepartmentStats getDepartmentStats(String dept) {
+        long start = startTimer();
+        try {
+            int group = dept == null ? FieldDictionary.NONE : FieldDictionary.DEPARTMENTS.groupOf(dept);
+            DepartmentStats stats = departmentStats.get(group);
+            return stats == null ? null : copyOf(group, stats);
+        } finally {
+            stopTimer("getDepartmentStats", start);
+        }
+    }
+
+    // every department's figures, in the order the departments were first added
+    public List<DepartmentStats> getAllDepartmentStats() {
+        long start = startTimer();
+        try {
+            return new ArrayList<>(copyDepartmentStats().values());
+        } finally {
+            stopTimer("getAllDepartmentStats", start);
+        }
+    }
+
+    // the whole company's figures, added up from the departments
+    public DepartmentStats getPayrollStats() {
+        long start = startTimer();
+        try {
+            return DepartmentStats.combine("All departments", copyDepartmentStats().values());
+        } finally {
+            stopTimer("getPayrollStats", start);
+        }
+    }
+
+    private NavigableMap<Integer, DepartmentStats> copyDepartmentStats() {
+        NavigableMap<Integer, DepartmentStats> copies = new TreeMap<>();
+        departmentStats.forEach((group, stats) -> copies.put(group, copyOf(group, stats)));
+        return copies;
+    }
+
+    // the lowest/highest salary come from the department's salary index, O(log N)
+    private DepartmentStats copyOf(int group, DepartmentStats stats) {
+        SalaryRankIndex salaries = departmentSalaries.get(group);
+        return new DepartmentStats(stats, salaries.lowestSalary(), salaries.highestSalary());
     }
 
     public boolean hasEmployee(int empId) {
@@ -132,57 +1130,151 @@ public class EmployeManager {
     }
 
     public List<Employee> getAllEmployees() {
-        return new ArrayList<>(employeeList);
+        long start = startTimer();
+        try {
+            return new ArrayList<>(roster.values());
+        } finally {
+            stopTimer("getAllEmployees", start);
+        }
+    }
+
+    // keyset paging: up to pageSize employees with ids above afterId, in id order. Start from null
+    // (every int is a valid id, so no id can stand for "before the first") and pass the last id of
+    // a page to get the next one; each page costs the same however deep it is, and adds/deletes
+    // between pages don't shift rows across pages
+    public List<Employee> getEmployeesAfter(Integer afterId, int pageSize) {
+        long start = startTimer();
+        try {
+            List<Employee> page = new ArrayList<>(Math.max(0, Math.min(pageSize, 1024)));
+            if (pageSize <= 0) {
+                return page;
+            }
+            for (Employee emp : (afterId == null ? roster : roster.tailMap(afterId, false)).values()) {
+                page.add(emp);
+                if (page.size() == pageSize) {
+                    break;
+                }
+            }
+            return page;
+        } finally {
+            stopTimer("getEmployeesAfter", start);
+        }
+    }
+
+    // visit employees in id order without copying the roster (e.g. for exports)
+    public void forEachEmployee(Consumer<Employee> action) {
+        long start = startTimer();
+        try {
+            roster.values().forEach(action);
+        } finally {
+            stopTimer("forEachEmployee", start);
+        }
+    }
+
+    public void forEachInDepartment(String dept, Consumer<Employee> action) {
+        long start = startTimer();
+        try {
+            inDepartment(dept).forEach(action);
+        } finally {
+            stopTimer("forEachInDepartment", start);
+        }
+    }
+
+    // lowest salary first
+    public void forEachInSalaryRange(double minSalary, double maxSalary, Consumer<Employee> action) {
+        long start = startTimer();
+        try {
+            if (minSalary > maxSalary) {
+                return;
+            }
+            salaryRows(minSalary, maxSalary, false).forEach(action);
+        } finally {
+            stopTimer("forEachInSalaryRange", start);
+        }
     }
 
     // Percentage-based salary update methods
     public boolean updateSalaryByPercentageById(int empId, double percentage) {
-        Employee emp = searchById(empId);
-        if (emp != null && percentage >= -100) { // Allow negative percentage for salary cuts, but not below -100%
-            double currentSalary = emp.getSalary();
-            double newSalary = currentSalary + (currentSalary * percentage / 100);
-            if (newSalary >= 0) { // Ensure salary doesn't go negative
-                emp.setSalary(newSalary);
-                return true;
+        long start = startTimer();
+        try {
+            Employee emp = findById(empId);
+            if (emp != null && percentage >= -100) { // Allow negative percentage for salary cuts, but not below -100%
+                double currentSalary = emp.getSalary();
+                double newSalary = currentSalary + (currentSalary * percentage / 100);
+                if (Validation.isValidNewSalary(newSalary)) { // Ensure salary doesn't go negative
+                    if (journal != null) {
+                        durable(journal.logIdValue(EmployeeJournal.RAISE_SALARY, empId, percentage));
+                    }
+                    applySalary(emp, newSalary);
+                    return true;
+                }
             }
+            return false;
+        } finally {
+            stopTimer("updateSalaryByPercentageById", start);
         }
-        return false;
     }
 
     public int updateSalaryByPercentageByDepartment(String dept, double percentage) {
-        if (percentage < -100) {
-            return 0;
-        }
+        long start = startTimer();
+        try {
+            if (!isValidPercentage(percentage)) {
+                return 0;
+            }
+            if (journal != null) {
+                durable(journal.logStringValue(EmployeeJournal.RAISE_DEPARTMENT_SALARY, dept, percentage));
+            }
 
-        int count = 0;
-        for (Employee emp : employeeList) {
-            if (emp.getDepartmentName().equalsIgnoreCase(dept)) {
+            Collection<Employee> rows = inDepartment(dept);
+            if (runsInParallel(rows)) {
+                return updateInParallel(rows, salary -> salary + (salary * percentage / 100));
+            }
+            int count = 0;
+            for (Employee emp : rows) {
                 double currentSalary = emp.getSalary();
                 double newSalary = currentSalary + (currentSalary * percentage / 100);
-                if (newSalary >= 0) { // Ensure salary doesn't go negative
+                if (Validation.isValidNewSalary(newSalary)) { // Ensure salary doesn't go negative
                     emp.setSalary(newSalary);
                     count++;
                 }
             }
+            return count;
+        } finally {
+            stopTimer("updateSalaryByPercentageByDepartment", start);
         }
-        return count;
+    }
+
+    // checked before anything is journaled, so a replay never sees a percentage that can't apply
+    private static boolean isValidPercentage(double percentage) {
+        return percentage >= -100 && percentage < Double.POSITIVE_INFINITY;
     }
 
     public int updateSalaryByPercentageForAll(double percentage) {
-        if (percentage < -100) {
-            return 0;
-        }
+        long start = startTimer();
+        try {
+            if (!isValidPercentage(percentage)) {
+                return 0;
+            }
+            if (journal != null) {
+                durable(journal.logValue(EmployeeJournal.RAISE_ALL_SALARY, percentage));
+            }
 
-        int count = 0;
-        for (Employee emp : employeeList) {
-            double currentSalary = emp.getSalary();
-            double newSalary = currentSalary + (currentSalary * percentage / 100);
-            if (newSalary >= 0) { // Ensure salary doesn't go negative
-                emp.setSalary(newSalary);
-                count++;
+            if (runsInParallel(roster.values())) {
+                return updateInParallel(roster.values(), salary -> salary + (salary * percentage / 100));
+            }
+            int count = 0;
+            for (Employee emp : roster.values()) {
+                double currentSalary = emp.getSalary();
+                double newSalary = currentSalary + (currentSalary * percentage / 100);
+                if (Validation.isValidNewSalary(newSalary)) { // Ensure salary doesn't go negative
+                    emp.setSalary(newSalary);
+                    count++;
+                }
             }
+            return count;
+        } finally {
+            stopTimer("updateSalaryByPercentageForAll", start);
         }
-        return count;
     }
 
 }
@@ -3,36 +3,87 @@ public class Employee {
     private String name;
     private double salary;
     private int age;
-    private String gender;
+    private int genderCode; // FieldDictionary.GENDERS
     private String address;
-    private String city;
-    private String dob; // Format: YYYY-MM-DD
-    private String doj; // Format: YYYY-MM-DD
-    private String departmentName;
-    private String designation;
+    private int cityCode; // FieldDictionary.CITIES
+    private int dob; // EpochDays, shown as YYYY-MM-DD
+    private int doj; // EpochDays, shown as YYYY-MM-DD
+    private int departmentCode; // FieldDictionary.DEPARTMENTS
+    private int designationCode; // FieldDictionary.DESIGNATIONS
     private String panCardNumber;
     private String aadharNumber;
 
+    // the manager currently indexing this employee, told about renames and salary changes
+    private EmployeManager owner;
+
+    // MVCC (see RosterSnapshot): the owner's version when this row was added and when it last
+    // changed, and the states older snapshots still need, newest first. Guarded by this
+    // employee's monitor.
+    private long addedAt;
+    private long modifiedAt;
+    private RowVersion history;
+
+    private static final class RowVersion {
+        final Employee state; // a detached copy
+        final long validFrom;
+        final long validTo; // exclusive
+        RowVersion older;
+
+        RowVersion(Employee state, long validFrom, long validTo, RowVersion older) {
+            this.state = state;
+            this.validFrom = validFrom;
+            this.validTo = validTo;
+            this.older = older;
+        }
+    }
+
     // Constructor
     public Employee(int employeeId, String name, double salary, int age, String gender,
                     String address, String city, String dob, String doj,
                     String departmentName, String designation,
                     String panCardNumber, String aadharNumber) {
+        this(employeeId, name, salary, age, gender, address, city, parseDate(dob, "DOB"), parseDate(doj, "DOJ"),
+                departmentName, designation, panCardNumber, aadharNumber);
+    }
+
+    // dates already parsed with EpochDays (bulk import, snapshots)
+    public Employee(int employeeId, String name, double salary, int age, String gender,
+                    String address, String city, int dob, int doj,
+                    String departmentName, String designation,
+                    String panCardNumber, String aadharNumber) {
         this.employeeId = employeeId;
         this.name = name;
         this.salary = salary;
         this.age = age;
-        this.gender = gender;
+        // low-cardinality fields are interned, so a roster holds each department/city/... once
+        this.genderCode = FieldDictionary.GENDERS.encode(gender);
         this.address = address;
-        this.city = city;
+        this.cityCode = FieldDictionary.CITIES.encode(city);
         this.dob = dob;
         this.doj = doj;
-        this.departmentName = departmentName;
-        this.designation = designation;
+        this.departmentCode = FieldDictionary.DEPARTMENTS.encode(departmentName);
+        this.designationCode = FieldDictionary.DESIGNATIONS.encode(designation);
         this.panCardNumber = panCardNumber;
         this.aadharNumber = aadharNumber;
     }
 
+    // a detached copy of the fields (no owner, no history)
+    private Employee(Employee other) {
+        this.employeeId = other.employeeId;
+        this.name = other.name;
+        this.salary = other.salary;
+        this.age = other.age;
+        this.genderCode = other.genderCode;
+        this.address = other.address;
+        this.cityCode = other.cityCode;
+        this.dob = other.dob;
+        this.doj = other.doj;
+        this.departmentCode = other.departmentCode;
+        this.designationCode = other.designationCode;
+        this.panCardNumber = other.panCardNumber;
+        this.aadharNumber = other.aadharNumber;
+    }
+
     // Getters and Setters for all fields
     // Example:
     public int getEmployeeId() {
@@ -40,23 +91,105 @@ public class Employee {
     }
 
     public void setName(String name) {
-        this.name = name;
+        String oldName;
+        synchronized (this) {
+            beforeChange();
+            oldName = this.name;
+            this.name = name;
+        }
+        if (owner != null) {
+            owner.nameChanged(this, oldName);
+        }
     }
 
-    public void setAddress(String address) {
+    public synchronized void setAddress(String address) {
+        beforeChange();
         this.address = address;
     }
 
     public void setDob(String dob) {
-        this.dob = dob;
+        int parsed = parseDate(dob, "DOB");
+        synchronized (this) {
+            beforeChange();
+            this.dob = parsed;
+        }
     }
 
     public void setSalary(double salary) {
+        double oldSalary;
+        synchronized (this) {
+            beforeChange();
+            oldSalary = this.salary;
+            this.salary = salary;
+        }
+        if (owner != null) {
+            owner.salaryChanged(this, oldSalary);
+        }
+    }
+
+    // sets the salary without telling the owner; the caller re-indexes afterwards
+    // (EmployeManager's parallel bulk updates)
+    synchronized void setSalaryUnindexed(double salary) {
+        beforeChange();
         this.salary = salary;
     }
 
+    // Called with the monitor held, before a field changes: if an open snapshot of the owner still
+    // sees the current state, keep a copy of it for that snapshot.
+    private void beforeChange() {
+        EmployeManager manager = owner;
+        if (manager == null) {
+            return;
+        }
+        long version = manager.getSnapshotVersion();
+        if (modifiedAt != version) {
+            if (manager.isSeenBySnapshot(modifiedAt, version)) {
+                history = new RowVersion(new Employee(this), modifiedAt, version, history);
+                manager.rowVersioned(this);
+            }
+            modifiedAt = version;
+        }
+        if (history != null) {
+            trimHistory(manager, manager.getOldestSnapshotVersion());
+        }
+    }
+
+    // this employee as the snapshot taken at `version` saw it, as a detached copy
+    synchronized Employee rowAt(long version) {
+        if (modifiedAt <= version) {
+            return new Employee(this);
+        }
+        for (RowVersion row = history; row != null; row = row.older) {
+            if (row.validFrom <= version && version < row.validTo) {
+                return new Employee(row.state);
+            }
+        }
+        // changed after the snapshot by someone other than its manager (e.g. while not owned)
+        return new Employee(this);
+    }
+
+    // drops the states no open snapshot (all taken at oldestOpen or later) can see any more;
+    // states are newest first, so the ones still needed are a prefix of the chain
+    synchronized void trimHistory(EmployeManager manager, long oldestOpen) {
+        if (history != null && history.validTo <= oldestOpen) {
+            history = null;
+        }
+        for (RowVersion row = history; row != null; row = row.older) {
+            if (row.older != null && row.older.validTo <= oldestOpen) {
+                row.older = null;
+            }
+        }
+        if (history == null) {
+            manager.rowUnversioned(this);
+        }
+    }
+
     public String getDepartmentName() {
-        return departmentName;
+        return FieldDictionary.DEPARTMENTS.decode(departmentCode);
+    }
+
+    public int getDepartmentCode() {
+        return departmentCode;
     }
 
     public double getSalary() {
@@ -68,6 +201,10 @@ public class Employee {
     }
 
     public String getDoj() {
+        return EpochDays.format(doj);
+    }
+
+    public int getDojEpochDay() {
         return doj;
     }
 
@@ -76,11 +213,75 @@ public class Employee {
     }
 
     public String getGender() {
-        return gender;
+        return FieldDictionary.GENDERS.decode(genderCode);
+    }
+
+    public int getGenderCode() {
+        return genderCode;
     }
 
     public String getDesignation() {
-        return designation;
+        return FieldDictionary.DESIGNATIONS.decode(designationCode);
+    }
+
+    public int getDesignationCode() {
+        return designationCode;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getCity() {
+        return FieldDictionary.CITIES.decode(cityCode);
+    }
+
+    public int getCityCode() {
+        return cityCode;
+    }
+
+    public String getDob() {
+        return EpochDays.format(dob);
+    }
+
+    public int getDobEpochDay() {
+        return dob;
+    }
+
+    public String getPanCardNumber() {
+        return panCardNumber;
+    }
+
+    public String getAadharNumber() {
+        return aadharNumber;
+    }
+
+    EmployeManager getOwner() {
+        return owner;
+    }
+
+    // a new owner starts a new life for the row: snapshots taken before now don't see it
+    synchronized void setOwner(EmployeManager owner) {
+        this.owner = owner;
+        if (owner != null) {
+            addedAt = owner.getSnapshotVersion();
+            modifiedAt = addedAt;
+            history = null;
+        }
+    }
+
+    synchronized long getAddedAt() {
+        return addedAt;
+    }
+
+    // a frozen copy with this row's states, for the snapshots that still see it after its manager
+    // deleted it; nobody else holds the copy, so it never changes again
+    synchronized Employee retire() {
+        Employee frozen = new Employee(this);
+        frozen.addedAt = addedAt;
+        frozen.modifiedAt = modifiedAt;
+        frozen.history = history;
+        return frozen;
     }
 
     @Override
@@ -95,11 +296,22 @@ public class Employee {
                 Address: %s, %s
                 PAN: %s | Aadhar: %s
                 """, 
-                employeeId, name, departmentName,
-                designation, age, gender,
-                salary, dob, doj,
-                address, city,
+                employeeId, name, getDepartmentName(),
+                getDesignation(), age, getGender(),
+                salary, getDob(), getDoj(),
+                address, getCity(),
                 panCardNumber, aadharNumber);
     }
+    // null means "no date"; anything else must be a valid YYYY-MM-DD
+    private static int parseDate(String date, String field) {
+        if (date == null) {
+            return EpochDays.NONE;
+        }
+        int epochDay = EpochDays.parse(date);
+        if (epochDay == EpochDays.NONE) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + date);
+        }
+        return epochDay;
+    }
     // Add other getters and setters as needed
 }
@@ -0,0 +1,407 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Column-oriented (struct-of-arrays) copy of a roster for analytics and bulk salary changes.
+//
+// Instead of one Employee object per person, every field is a column indexed by row: primitive
+// int[] / double[] for the numbers and dates, the shared FieldDictionary codes Employee already
+// holds for department, designation, city and gender, and String[] only for the fields that are
+// unique per person.
+// Scans such as "raise everyone by 5%" or "total salary per department" become simple loops over
+// one or two arrays, with no pointer chasing and no per-row objects.
+//
+// Rows have no particular order: a delete moves the last row into the hole. Ids map to rows
+// through a small open-addressing table. Not thread-safe, same as EmployeManager.
+public class EmployeeColumnStore {
+    private static final int EMPTY = 0; // slot marker in the id table; rows are stored as row + 1
+
+    private final FieldDictionary departments = FieldDictionary.DEPARTMENTS;
+    private final FieldDictionary designations = FieldDictionary.DESIGNATIONS;
+    private final FieldDictionary cities = FieldDictionary.CITIES;
+    private final FieldDictionary genders = FieldDictionary.GENDERS;
+
+    private int size;
+    private int[] ids;
+    private int[] ages;
+    private int[] dobs;
+    private int[] dojs;
+    private double[] salaries;
+    private int[] departmentCodes;
+    private int[] designationCodes;
+    private int[] cityCodes;
+    private int[] genderCodes;
+    private String[] names;
+    private String[] addresses;
+    private String[] pans;
+    private String[] aadhaars;
+
+    // id -> row + 1, linear probing; keys are kept next to their values
+    private int[] slotIds;
+    private int[] slotRows;
+
+    public EmployeeColumnStore() {
+        this(1024);
+    }
+
+    public EmployeeColumnStore(int capacity) {
+        capacity = Math.max(16, capacity);
+        ids = new int[capacity];
+        ages = new int[capacity];
+        dobs = new int[capacity];
+        dojs = new int[capacity];
+        salaries = new double[capacity];
+        departmentCodes = new int[capacity];
+        designationCodes = new int[capacity];
+        cityCodes = new int[capacity];
+        genderCodes = new int[capacity];
+        names = new String[capacity];
+        addresses = new String[capacity];
+        pans = new String[capacity];
+        aadhaars = new String[capacity];
+        int slots = Integer.highestOneBit(capacity * 2 - 1) * 2;
+        slotIds = new int[slots];
+        slotRows = new int[slots];
+    }
+
+    // a columnar copy of everything in the manager
+    public static EmployeeColumnStore of(EmployeManager manager) {
+        EmployeeColumnStore store = new EmployeeColumnStore(manager.getEmployeeCount());
+        manager.forEachEmployee(store::addEmployee);
+        return store;
+    }
+
+    public int getEmployeeCount() {
+        return size;
+    }
+
+    public boolean hasEmployee(int empId) {
+        return row(empId) >= 0;
+    }
+
+    public boolean addEmployee(Employee emp) {
+        if (emp == null || row(emp.getEmployeeId()) >= 0) {
+            return false;
+        }
+        if (size == ids.length) {
+            grow();
+        }
+        int row = size++;
+        ids[row] = emp.getEmployeeId();
+        ages[row] = emp.getAge();
+        dobs[row] = emp.getDobEpochDay();
+        dojs[row] = emp.getDojEpochDay();
+        salaries[row] = emp.getSalary();
+        departmentCodes[row] = emp.getDepartmentCode();
+        designationCodes[row] = emp.getDesignationCode();
+        cityCodes[row] = emp.getCityCode();
+        genderCodes[row] = emp.getGenderCode();
+        names[row] = emp.getName();
+        addresses[row] = emp.getAddress();
+        pans[row] = emp.getPanCardNumber();
+        aadhaars[row] = emp.getAadharNumber();
+        putRow(emp.getEmployeeId(), row);
+        return true;
+    }
+
+    public boolean deleteEmployee(int empId) {
+        int row = row(empId);
+        if (row < 0) {
+            return false;
+        }
+        removeRow(empId);
+        int last = --size;
+        if (row != last) {
+            moveRow(last, row);
+            putRow(ids[row], row);
+        }
+        names[last] = null;
+        addresses[last] = null;
+        pans[last] = null;
+        aadhaars[last] = null;
+        return true;
+    }
+
+    // a detached Employee built from the columns, or null
+    public Employee searchById(int empId) {
+        int row = row(empId);
+        return row < 0 ? null : toEmployee(row);
+    }
+
+    // ---- salary updates, same rules and return values as EmployeManager ----
+
+    public boolean updateSalaryById(int empId, double newSalary) {
+        int row = row(empId);
+        if (row < 0 || !Validation.isValidNewSalary(newSalary)) {
+            return false;
+        }
+        salaries[row] = newSalary;
+        return true;
+    }
+
+    public boolean updateSalaryByPercentageById(int empId, double percentage) {
+        int row = row(empId);
+        if (row < 0 || percentage < -100) {
+            return false;
+        }
+        double newSalary = salaries[row] + (salaries[row] * percentage / 100);
+        if (!Validation.isValidNewSalary(newSalary)) {
+            return false;
+        }
+        salaries[row] = newSalary;
+        return true;
+    }
+
+    public int updateSalaryByDepartment(String dept, double newSalary) {
+        if (!Validation.isValidNewSalary(newSalary)) {
+            return 0;
+        }
+        boolean[] match = departments.matchIgnoreCase(dept);
+        double[] salary = salaries;
+        int[] codes = departmentCodes;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (match[codes[i]]) {
+                salary[i] = newSalary;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int updateSalaryForAll(double newSalary) {
+        if (!Validation.isValidNewSalary(newSalary)) {
+            return 0;
+        }
+        Arrays.fill(salaries, 0, size, newSalary);
+        return size;
+    }
+
+    public int updateSalaryByPercentageByDepartment(String dept, double percentage) {
+        if (!(percentage >= -100 && percentage < Double.POSITIVE_INFINITY)) {
+            return 0;
+        }
+        boolean[] match = departments.matchIgnoreCase(dept);
+        double[] salary = salaries;
+        int[] codes = departmentCodes;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (match[codes[i]]) {
+                double newSalary = salary[i] + (salary[i] * percentage / 100);
+                if (Validation.isValidNewSalary(newSalary)) {
+                    salary[i] = newSalary;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public int updateSalaryByPercentageForAll(double percentage) {
+        if (!(percentage >= -100 && percentage < Double.POSITIVE_INFINITY)) {
+            return 0;
+        }
+        double[] salary = salaries;
+        int n = size;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            min = Math.min(min, salary[i]);
+            max = Math.max(max, salary[i]);
+        }
+        if (percentage >= 0 && min >= 0 && Validation.isValidNewSalary(max + (max * percentage / 100))) {
+            // the common case, a raise that doesn't overflow even the top salary: no row can
+            // leave the valid range, so the loop has no branch
+            for (int i = 0; i < n; i++) {
+                salary[i] = salary[i] + (salary[i] * percentage / 100);
+            }
+            return n;
+        }
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            double newSalary = salary[i] + (salary[i] * percentage / 100);
+            if (Validation.isValidNewSalary(newSalary)) {
+                salary[i] = newSalary;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // ---- aggregates ----
+
+    // highest salary, lowest id among equal salaries (same as EmployeManager)
+    public Employee getHighestSalaryEmployee() {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            if (best < 0 || salaries[i] > salaries[best] || salaries[i] == salaries[best] && ids[i] < ids[best]) {
+                best = i;
+            }
+        }
+        return best < 0 ? null : toEmployee(best);
+    }
+
+    public Employee getLowestSalaryEmployee() {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            if (best < 0 || salaries[i] < salaries[best] || salaries[i] == salaries[best] && ids[i] < ids[best]) {
+                best = i;
+            }
+        }
+        return best < 0 ? null : toEmployee(best);
+    }
+
+    public double getTotalSalary() {
+        double[] salary = salaries;
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += salary[i];
+        }
+        return total;
+    }
+
+    public double getAverageSalary() {
+        return size == 0 ? 0 : getTotalSalary() / size;
+    }
+
+    public double getAverageAge() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += ages[i];
+        }
+        return size == 0 ? 0 : (double) total / size;
+    }
+
+    // department -> headcount, in first-seen department order
+    public Map<String, Integer> getEmployeeCountByDepartment() {
+        int[] counts = new int[departments.size()];
+        int[] codes = departmentCodes;
+        for (int i = 0; i < size; i++) {
+            counts[codes[i]]++;
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(departments.decode(code), counts[code]);
+            }
+        }
+        return result;
+    }
+
+    // department -> total salary, in first-seen department order
+    public Map<String, Double> getTotalSalaryByDepartment() {
+        double[] totals = new double[departments.size()];
+        int[] counts = new int[departments.size()];
+        int[] codes = departmentCodes;
+        double[] salary = salaries;
+        for (int i = 0; i < size; i++) {
+            totals[codes[i]] += salary[i];
+            counts[codes[i]]++;
+        }
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int code = 0; code < totals.length; code++) {
+            if (counts[code] > 0) {
+                result.put(departments.decode(code), totals[code]);
+            }
+        }
+        return result;
+    }
+
+    // ---- rows ----
+
+    private Employee toEmployee(int row) {
+        return new Employee(ids[row], names[row], salaries[row], ages[row], genders.decode(genderCodes[row]),
+                addresses[row], cities.decode(cityCodes[row]), dobs[row], dojs[row],
+                departments.decode(departmentCodes[row]), designations.decode(designationCodes[row]),
+                pans[row], aadhaars[row]);
+    }
+
+    private void moveRow(int from, int to) {
+        ids[to] = ids[from];
+        ages[to] = ages[from];
+        dobs[to] = dobs[from];
+        dojs[to] = dojs[from];
+        salaries[to] = salaries[from];
+        departmentCodes[to] = departmentCodes[from];
+        designationCodes[to] = designationCodes[from];
+        cityCodes[to] = cityCodes[from];
+        genderCodes[to] = genderCodes[from];
+        names[to] = names[from];
+        addresses[to] = addresses[from];
+        pans[to] = pans[from];
+        aadhaars[to] = aadhaars[from];
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        dobs = Arrays.copyOf(dobs, capacity);
+        dojs = Arrays.copyOf(dojs, capacity);
+        salaries = Arrays.copyOf(salaries, capacity);
+        departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+        designationCodes = Arrays.copyOf(designationCodes, capacity);
+        cityCodes = Arrays.copyOf(cityCodes, capacity);
+        genderCodes = Arrays.copyOf(genderCodes, capacity);
+        names = Arrays.copyOf(names, capacity);
+        addresses = Arrays.copyOf(addresses, capacity);
+        pans = Arrays.copyOf(pans, capacity);
+        aadhaars = Arrays.copyOf(aadhaars, capacity);
+        rehash(Integer.highestOneBit(capacity * 2 - 1) * 2);
+    }
+
+    // ---- id -> row table ----
+
+    private int slot(int empId) {
+        int h = empId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (slotIds.length - 1);
+    }
+
+    private int row(int empId) {
+        for (int i = slot(empId); ; i = (i + 1) & (slotIds.length - 1)) {
+            if (slotRows[i] == EMPTY) {
+                return -1;
+            }
+            if (slotIds[i] == empId) {
+                return slotRows[i] - 1;
+            }
+        }
+    }
+
+    private void putRow(int empId, int row) {
+        int i = slot(empId);
+        while (slotRows[i] != EMPTY && slotIds[i] != empId) {
+            i = (i + 1) & (slotIds.length - 1);
+        }
+        slotIds[i] = empId;
+        slotRows[i] = row + 1;
+    }
+
+    // backward-shift delete, so lookups never need tombstones
+    private void removeRow(int empId) {
+        int mask = slotIds.length - 1;
+        int i = slot(empId);
+        while (slotIds[i] != empId || slotRows[i] == EMPTY) {
+            i = (i + 1) & mask;
+        }
+        for (int j = (i + 1) & mask; slotRows[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(slotIds[j]);
+            // move j back into the hole unless its home lies cyclically in (i, j]
+            if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                slotIds[i] = slotIds[j];
+                slotRows[i] = slotRows[j];
+                i = j;
+            }
+        }
+        slotIds[i] = 0;
+        slotRows[i] = EMPTY;
+    }
+
+    private void rehash(int slots) {
+        slotIds = new int[slots];
+        slotRows = new int[slots];
+        for (int row = 0; row < size; row++) {
+            putRow(ids[row], row);
+        }
+    }
+}
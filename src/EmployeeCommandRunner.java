@@ -0,0 +1,369 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+// Runs a script of commands against an EmployeManager without any prompts, for automation and
+// load tests (Main --batch <file>, or "-" for stdin).
+//
+// One command per line; blank lines and lines starting with # are skipped. Arguments are separated
+// by spaces, and "double quotes" keep a value with spaces together:
+//   add <id,name,salary,age,gender,address,city,dob,doj,department,designation,pan,aadhaar>
+//   get <id>                        delete <id>
+//   find-name <name>                find-dept <dept>
+//   set-name <id> <name>            set-address <id> <address>        set-dob <id> <YYYY-MM-DD>
+//   set-salary <id> <salary>        raise <id> <percent>
+//   set-salary-dept <dept> <salary> raise-dept <dept> <percent>
+//   set-salary-all <salary>         raise-all <percent>
+//   top <k>   bottom <k>   count   stats [dept]
+// add takes one CSV row in the import layout (see EmployeeCsvImporter) and the same Validation
+// rules as Main. Employees are printed as CSV rows in that layout too; stats prints
+// department,headcount,total,average,median,p90,min,max.
+//
+// Every command prints at least one line; bad input prints "error: ..." and the script goes on.
+// Output goes through the writer in big chunks (hand in a BufferedWriter), and each command's
+// latency is recorded per command name for the throughput/latency summary (writeSummary).
+public class EmployeeCommandRunner {
+    private static final Set<String> COMMANDS = Set.of("add", "get", "delete", "find-name", "find-dept", "set-name",
+            "set-address", "set-dob", "set-salary", "raise", "set-salary-dept", "raise-dept", "set-salary-all",
+            "raise-all", "top", "bottom", "count", "stats");
+
+    private final EmployeManager manager;
+    private final Map<String, LatencyHistogram> latencies = new TreeMap<>();
+
+    public EmployeeCommandRunner(EmployeManager manager) {
+        this.manager = manager;
+    }
+
+    public static class RunResult {
+        private long commands;
+        private long errors;
+        private long elapsedNanos;
+
+        public long getCommands() {
+            return commands;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        public double getCommandsPerSecond() {
+            return elapsedNanos == 0 ? 0 : commands * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d commands, %d errors in %d ms (%.0f commands/s)",
+                    commands, errors, getElapsedMillis(), getCommandsPerSecond());
+        }
+    }
+
+    // runs every line of `script` and writes the results to `out`; doesn't close either
+    public RunResult run(BufferedReader script, Writer out) throws IOException {
+        RunResult result = new RunResult();
+        StringBuilder output = new StringBuilder(1 << 16);
+        long start = System.nanoTime();
+        long lineNumber = 0;
+        String line;
+        while ((line = script.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int space = line.indexOf(' ');
+            String command = space < 0 ? line : line.substring(0, space);
+            String rest = space < 0 ? "" : line.substring(space + 1).trim();
+
+            long commandStart = System.nanoTime();
+            try {
+                execute(command, rest, output);
+            } catch (IllegalArgumentException e) {
+                result.errors++;
+                output.append("error: line ").append(lineNumber).append(": ").append(e.getMessage()).append('\n');
+            }
+            // typos share one entry, so a bad script can't grow the table
+            latencies.computeIfAbsent(COMMANDS.contains(command) ? command : "unknown", c -> new LatencyHistogram())
+                    .record(System.nanoTime() - commandStart);
+            result.commands++;
+
+            if (output.length() >= 1 << 16) {
+                out.append(output);
+                output.setLength(0);
+            }
+        }
+        out.append(output);
+        out.flush();
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    // per-command latency of everything run so far
+    public Map<String, LatencyHistogram> getLatencies() {
+        return Collections.unmodifiableMap(latencies);
+    }
+
+    private void execute(String command, String rest, StringBuilder out) {
+        switch (command) {
+            case "add": {
+                out.append(add(rest)).append('\n');
+                break;
+            }
+            case "get": {
+                int id = parseId(args(rest, 1).get(0));
+                Employee emp = manager.searchById(id);
+                if (emp == null) {
+                    out.append("not found: ").append(id).append('\n');
+                } else {
+                    appendCsv(out, emp);
+                }
+                break;
+            }
+            case "delete": {
+                int id = parseId(args(rest, 1).get(0));
+                out.append(manager.deleteEmployee(id) ? "deleted " : "not found: ").append(id).append('\n');
+                break;
+            }
+            case "find-name":
+                appendAll(out, manager.searchByName(args(rest, 1).get(0)));
+                break;
+            case "find-dept":
+                appendAll(out, manager.searchByDepartment(args(rest, 1).get(0)));
+                break;
+            case "set-name": {
+                List<String> args = args(rest, 2);
+                require(Validation.isValidName(args.get(1)), "invalid name (letters and spaces, 2-50 characters)");
+                updated(out, manager.updateName(parseId(args.get(0)), args.get(1).trim()), args.get(0));
+                break;
+            }
+            case "set-address": {
+                List<String> args = args(rest, 2);
+                require(Validation.isValidString(args.get(1), 5, 100), "address must be 5-100 characters");
+                updated(out, manager.updateAddress(parseId(args.get(0)), args.get(1).trim()), args.get(0));
+                break;
+            }
+            case "set-dob": {
+                List<String> args = args(rest, 2);
+                int id = parseId(args.get(0));
+                int dob = EpochDays.parse(args.get(1));
+                require(dob != EpochDays.NONE, "invalid date (YYYY-MM-DD): " + args.get(1));
+                Employee emp = manager.searchById(id);
+                require(emp == null || Validation.isAgeAtLeast18AtJoining(dob, emp.getDojEpochDay()),
+                        "with that DOB the employee was under 18 at joining");
+                updated(out, manager.updateDob(id, args.get(1)), args.get(0));
+                break;
+            }
+            case "set-salary": {
+                List<String> args = args(rest, 2);
+                updated(out, manager.updateSalaryById(parseId(args.get(0)), parseSalary(args.get(1))), args.get(0));
+                break;
+            }
+            case "raise": {
+                List<String> args = args(rest, 2);
+                int id = parseId(args.get(0));
+                double percentage = parsePercentage(args.get(1));
+                Employee emp = manager.searchById(id);
+                require(emp == null || Validation.isValidNewSalary(emp.getSalary() * (1 + percentage / 100)),
+                        "the new salary would be out of range");
+                updated(out, manager.updateSalaryByPercentageById(id, percentage), args.get(0));
+                break;
+            }
+            case "set-salary-dept": {
+                List<String> args = args(rest, 2);
+                count(out, manager.updateSalaryByDepartment(args.get(0), parseSalary(args.get(1))));
+                break;
+            }
+            case "raise-dept": {
+                List<String> args = args(rest, 2);
+                count(out, manager.updateSalaryByPercentageByDepartment(args.get(0), parsePercentage(args.get(1))));
+                break;
+            }
+            case "set-salary-all":
+                count(out, manager.updateSalaryForAll(parseSalary(args(rest, 1).get(0))));
+                break;
+            case "raise-all":
+                count(out, manager.updateSalaryByPercentageForAll(parsePercentage(args(rest, 1).get(0))));
+                break;
+            case "top":
+                appendAll(out, manager.getTopSalaryEmployees(parseCount(args(rest, 1).get(0))));
+                break;
+            case "bottom":
+                appendAll(out, manager.getBottomSalaryEmployees(parseCount(args(rest, 1).get(0))));
+                break;
+            case "count":
+                args(rest, 0);
+                out.append(manager.getEmployeeCount()).append('\n');
+                break;
+            case "stats": {
+                List<String> args = args(rest, -1);
+                DepartmentStats stats = args.isEmpty() ? manager.getPayrollStats() : manager.getDepartmentStats(args.get(0));
+                if (stats == null) {
+                    out.append("not found: ").append(args.get(0)).append('\n');
+                } else {
+                    out.append(EmployeeCsvImporter.quote(stats.getDepartment())).append(',')
+                            .append(stats.getHeadcount()).append(',')
+                            .append(String.format("%.2f,%.2f,%.2f,%.2f,%.2f,%.2f", stats.getTotalSalary(),
+                                    stats.getAverageSalary(), stats.getMedianSalary(), stats.getP90Salary(),
+                                    stats.getMinSalary(), stats.getMaxSalary()))
+                            .append('\n');
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("unknown command: " + command);
+        }
+    }
+
+    private String add(String row) {
+        List<String> fields = EmployeeCsvImporter.splitCsvLine(row);
+        require(fields.size() == EmployeeCsvImporter.COLUMNS,
+                "add needs " + EmployeeCsvImporter.COLUMNS + " comma separated fields, got " + fields.size());
+        int id = parseId(fields.get(0));
+        Validation.Candidate candidate = new Validation.Candidate(fields.get(1), parseNumber(fields.get(2), "salary"),
+                parseInt(fields.get(3), "age"), fields.get(4), fields.get(5), fields.get(6),
+                EpochDays.parse(fields.get(7)), EpochDays.parse(fields.get(8)), fields.get(11).toUpperCase(),
+                fields.get(12));
+        List<String> failed = Validation.failedRules(candidate);
+        require(failed.isEmpty(), "invalid employee: " + String.join(";", failed));
+        // stored trimmed, like set-name and set-address (Validation only ignores the whitespace)
+        Employee emp = new Employee(id, candidate.name().trim(), candidate.salary(), candidate.age(),
+                candidate.gender(), candidate.address().trim(), candidate.city().trim(), candidate.dobEpochDay(),
+                candidate.dojEpochDay(), fields.get(9), fields.get(10), candidate.pan(), candidate.aadhaar());
+        require(manager.addEmployee(emp), "employee id already exists: " + id);
+        return "added " + id;
+    }
+
+    // splits the arguments on spaces ("quoted" ones may contain spaces); `expected` < 0 means 0 or 1
+    private static List<String> args(String rest, int expected) {
+        List<String> args = new ArrayList<>(2);
+        int i = 0;
+        while (i < rest.length()) {
+            char c = rest.charAt(i);
+            if (c == ' ' || c == '\t') {
+                i++;
+            } else if (c == '"') {
+                int close = rest.indexOf('"', i + 1);
+                require(close > 0, "unclosed quote");
+                args.add(rest.substring(i + 1, close));
+                i = close + 1;
+            } else {
+                int end = i;
+                while (end < rest.length() && rest.charAt(end) != ' ' && rest.charAt(end) != '\t') {
+                    end++;
+                }
+                args.add(rest.substring(i, end));
+                i = end;
+            }
+        }
+        if (expected < 0 ? args.size() > 1 : args.size() != expected) {
+            throw new IllegalArgumentException("expected " + (expected < 0 ? "at most 1" : expected)
+                    + " argument(s), got " + args.size());
+        }
+        return args;
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private static int parseId(String value) {
+        return parseInt(value, "employee id");
+    }
+
+    private static int parseCount(String value) {
+        int count = parseInt(value, "count");
+        require(count >= 0, "count must not be negative");
+        return count;
+    }
+
+    private static double parseSalary(String value) {
+        double salary = parseNumber(value, "salary");
+        require(Validation.isValidNewSalary(salary), "salary must not be negative");
+        return salary;
+    }
+
+    private static double parsePercentage(String value) {
+        double percentage = parseNumber(value, "percentage");
+        require(percentage >= -100, "a decrease can't be more than 100%");
+        require(!Double.isInfinite(percentage), "percentage must be finite");
+        return percentage;
+    }
+
+    private static int parseInt(String value, String what) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + what + ": " + value);
+        }
+    }
+
+    private static double parseNumber(String value, String what) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + what + ": " + value);
+        }
+    }
+
+    private static void updated(StringBuilder out, boolean updated, String id) {
+        out.append(updated ? "updated " : "not found: ").append(id).append('\n');
+    }
+
+    private static void count(StringBuilder out, int updated) {
+        out.append("updated ").append(updated).append('\n');
+    }
+
+    // "<n> found" and then one CSV row per employee
+    private static void appendAll(StringBuilder out, List<Employee> employees) {
+        out.append(employees.size()).append(" found\n");
+        for (Employee emp : employees) {
+            appendCsv(out, emp);
+        }
+    }
+
+    private static void appendCsv(StringBuilder out, Employee emp) {
+        out.append(emp.getEmployeeId()).append(',')
+                .append(EmployeeCsvImporter.quote(emp.getName())).append(',')
+                .append(emp.getSalary()).append(',')
+                .append(emp.getAge()).append(',')
+                .append(EmployeeCsvImporter.quote(emp.getGender())).append(',')
+                .append(EmployeeCsvImporter.quote(emp.getAddress())).append(',')
+                .append(EmployeeCsvImporter.quote(emp.getCity())).append(',')
+                .append(emp.getDob()).append(',')
+                .append(emp.getDoj()).append(',')
+                .append(EmployeeCsvImporter.quote(emp.getDepartmentName())).append(',')
+                .append(EmployeeCsvImporter.quote(emp.getDesignation())).append(',')
+                .append(emp.getPanCardNumber()).append(',')
+                .append(emp.getAadharNumber()).append('\n');
+    }
+
+    // throughput of `result`, then latency percentiles per command (of every run so far)
+    public void writeSummary(RunResult result, Writer out) throws IOException {
+        StringBuilder summary = new StringBuilder();
+        summary.append("\n===== Batch summary =====\n").append(result).append('\n');
+        summary.append(String.format("%-16s %10s %10s %10s %10s %10s %10s%n",
+                "command", "count", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us"));
+        LatencyHistogram all = new LatencyHistogram();
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            appendLatencyRow(summary, entry.getKey(), entry.getValue());
+            all.add(entry.getValue());
+        }
+        appendLatencyRow(summary, "all", all);
+        out.append(summary);
+        out.flush();
+    }
+
+    private static void appendLatencyRow(StringBuilder summary, String label, LatencyHistogram histogram) {
+        summary.append(String.format("%-16s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", label, histogram.getCount(),
+                histogram.getPercentileNanos(50) / 1e3, histogram.getPercentileNanos(90) / 1e3,
+                histogram.getPercentileNanos(99) / 1e3, histogram.getPercentileNanos(99.9) / 1e3,
+                histogram.getMaxNanos() / 1e3));
+    }
+}
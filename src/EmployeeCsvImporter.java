@@ -0,0 +1,245 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Streams employees from a CSV file into an EmployeManager.
+//
+// Columns (same order as the Employee constructor, an optional header line is skipped):
+//   id,name,salary,age,gender,address,city,dob,doj,department,designation,pan,aadhaar
+//
+// The file is read in batches; each batch is parsed and checked with Validation.failedRules (the
+// rules Main.addEmployee() applies) in parallel, then the valid rows are added in file order.
+// Rejected rows go to an error report (line number, every failing rule, original line). Only one
+// batch is held in memory at a time, so memory stays flat whatever the file size. Quoted fields
+// may contain commas and "" escapes, but not line breaks.
+public class EmployeeCsvImporter {
+    public static final int COLUMNS = 13;
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    private final EmployeManager manager;
+    private final ForkJoinPool pool;
+    private final int batchSize;
+
+    public EmployeeCsvImporter(EmployeManager manager) {
+        this(manager, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+    }
+
+    public EmployeeCsvImporter(EmployeManager manager, ForkJoinPool pool, int batchSize) {
+        this.manager = manager;
+        this.pool = pool;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public static class ImportResult {
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+        private long elapsedNanos;
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows read, %d imported, %d rejected in %d ms",
+                    rowsRead, imported, rejected, getElapsedMillis());
+        }
+    }
+
+    // one parsed line; employee is set when every rule passed, failedRule otherwise
+    private static class Row {
+        final long lineNumber;
+        final String line;
+        Employee employee;
+        String failedRule;
+
+        Row(long lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+
+    public ImportResult importFile(Path csv, Path errorReport) throws IOException {
+        ImportResult result = new ImportResult();
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             BufferedWriter errors = Files.newBufferedWriter(errorReport, StandardCharsets.UTF_8)) {
+            errors.write("line,rule,record");
+            errors.newLine();
+
+            List<Row> batch = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                    continue;
+                }
+                batch.add(new Row(lineNumber, line));
+                if (batch.size() == batchSize) {
+                    processBatch(batch, errors, result);
+                    batch.clear();
+                }
+            }
+            processBatch(batch, errors, result);
+        }
+
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private void processBatch(List<Row> batch, BufferedWriter errors, ImportResult result) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        result.rowsRead += batch.size();
+
+        try {
+            pool.submit(() -> IntStream.range(0, batch.size()).parallel().forEach(i -> parseAndValidate(batch.get(i))))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed", e.getCause());
+        }
+
+        List<Employee> valid = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            if (row.employee != null) {
+                valid.add(row.employee);
+            }
+        }
+        Set<Employee> notAdded = Collections.newSetFromMap(new IdentityHashMap<>());
+        notAdded.addAll(manager.addEmployees(valid));
+
+        for (Row row : batch) {
+            if (row.employee != null && notAdded.contains(row.employee)) {
+                row.failedRule = "duplicateEmployeeId";
+            }
+            if (row.failedRule != null) {
+                result.rejected++;
+                errors.write(row.lineNumber + "," + row.failedRule + "," + quote(row.line));
+                errors.newLine();
+            } else {
+                result.imported++;
+            }
+        }
+    }
+
+    // runs on the pool: split the line, parse the numbers and dates, apply every rule
+    // Main.addEmployee() applies and build the employee if they all pass
+    private static void parseAndValidate(Row row) {
+        List<String> fields = splitCsvLine(row.line);
+        if (fields.size() != COLUMNS) {
+            row.failedRule = "columnCount";
+            return;
+        }
+
+        int id;
+        double salary;
+        int age;
+        try {
+            id = Integer.parseInt(fields.get(0));
+        } catch (NumberFormatException e) {
+            row.failedRule = "employeeId";
+            return;
+        }
+        try {
+            salary = Double.parseDouble(fields.get(2));
+        } catch (NumberFormatException e) {
+            row.failedRule = "isValidSalary";
+            return;
+        }
+        try {
+            age = Integer.parseInt(fields.get(3));
+        } catch (NumberFormatException e) {
+            row.failedRule = "isValidAge";
+            return;
+        }
+
+        // dates are parsed once here and the employee keeps the parsed EpochDays
+        Validation.Candidate c = new Validation.Candidate(fields.get(1), salary, age, fields.get(4), fields.get(5),
+                fields.get(6), EpochDays.parse(fields.get(7)), EpochDays.parse(fields.get(8)),
+                fields.get(11).toUpperCase(), fields.get(12));
+        List<String> failed = Validation.failedRules(c);
+        if (!failed.isEmpty()) {
+            row.failedRule = String.join(";", failed);
+            return;
+        }
+        row.employee = new Employee(id, c.name(), c.salary(), c.age(), c.gender(), c.address(), c.city(),
+                c.dobEpochDay(), c.dojEpochDay(), fields.get(9), fields.get(10), c.pan(), c.aadhaar());
+    }
+
+    private static boolean isHeader(String line) {
+        List<String> fields = splitCsvLine(line);
+        try {
+            Integer.parseInt(fields.get(0));
+            return false;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    // splits one CSV line, honouring "quoted, fields" and "" escapes; fields are trimmed like Main's input
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,254 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Streams employees to CSV or JSON lines straight from the manager's indexes, without copying the
+// roster first. Optional filters (department, salary range) pick the index to walk; a column list
+// projects the output. The default CSV layout is the one EmployeeCsvImporter reads back.
+// With snapshot(...) the rows come from a RosterSnapshot instead, so a long export neither sees
+// later changes nor holds a ConcurrentEmployeManager's read lock while it writes.
+public class EmployeeExporter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public enum Format {
+        CSV, JSON_LINES
+    }
+
+    public enum Column {
+        ID("id", emp -> emp.getEmployeeId(), true),
+        NAME("name", Employee::getName, false),
+        SALARY("salary", emp -> emp.getSalary(), true),
+        AGE("age", emp -> emp.getAge(), true),
+        GENDER("gender", Employee::getGender, false),
+        ADDRESS("address", Employee::getAddress, false),
+        CITY("city", Employee::getCity, false),
+        DOB("dob", Employee::getDob, false),
+        DOJ("doj", Employee::getDoj, false),
+        DEPARTMENT("department", Employee::getDepartmentName, false),
+        DESIGNATION("designation", Employee::getDesignation, false),
+        PAN("pan", Employee::getPanCardNumber, false),
+        AADHAAR("aadhaar", Employee::getAadharNumber, false);
+
+        private final String header;
+        private final Function<Employee, Object> value;
+        private final boolean numeric;
+
+        Column(String header, Function<Employee, Object> value, boolean numeric) {
+            this.header = header;
+            this.value = value;
+            this.numeric = numeric;
+        }
+
+        public String getHeader() {
+            return header;
+        }
+
+        public static Column fromHeader(String header) {
+            for (Column column : values()) {
+                if (column.header.equalsIgnoreCase(header.trim())) {
+                    return column;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final Column[] ALL_COLUMNS = Column.values();
+
+    private final EmployeManager manager;
+    private RosterSnapshot snapshot;
+    private String department;
+    private double minSalary = Double.NEGATIVE_INFINITY;
+    private double maxSalary = Double.POSITIVE_INFINITY;
+    private List<Column> columns = Arrays.asList(Column.values());
+
+    public EmployeeExporter(EmployeManager manager) {
+        this.manager = manager;
+    }
+
+    // export this point-in-time view instead of the live roster (the caller closes it)
+    public EmployeeExporter snapshot(RosterSnapshot snapshot) {
+        this.snapshot = snapshot;
+        return this;
+    }
+
+    public EmployeeExporter department(String department) {
+        this.department = department == null || department.isBlank() ? null : department;
+        return this;
+    }
+
+    public EmployeeExporter salaryRange(double minSalary, double maxSalary) {
+        this.minSalary = minSalary;
+        this.maxSalary = maxSalary;
+        return this;
+    }
+
+    public EmployeeExporter columns(List<Column> columns) {
+        if (columns != null && !columns.isEmpty()) {
+            this.columns = new ArrayList<>(columns);
+        }
+        return this;
+    }
+
+    // returns the number of employees written
+    public long export(Path file, Format format) throws IOException {
+        try (Writer out = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            return export(out, format);
+        }
+    }
+
+    public long export(Writer out, Format format) throws IOException {
+        Column[] projection = columns.toArray(new Column[0]);
+        long[] written = { 0 };
+        StringBuilder line = new StringBuilder(256);
+        char[][] chars = { new char[256] };
+
+        if (format == Format.CSV) {
+            for (int i = 0; i < projection.length; i++) {
+                line.append(i == 0 ? "" : ",").append(projection[i].header);
+            }
+            out.write(line.append('\n').toString());
+        }
+
+        int departmentGroup = department == null ? FieldDictionary.NONE : FieldDictionary.DEPARTMENTS.groupOf(department);
+
+        Consumer<Employee> writeRow = emp -> {
+            if (department != null && FieldDictionary.DEPARTMENTS.group(emp.getDepartmentCode()) != departmentGroup
+                    || emp.getSalary() < minSalary || emp.getSalary() > maxSalary) {
+                return;
+            }
+            line.setLength(0);
+            if (format == Format.CSV) {
+                appendCsv(line, emp, projection);
+            } else {
+                appendJson(line, emp, projection);
+            }
+            if (chars[0].length < line.length()) {
+                chars[0] = new char[line.length() * 2];
+            }
+            line.getChars(0, line.length(), chars[0], 0);
+            try {
+                out.write(chars[0], 0, line.length());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            written[0]++;
+        };
+
+        try {
+            // walk the narrowest index the filters allow; the remaining filter is checked per row
+            if (snapshot != null) {
+                if (department != null) {
+                    snapshot.forEachInDepartment(department, writeRow);
+                } else {
+                    snapshot.forEachEmployee(writeRow);
+                }
+            } else if (department != null) {
+                manager.forEachInDepartment(department, writeRow);
+            } else if (minSalary > Double.NEGATIVE_INFINITY || maxSalary < Double.POSITIVE_INFINITY) {
+                manager.forEachInSalaryRange(minSalary, maxSalary, writeRow);
+            } else {
+                manager.forEachEmployee(writeRow);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        return written[0];
+    }
+
+    private static void appendCsv(StringBuilder line, Employee emp, Column[] projection) {
+        for (int i = 0; i < projection.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            int date = dateOf(emp, projection[i]);
+            if (date != EpochDays.NONE) {
+                EpochDays.appendTo(line, date);
+                continue;
+            }
+            Object value = projection[i].value.apply(emp);
+            if (value != null) {
+                line.append(EmployeeCsvImporter.quote(value.toString()));
+            }
+        }
+        line.append('\n');
+    }
+
+    // one employee as a JSON line with every column (the HTTP API's employee format)
+    static void appendJson(StringBuilder line, Employee emp) {
+        appendJson(line, emp, ALL_COLUMNS);
+    }
+
+    private static void appendJson(StringBuilder line, Employee emp, Column[] projection) {
+        line.append('{');
+        for (int i = 0; i < projection.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append('"').append(projection[i].header).append("\":");
+            int date = dateOf(emp, projection[i]);
+            if (date != EpochDays.NONE) {
+                EpochDays.appendTo(line.append('"'), date);
+                line.append('"');
+                continue;
+            }
+            Object value = projection[i].value.apply(emp);
+            if (value == null) {
+                line.append("null");
+            } else if (projection[i].numeric) {
+                line.append(value);
+            } else {
+                appendJsonString(line, value.toString());
+            }
+        }
+        line.append("}\n");
+    }
+
+    // dates are written straight from the stored EpochDays instead of formatting a String per row
+    private static int dateOf(Employee emp, Column column) {
+        if (column == Column.DOB) {
+            return emp.getDobEpochDay();
+        }
+        if (column == Column.DOJ) {
+            return emp.getDojEpochDay();
+        }
+        return EpochDays.NONE;
+    }
+
+    static void appendJsonString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,665 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Local HTTP/JSON API over a ConcurrentEmployeManager (JDK com.sun.net.httpserver, bound to the
+// loopback address only):
+//
+//   GET    /employees?afterId=42&limit=50     a page in id order (keyset paging), plus nextAfterId;
+//                                              no afterId for the first page
+//   GET    /employees/{id}
+//   POST   /employees                         {"id":1,"name":"...","salary":...,...} (import columns)
+//   PATCH  /employees/{id}                    any of {"name","address","dob","salary","raisePercent"}
+//   DELETE /employees/{id}
+//   GET    /employees/search?name=|namePrefix=|nameContains=|nameFuzzy=  (+ limit)
+//   GET    /employees/search?department=&designation=&city=&gender=&minAge=&maxAge=&minSalary=
+//          &maxSalary=&joinedFrom=&joinedTo=&sort=salary&descending=true&limit=20   (EmployeeQuery)
+//   POST   /salary-revisions                  {"changes":[{"employeeId":7,"salary":90000},
+//                                              {"department":"Sales","raisePercent":5},{"all":true,...}]}
+//   GET    /stats   GET /stats/{department}   payroll figures (DepartmentStats)
+//   GET    /metrics                           operation latencies, when the manager has a MetricsRegistry
+//
+// Employees come back in the JSON-lines layout of EmployeeExporter. Bad input is a 400 with
+// {"error":...}; unknown ids are 404; a rejected salary revision is 409 with its errors.
+//
+// Each request runs on its own virtual thread when the JVM has them (Java 21+, looked up
+// reflectively so this still builds for 17); otherwise on a fixed pool. Handlers only touch
+// memory (and the journal), and the server's selector thread holds idle keep-alive connections,
+// so thousands of clients don't need thousands of platform threads either way.
+public class EmployeeHttpServer implements AutoCloseable {
+    private static final int BACKLOG = 4096;
+    private static final int FALLBACK_THREADS = 64;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    static {
+        // the JDK server writes the headers and the body separately; with Nagle on, the body waits
+        // for the client's delayed ACK of the headers (~40 ms per keep-alive request)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ConcurrentEmployeManager manager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    // port 0 picks a free port (see getPort)
+    public EmployeeHttpServer(ConcurrentEmployeManager manager, int port) throws IOException {
+        this.manager = manager;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        virtualThreads = virtual != null;
+        executor = virtual != null ? virtual : Executors.newFixedThreadPool(FALLBACK_THREADS);
+        server.setExecutor(executor);
+        server.createContext("/employees", exchange -> handle(exchange, this::employees));
+        server.createContext("/salary-revisions", exchange -> handle(exchange, this::salaryRevisions));
+        server.createContext("/stats", exchange -> handle(exchange, this::stats));
+        server.createContext("/metrics", exchange -> handle(exchange, this::metrics));
+    }
+
+    public EmployeeHttpServer start() {
+        server.start();
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    // stops accepting, gives running requests up to a second, then shuts the threads down
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() if this JVM has it
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    // ---- routing ----
+
+    private interface Handler {
+        Response handle(String method, List<String> path, Map<String, String> params, Object body);
+    }
+
+    private record Response(int status, CharSequence json) {
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        Response response;
+        try {
+            String method = exchange.getRequestMethod();
+            List<String> path = new ArrayList<>();
+            for (String part : exchange.getRequestURI().getRawPath().split("/")) {
+                if (!part.isEmpty()) {
+                    path.add(URLDecoder.decode(part, StandardCharsets.UTF_8));
+                }
+            }
+            Object body = method.equals("POST") || method.equals("PATCH") ? readJson(exchange) : null;
+            response = handler.handle(method, path, queryParams(exchange.getRequestURI().getRawQuery()), body);
+        } catch (IllegalArgumentException e) {
+            response = error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            // the details go to the server's stderr; the client only learns that the request failed
+            System.err.println("HTTP " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed:");
+            e.printStackTrace();
+            response = error(500, "internal server error");
+        }
+        send(exchange, response);
+    }
+
+    private Response employees(String method, List<String> path, Map<String, String> params, Object body) {
+        if (path.size() == 1) {
+            switch (method) {
+                case "GET":
+                    return page(params);
+                case "POST":
+                    return addEmployee(object(body));
+                default:
+                    return error(405, "use GET or POST on /employees");
+            }
+        }
+        if (path.size() != 2) {
+            return error(404, "no such resource");
+        }
+        if (path.get(1).equals("search")) {
+            return method.equals("GET") ? search(params) : error(405, "use GET on /employees/search");
+        }
+        int id = parseInt(path.get(1), "employee id");
+        switch (method) {
+            case "GET": {
+                Employee emp = manager.searchById(id);
+                return emp == null ? notFound(id) : new Response(200, employee(emp));
+            }
+            case "PATCH":
+                return updateEmployee(id, object(body));
+            case "DELETE":
+                return manager.deleteEmployee(id) ? new Response(204, "") : notFound(id);
+            default:
+                return error(405, "use GET, PATCH or DELETE on /employees/{id}");
+        }
+    }
+
+    private Response page(Map<String, String> params) {
+        Integer afterId = params.containsKey("afterId") ? Integer.valueOf(parseInt(params.get("afterId"), "afterId")) : null;
+        int limit = Math.min(1000, params.containsKey("limit") ? parseInt(params.get("limit"), "limit") : 50);
+        List<Employee> page = manager.getEmployeesAfter(afterId, limit);
+        StringBuilder json = employees(page);
+        json.setLength(json.length() - 1);
+        json.append(",\"nextAfterId\":");
+        json.append(page.isEmpty() || page.size() < limit ? "null" : String.valueOf(page.get(page.size() - 1).getEmployeeId()));
+        return new Response(200, json.append('}'));
+    }
+
+    private Response addEmployee(Map<String, Object> fields) {
+        int id = integer(fields, "id");
+        Validation.Candidate candidate = new Validation.Candidate(string(fields, "name"), number(fields, "salary"),
+                integer(fields, "age"), string(fields, "gender"), string(fields, "address"),
+                string(fields, "city"), EpochDays.parse(string(fields, "dob")), EpochDays.parse(string(fields, "doj")),
+                string(fields, "pan").toUpperCase(), string(fields, "aadhaar"));
+        List<String> failed = Validation.failedRules(candidate);
+        if (!failed.isEmpty()) {
+            StringBuilder json = new StringBuilder("{\"error\":\"invalid employee\",\"rules\":");
+            return new Response(400, appendStrings(json, failed).append('}'));
+        }
+        Employee emp = new Employee(id, candidate.name().trim(), candidate.salary(), candidate.age(),
+                candidate.gender(), candidate.address().trim(), candidate.city().trim(), candidate.dobEpochDay(),
+                candidate.dojEpochDay(), string(fields, "department").trim(), string(fields, "designation").trim(),
+                candidate.pan(), candidate.aadhaar());
+        if (!manager.addEmployee(emp)) {
+            return error(409, "employee id already exists: " + id);
+        }
+        return new Response(201, employee(emp));
+    }
+
+    // every field is checked before any is changed
+    private Response updateEmployee(int id, Map<String, Object> fields) {
+        Employee emp = manager.searchById(id);
+        if (emp == null) {
+            return notFound(id);
+        }
+        String name = fields.containsKey("name") ? string(fields, "name") : null;
+        String address = fields.containsKey("address") ? string(fields, "address") : null;
+        String dob = fields.containsKey("dob") ? string(fields, "dob") : null;
+        Double salary = fields.containsKey("salary") ? number(fields, "salary") : null;
+        Double raise = fields.containsKey("raisePercent") ? number(fields, "raisePercent") : null;
+        require(name == null || Validation.isValidName(name), "invalid name (letters and spaces, 2-50 characters)");
+        require(address == null || Validation.isValidString(address, 5, 100), "address must be 5-100 characters");
+        require(dob == null || EpochDays.parse(dob) != EpochDays.NONE, "invalid dob (YYYY-MM-DD)");
+        require(dob == null || Validation.isAgeAtLeast18AtJoining(EpochDays.parse(dob), emp.getDojEpochDay()),
+                "with that dob the employee was under 18 at joining");
+        require(salary == null || Validation.isValidSalary(salary), "salary must be between 0 and 10000000");
+        require(raise == null || raise >= -100, "a decrease can't be more than 100%");
+
+        boolean found = true;
+        if (name != null) {
+            found = manager.updateName(id, name.trim());
+        }
+        if (found && address != null) {
+            found = manager.updateAddress(id, address.trim());
+        }
+        if (found && dob != null) {
+            found = manager.updateDob(id, dob);
+        }
+        if (found && salary != null) {
+            found = manager.updateSalaryById(id, salary);
+        }
+        if (found && raise != null) {
+            found = manager.updateSalaryByPercentageById(id, raise);
+        }
+        // deleted by another request in the meantime
+        Employee updated = manager.searchById(id);
+        return found && updated != null ? new Response(200, employee(updated)) : notFound(id);
+    }
+
+    private Response search(Map<String, String> params) {
+        int limit = params.containsKey("limit") ? parseInt(params.get("limit"), "limit") : 100;
+        if (params.containsKey("name")) {
+            List<Employee> found = manager.searchByName(params.get("name"));
+            return new Response(200, employees(found.subList(0, Math.min(found.size(), Math.max(0, limit)))));
+        }
+        if (params.containsKey("namePrefix")) {
+            return new Response(200, employees(manager.searchByNamePrefix(params.get("namePrefix"), limit)));
+        }
+        if (params.containsKey("nameContains")) {
+            return new Response(200, employees(manager.searchByNameContaining(params.get("nameContains"), limit)));
+        }
+        if (params.containsKey("nameFuzzy")) {
+            return new Response(200, employees(manager.searchByNameFuzzy(params.get("nameFuzzy"), 2, limit)));
+        }
+
+        EmployeeQuery query = manager.query()
+                .department(params.get("department"))
+                .designation(params.get("designation"))
+                .city(params.get("city"))
+                .gender(params.get("gender"))
+                .joinedBetween(params.get("joinedFrom"), params.get("joinedTo"))
+                .limit(limit);
+        if (params.containsKey("minAge") || params.containsKey("maxAge")) {
+            query.ageBetween(params.containsKey("minAge") ? parseInt(params.get("minAge"), "minAge") : Integer.MIN_VALUE,
+                    params.containsKey("maxAge") ? parseInt(params.get("maxAge"), "maxAge") : Integer.MAX_VALUE);
+        }
+        if (params.containsKey("minSalary") || params.containsKey("maxSalary")) {
+            query.salaryBetween(
+                    params.containsKey("minSalary") ? parseDouble(params.get("minSalary"), "minSalary") : Double.NEGATIVE_INFINITY,
+                    params.containsKey("maxSalary") ? parseDouble(params.get("maxSalary"), "maxSalary") : Double.POSITIVE_INFINITY);
+        }
+        if (params.containsKey("sort")) {
+            EmployeeQuery.SortKey key;
+            try {
+                key = EmployeeQuery.SortKey.valueOf(params.get("sort").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("sort must be one of " + Arrays.toString(EmployeeQuery.SortKey.values()));
+            }
+            if (Boolean.parseBoolean(params.get("descending"))) {
+                query.orderByDescending(key);
+            } else {
+                query.orderBy(key);
+            }
+        }
+        return new Response(200, employees(query.list()));
+    }
+
+    private Response salaryRevisions(String method, List<String> path, Map<String, String> params, Object body) {
+        if (!method.equals("POST") || path.size() != 1) {
+            return error(405, "use POST on /salary-revisions");
+        }
+        Object changes = object(body).get("changes");
+        require(changes instanceof List && !((List<?>) changes).isEmpty(), "changes must be a non-empty array");
+        SalaryRevision revision = manager.beginSalaryRevision();
+        for (Object item : (List<?>) changes) {
+            Map<String, Object> change = object(item);
+            boolean percentage = change.containsKey("raisePercent");
+            require(percentage != change.containsKey("salary"), "each change needs either salary or raisePercent");
+            double value = number(change, percentage ? "raisePercent" : "salary");
+            if (change.containsKey("employeeId")) {
+                int id = integer(change, "employeeId");
+                if (percentage) {
+                    revision.raiseSalary(id, value);
+                } else {
+                    revision.setSalary(id, value);
+                }
+            } else if (change.containsKey("department")) {
+                String dept = string(change, "department");
+                if (percentage) {
+                    revision.raiseDepartment(dept, value);
+                } else {
+                    revision.setDepartmentSalary(dept, value);
+                }
+            } else if (Boolean.TRUE.equals(change.get("all"))) {
+                if (percentage) {
+                    revision.raiseAll(value);
+                } else {
+                    revision.setAllSalaries(value);
+                }
+            } else {
+                throw new IllegalArgumentException("each change needs employeeId, department or \"all\":true");
+            }
+        }
+        if (revision.commit()) {
+            return new Response(200, "{\"committed\":true,\"changes\":" + revision.getStagedChangeCount() + "}");
+        }
+        List<String> errors = new ArrayList<>(revision.getErrors());
+        revision.rollback();
+        StringBuilder json = new StringBuilder("{\"committed\":false,\"errors\":");
+        return new Response(409, appendStrings(json, errors).append('}'));
+    }
+
+    private Response stats(String method, List<String> path, Map<String, String> params, Object body) {
+        if (!method.equals("GET") || path.size() > 2) {
+            return error(405, "use GET on /stats or /stats/{department}");
+        }
+        DepartmentStats stats = path.size() == 1 ? manager.getPayrollStats() : manager.getDepartmentStats(path.get(1));
+        if (stats == null) {
+            return error(404, "no such department: " + path.get(1));
+        }
+        StringBuilder json = new StringBuilder("{\"department\":");
+        EmployeeExporter.appendJsonString(json, stats.getDepartment());
+        json.append(",\"headcount\":").append(stats.getHeadcount())
+                .append(",\"totalSalary\":").append(stats.getTotalSalary())
+                .append(",\"averageSalary\":").append(stats.getAverageSalary())
+                .append(",\"medianSalary\":").append(jsonNumber(stats.getMedianSalary()))
+                .append(",\"p90Salary\":").append(jsonNumber(stats.getP90Salary()))
+                .append(",\"minSalary\":").append(jsonNumber(stats.getMinSalary()))
+                .append(",\"maxSalary\":").append(jsonNumber(stats.getMaxSalary()))
+                .append('}');
+        return new Response(200, json);
+    }
+
+    private Response metrics(String method, List<String> path, Map<String, String> params, Object body) {
+        if (!method.equals("GET") || path.size() > 1) {
+            return error(405, "use GET on /metrics");
+        }
+        MetricsRegistry metrics = manager.getMetrics();
+        return metrics == null ? error(404, "metrics are not enabled") : new Response(200, metrics.toJson());
+    }
+
+    // ---- JSON out ----
+
+    private static StringBuilder employee(Employee emp) {
+        StringBuilder json = new StringBuilder(320);
+        EmployeeExporter.appendJson(json, emp);
+        json.setLength(json.length() - 1); // the exporter ends each row with a newline
+        return json;
+    }
+
+    // {"count":n,"employees":[...]}
+    private static StringBuilder employees(List<Employee> employees) {
+        StringBuilder json = new StringBuilder(64 + employees.size() * 320);
+        json.append("{\"count\":").append(employees.size()).append(",\"employees\":[");
+        for (int i = 0; i < employees.size(); i++) {
+            EmployeeExporter.appendJson(json, employees.get(i));
+            json.setCharAt(json.length() - 1, i + 1 < employees.size() ? ',' : ']');
+        }
+        if (employees.isEmpty()) {
+            json.append(']');
+        }
+        return json.append('}');
+    }
+
+    private static StringBuilder appendStrings(StringBuilder json, List<String> values) {
+        json.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            EmployeeExporter.appendJsonString(json, values.get(i));
+        }
+        return json.append(']');
+    }
+
+    private static String jsonNumber(double value) {
+        return Double.isNaN(value) ? "null" : String.valueOf(value);
+    }
+
+    private static Response error(int status, String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        EmployeeExporter.appendJsonString(json, String.valueOf(message));
+        return new Response(status, json.append('}'));
+    }
+
+    private static Response notFound(int id) {
+        return error(404, "employee not found: " + id);
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = response.json().toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (response.status() == 204) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            exchange.sendResponseHeaders(response.status(), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    // ---- request parsing ----
+
+    private static Object readJson(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            require(bytes.length <= MAX_BODY_BYTES, "request body too large");
+            return new JsonReader(new String(bytes, StandardCharsets.UTF_8)).readDocument();
+        }
+    }
+
+    private static Map<String, String> queryParams(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            if (!key.isEmpty()) {
+                params.put(key, value);
+            }
+        }
+        return params;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> object(Object json) {
+        require(json instanceof Map, "expected a JSON object");
+        return (Map<String, Object>) json;
+    }
+
+    private static String string(Map<String, Object> fields, String key) {
+        Object value = fields.get(key);
+        require(value instanceof String, "\"" + key + "\" must be a string");
+        return (String) value;
+    }
+
+    private static double number(Map<String, Object> fields, String key) {
+        Object value = fields.get(key);
+        require(value instanceof Double, "\"" + key + "\" must be a number");
+        return (Double) value;
+    }
+
+    private static int integer(Map<String, Object> fields, String key) {
+        double value = number(fields, key);
+        require(value == Math.rint(value) && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE,
+                "\"" + key + "\" must be a whole number");
+        return (int) value;
+    }
+
+    private static int parseInt(String value, String what) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + what + ": " + value);
+        }
+    }
+
+    private static double parseDouble(String value, String what) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + what + ": " + value);
+        }
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    // Just enough JSON for request bodies: objects become LinkedHashMaps, arrays ArrayLists, numbers
+    // finite Doubles; strings, true/false and null as usual. Throws IllegalArgumentException when malformed.
+    private static final class JsonReader {
+        private final String text;
+        private int pos;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        Object readDocument() {
+            Object value = readValue();
+            skipSpace();
+            require(pos == text.length(), "unexpected text after the JSON value at " + pos);
+            return value;
+        }
+
+        private Object readValue() {
+            skipSpace();
+            require(pos < text.length(), "unexpected end of JSON");
+            char c = text.charAt(pos);
+            if (c == '{') {
+                return readObject();
+            }
+            if (c == '[') {
+                return readArray();
+            }
+            if (c == '"') {
+                return readString();
+            }
+            if (text.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            require(pos > start, "unexpected '" + c + "' in JSON at " + start);
+            double number;
+            try {
+                number = Double.parseDouble(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("bad number in JSON at " + start);
+            }
+            // 1e400 parses as Infinity, which no field accepts
+            require(Double.isFinite(number), "number out of range in JSON at " + start);
+            return number;
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            pos++;
+            skipSpace();
+            if (peek() == '}') {
+                pos++;
+                return object;
+            }
+            while (true) {
+                skipSpace();
+                require(peek() == '"', "expected a key in JSON at " + pos);
+                String key = readString();
+                skipSpace();
+                expect(':');
+                object.put(key, readValue());
+                skipSpace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect('}');
+                    return object;
+                }
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            pos++;
+            skipSpace();
+            if (peek() == ']') {
+                pos++;
+                return array;
+            }
+            while (true) {
+                array.add(readValue());
+                skipSpace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect(']');
+                    return array;
+                }
+            }
+        }
+
+        private String readString() {
+            pos++; // opening quote
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                require(pos < text.length(), "unterminated string in JSON");
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                require(pos < text.length(), "unterminated string in JSON");
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        require(pos + 4 <= text.length(), "bad \\u escape in JSON");
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("bad \\u escape in JSON at " + pos);
+                        }
+                        pos += 4;
+                        break;
+                    default: // " \ /
+                        value.append(escaped);
+                }
+            }
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private void expect(char c) {
+            require(peek() == c, "expected '" + c + "' in JSON at " + pos);
+            pos++;
+        }
+    }
+}
@@ -0,0 +1,451 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// Append-only write-ahead log of every EmployeManager mutation.
+//
+// Operations are logged logically (a department appraisal is one record, not one per employee).
+// When a change counts as saved depends on the Durability:
+//   GROUP_COMMIT  the manager waits (awaitDurable) until the fsync covering its record is done, so
+//                 an acknowledged change survives a crash. Changes logged while an fsync runs wait
+//                 for the next one, which writes them all: one fsync per group, not per change.
+//   ASYNC         records are buffered and written + fsynced once syncEveryRecords are pending or
+//                 syncIntervalMillis has passed. Faster, but a crash loses the changes acknowledged
+//                 since the last fsync.
+//
+// Record layout: int length | long sequence | byte op | payload | int crc32(sequence..payload)
+public class EmployeeJournal implements AutoCloseable {
+    static final byte ADD = 1;
+    static final byte DELETE = 2;
+    static final byte SET_SALARY = 3;
+    static final byte SET_DEPARTMENT_SALARY = 4;
+    static final byte SET_ALL_SALARY = 5;
+    static final byte RAISE_SALARY = 6;
+    static final byte RAISE_DEPARTMENT_SALARY = 7;
+    static final byte RAISE_ALL_SALARY = 8;
+    static final byte SET_NAME = 9;
+    static final byte SET_ADDRESS = 10;
+    static final byte SET_DOB = 11;
+    static final byte SALARY_REVISION = 12;
+
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    public enum Durability {
+        GROUP_COMMIT, ASYNC
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Durability durability;
+    private final int syncEveryRecords;
+    private final long syncIntervalMillis;
+    private final ScheduledExecutorService syncTimer;
+
+    private final ByteBuffer pending = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private ByteBuffer record = ByteBuffer.allocate(1024);
+    private final CRC32 crc = new CRC32();
+
+    private long lastSequence;
+    private long syncedSequence; // the last record known to be on disk
+    private boolean syncing; // a group fsync is running outside the lock
+    private long lastSyncNanos = System.nanoTime();
+
+    // GROUP_COMMIT: every change is on disk before the manager acknowledges it
+    public EmployeeJournal(Path file) throws IOException {
+        this(file, Durability.GROUP_COMMIT, 1, 0);
+    }
+
+    // ASYNC: syncEveryRecords = 1 means one fsync per mutation; syncIntervalMillis <= 0 disables the timer
+    public EmployeeJournal(Path file, int syncEveryRecords, long syncIntervalMillis) throws IOException {
+        this(file, Durability.ASYNC, syncEveryRecords, syncIntervalMillis);
+    }
+
+    private EmployeeJournal(Path file, Durability durability, int syncEveryRecords, long syncIntervalMillis)
+            throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.durability = durability;
+        this.syncEveryRecords = Math.max(1, syncEveryRecords);
+        this.syncIntervalMillis = syncIntervalMillis;
+
+        if (durability == Durability.ASYNC && syncIntervalMillis > 0) {
+            syncTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "employee-journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncTimer.scheduleWithFixedDelay(this::syncIfDue, syncIntervalMillis, syncIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            syncTimer = null;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    synchronized long getSyncedSequence() {
+        return syncedSequence;
+    }
+
+    // Applies every intact record newer than afterSequence to the manager (which must not have this
+    // journal attached yet). Stops at the first torn or corrupt record and cuts the file there, so
+    // new records are appended after the last good one. Returns the number of records applied.
+    public synchronized int replay(EmployeManager manager, long afterSequence) throws IOException {
+        lastSequence = afterSequence;
+        long size = channel.size();
+        long position = 0;
+        int applied = 0;
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+
+        while (position + 4 <= size) {
+            lengthBuffer.clear();
+            readFully(lengthBuffer, position);
+            int length = lengthBuffer.flip().getInt();
+            if (length < 9 || length > MAX_RECORD_SIZE || position + 4 + length + 4 > size) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(length + 4);
+            readFully(body, position + 4);
+            body.flip();
+            crc.reset();
+            crc.update(body.array(), 0, length);
+            if ((int) crc.getValue() != body.getInt(length)) {
+                break;
+            }
+            body.limit(length);
+
+            long sequence = body.getLong();
+            if (sequence > afterSequence) {
+                apply(manager, body.get(), body);
+                applied++;
+            }
+            lastSequence = Math.max(lastSequence, sequence);
+            position += 4 + length + 4;
+        }
+
+        if (position < size) {
+            channel.truncate(position);
+        }
+        channel.position(position);
+        syncedSequence = lastSequence;
+        return applied;
+    }
+
+    // everything up to the sequence stored in a snapshot is no longer needed
+    public synchronized void checkpoint() throws IOException {
+        pending.clear();
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+        syncedSequence = lastSequence;
+    }
+
+    public synchronized void sync() throws IOException {
+        writePending();
+        if (syncedSequence < lastSequence) {
+            channel.force(false);
+            syncedSequence = lastSequence;
+        }
+        lastSyncNanos = System.nanoTime();
+    }
+
+    // Returns once the record with this sequence is on disk; at once in ASYNC mode. The first
+    // waiter writes out everything logged so far and fsyncs it without holding the lock, so records
+    // logged meanwhile pile up for the next fsync instead of each paying for its own.
+    void awaitDurable(long sequence) {
+        if (durability != Durability.GROUP_COMMIT) {
+            return;
+        }
+        try {
+            while (true) {
+                long upTo;
+                synchronized (this) {
+                    while (syncing && syncedSequence < sequence) {
+                        wait();
+                    }
+                    if (syncedSequence >= sequence) {
+                        return;
+                    }
+                    writePending();
+                    syncing = true;
+                    upTo = lastSequence;
+                }
+                boolean synced = false;
+                try {
+                    channel.force(false);
+                    synced = true;
+                } finally {
+                    synchronized (this) {
+                        syncing = false;
+                        if (synced) {
+                            syncedSequence = Math.max(syncedSequence, upTo);
+                        }
+                        notifyAll();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not sync journal " + file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for journal " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (syncTimer != null) {
+            syncTimer.shutdownNow();
+        }
+        // let a running group fsync finish before the channel goes away
+        boolean interrupted = false;
+        while (syncing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+        channel.close();
+    }
+
+    synchronized long logAdd(Employee emp) {
+        ByteBuffer out = begin(ADD);
+        out.putInt(emp.getEmployeeId());
+        out.putDouble(emp.getSalary());
+        out.putInt(emp.getAge());
+        for (String value : new String[] {
+                emp.getName(), emp.getGender(), emp.getAddress(), emp.getCity(), emp.getDob(), emp.getDoj(),
+                emp.getDepartmentName(), emp.getDesignation(), emp.getPanCardNumber(), emp.getAadharNumber() }) {
+            putString(value);
+        }
+        return end();
+    }
+
+    synchronized long logId(byte op, int empId) {
+        begin(op).putInt(empId);
+        return end();
+    }
+
+    synchronized long logIdValue(byte op, int empId, double value) {
+        begin(op).putInt(empId).putDouble(value);
+        return end();
+    }
+
+    synchronized long logIdString(byte op, int empId, String value) {
+        begin(op).putInt(empId);
+        putString(value);
+        return end();
+    }
+
+    synchronized long logStringValue(byte op, String key, double value) {
+        begin(op);
+        putString(key);
+        record.putDouble(value);
+        return end();
+    }
+
+    synchronized long logValue(byte op, double value) {
+        begin(op).putDouble(value);
+        return end();
+    }
+
+    // the staged changes, not the resulting salaries, so a company-wide revision stays one small
+    // record; replaying them against the same roster gives the same salaries
+    synchronized long logSalaryRevision(SalaryRevision revision) {
+        begin(SALARY_REVISION).putInt(revision.getChanges().size());
+        for (SalaryRevision.Change change : revision.getChanges()) {
+            ensureRecordRoom(2 + 4 + 8);
+            record.put((byte) change.target().ordinal());
+            record.put((byte) (change.percentage() ? 1 : 0));
+            record.putInt(change.empId());
+            record.putDouble(change.value());
+            putString(change.dept());
+        }
+        return end();
+    }
+
+    // records are built in `record`; callers hold the journal lock from begin() to end(), which
+    // returns the record's sequence (see awaitDurable)
+    private ByteBuffer begin(byte op) {
+        record.clear();
+        record.position(4);
+        record.putLong(lastSequence + 1);
+        record.put(op);
+        return record;
+    }
+
+    private long end() {
+        try {
+            int length = record.position() - 4;
+            crc.reset();
+            crc.update(record.array(), 4, length);
+            record.putInt((int) crc.getValue());
+            record.putInt(0, length);
+            record.flip();
+
+            if (pending.remaining() < record.remaining()) {
+                writePending();
+            }
+            if (record.remaining() > pending.capacity()) {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            } else {
+                pending.put(record);
+            }
+            lastSequence++;
+
+            if (durability == Durability.ASYNC && lastSequence - syncedSequence >= syncEveryRecords) {
+                sync();
+            }
+            return lastSequence;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write to journal " + file, e);
+        }
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            ensureRecordRoom(4);
+            record.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureRecordRoom(4 + bytes.length + 8);
+        record.putInt(bytes.length);
+        record.put(bytes);
+    }
+
+    private void ensureRecordRoom(int bytes) {
+        if (record.remaining() < bytes + 4) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + bytes + 64));
+            record.flip();
+            bigger.put(record);
+            record = bigger;
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void apply(EmployeManager manager, byte op, ByteBuffer in) throws IOException {
+        switch (op) {
+            case ADD: {
+                int id = in.getInt();
+                double salary = in.getDouble();
+                int age = in.getInt();
+                manager.addEmployee(new Employee(id, getString(in), salary, age, getString(in), getString(in),
+                        getString(in), getString(in), getString(in), getString(in), getString(in),
+                        getString(in), getString(in)));
+                break;
+            }
+            case DELETE:
+                manager.deleteEmployee(in.getInt());
+                break;
+            case SET_SALARY:
+                manager.updateSalaryById(in.getInt(), in.getDouble());
+                break;
+            case SET_DEPARTMENT_SALARY:
+                manager.updateSalaryByDepartment(getString(in), in.getDouble());
+                break;
+            case SET_ALL_SALARY:
+                manager.updateSalaryForAll(in.getDouble());
+                break;
+            case RAISE_SALARY:
+                manager.updateSalaryByPercentageById(in.getInt(), in.getDouble());
+                break;
+            case RAISE_DEPARTMENT_SALARY:
+                manager.updateSalaryByPercentageByDepartment(getString(in), in.getDouble());
+                break;
+            case RAISE_ALL_SALARY:
+                manager.updateSalaryByPercentageForAll(in.getDouble());
+                break;
+            case SET_NAME:
+                manager.updateName(in.getInt(), getString(in));
+                break;
+            case SET_ADDRESS:
+                manager.updateAddress(in.getInt(), getString(in));
+                break;
+            case SET_DOB:
+                manager.updateDob(in.getInt(), getString(in));
+                break;
+            case SALARY_REVISION: {
+                SalaryRevision revision = manager.beginSalaryRevision();
+                int changes = in.getInt();
+                for (int i = 0; i < changes; i++) {
+                    SalaryRevision.Target target = SalaryRevision.Target.values()[in.get()];
+                    boolean percentage = in.get() != 0;
+                    int empId = in.getInt();
+                    double value = in.getDouble();
+                    revision.stage(target, empId, getString(in), percentage, value);
+                }
+                revision.commit();
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal operation " + op);
+        }
+    }
+
+    private synchronized void syncIfDue() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        long dueNanos = lastSyncNanos + TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+        if ((pending.position() > 0 || syncedSequence < lastSequence) && System.nanoTime() - dueNanos >= 0) {
+            try {
+                sync();
+            } catch (IOException e) {
+                System.err.println("Journal sync failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void writePending() throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) {
+            channel.write(pending);
+        }
+        pending.clear();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of journal " + file);
+            }
+        }
+    }
+}
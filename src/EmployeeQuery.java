@@ -0,0 +1,348 @@
+import java.util.*;
+import java.util.function.Consumer;
+
+// A multi-criteria employee search:
+//
+//   List<Employee> found = manager.query()
+//           .department("Sales")
+//           .city("Pune")
+//           .ageBetween(25, 35)
+//           .salaryBetween(50000, 90000)
+//           .orderByDescending(EmployeeQuery.SortKey.SALARY)
+//           .limit(20)
+//           .list();
+//
+// Every criterion is optional and they all have to match; text fields match ignoring case, like
+// searchByDepartment. Ranges include both ends.
+//
+// The query walks one of the manager's indexes and checks the other criteria row by row, so it
+// never copies the roster. The planner picks the walk with the fewest expected rows:
+// - the department index (exact size)
+// - the salary index (exact size, from its salary ranks)
+// - the whole roster in id order
+// A walk that already comes in the requested order stops after `limit` matches; the others keep
+// the best `limit` rows seen so far. explain() shows the choice.
+public class EmployeeQuery {
+    public enum SortKey {
+        ID, NAME, SALARY, AGE, JOINING_DATE
+    }
+
+    // the indexes a query can walk
+    enum Access {
+        DEPARTMENT, SALARY, ALL
+    }
+
+    private final EmployeManager manager;
+    private String department;
+    private String designation;
+    private String city;
+    private String gender;
+    private int minAge = Integer.MIN_VALUE;
+    private int maxAge = Integer.MAX_VALUE;
+    private double minSalary = Double.NEGATIVE_INFINITY;
+    private double maxSalary = Double.POSITIVE_INFINITY;
+    private int joinedFrom = Integer.MIN_VALUE;
+    private int joinedTo = Integer.MAX_VALUE;
+    private SortKey sortKey = SortKey.ID;
+    private boolean descending;
+    private int limit = Integer.MAX_VALUE;
+
+    EmployeeQuery(EmployeManager manager) {
+        this.manager = manager;
+    }
+
+    public EmployeeQuery department(String department) {
+        this.department = blankToNull(department);
+        return this;
+    }
+
+    public EmployeeQuery designation(String designation) {
+        this.designation = blankToNull(designation);
+        return this;
+    }
+
+    public EmployeeQuery city(String city) {
+        this.city = blankToNull(city);
+        return this;
+    }
+
+    public EmployeeQuery gender(String gender) {
+        this.gender = blankToNull(gender);
+        return this;
+    }
+
+    public EmployeeQuery ageBetween(int minAge, int maxAge) {
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        return this;
+    }
+
+    public EmployeeQuery salaryBetween(double minSalary, double maxSalary) {
+        this.minSalary = minSalary;
+        this.maxSalary = maxSalary;
+        return this;
+    }
+
+    // "YYYY-MM-DD"; null leaves that end open
+    public EmployeeQuery joinedBetween(String from, String to) {
+        joinedFrom = from == null ? Integer.MIN_VALUE : parseDate(from);
+        joinedTo = to == null ? Integer.MAX_VALUE : parseDate(to);
+        return this;
+    }
+
+    // lowest first; equal keys come in id order
+    public EmployeeQuery orderBy(SortKey key) {
+        sortKey = key;
+        descending = false;
+        return this;
+    }
+
+    // highest first; equal keys come in reverse id order
+    public EmployeeQuery orderByDescending(SortKey key) {
+        sortKey = key;
+        descending = true;
+        return this;
+    }
+
+    public EmployeeQuery limit(int limit) {
+        this.limit = Math.max(0, limit);
+        return this;
+    }
+
+    public List<Employee> list() {
+        return manager.runQuery(this);
+    }
+
+    public int count() {
+        return list().size();
+    }
+
+    // which index the planner would walk, and why
+    public String explain() {
+        return manager.explainQuery(this);
+    }
+
+    // ---- planning and running; called by the manager (under the read lock of a ConcurrentEmployeManager) ----
+
+    // the walk the planner picked, with its row estimates
+    record Plan(Access access, long rows, long scanned, boolean ordered) {
+    }
+
+    Plan plan(EmployeManager roster) {
+        long everyone = roster.getEmployeeCount();
+        boolean bySalary = minSalary > Double.NEGATIVE_INFINITY || maxSalary < Double.POSITIVE_INFINITY;
+        long inDepartment = department == null ? everyone : roster.departmentRows(department).size();
+        long inSalaryRange = bySalary ? roster.countSalaryRows(null, minSalary, maxSalary) : everyone;
+        // rows expected to pass the indexed criteria; nothing is known about the other criteria
+        long expected = department != null && bySalary ? roster.countSalaryRows(department, minSalary, maxSalary)
+                : Math.min(inDepartment, inSalaryRange);
+
+        List<Plan> plans = new ArrayList<>();
+        plans.add(plan(Access.ALL, everyone, expected, sortKey == SortKey.ID));
+        if (department != null) {
+            plans.add(plan(Access.DEPARTMENT, inDepartment, expected, sortKey == SortKey.ID));
+        }
+        if (bySalary || sortKey == SortKey.SALARY) {
+            plans.add(plan(Access.SALARY, inSalaryRange, expected, sortKey == SortKey.SALARY));
+        }
+        // fewest rows to look at; on a tie the one that needs no sorting
+        plans.sort(Comparator.comparingLong(Plan::scanned).thenComparing(plan -> !plan.ordered()));
+        return plans.get(0);
+    }
+
+    // an ordered walk with a limit stops after about limit * rows / expected rows
+    private Plan plan(Access access, long rows, long expected, boolean ordered) {
+        long scanned = rows;
+        if (ordered && limit < Integer.MAX_VALUE) {
+            scanned = Math.min(rows, (long) Math.ceil((double) limit * rows / Math.max(1, expected)));
+        }
+        return new Plan(access, rows, scanned, ordered);
+    }
+
+    List<Employee> run(EmployeManager roster) {
+        if (limit == 0 || impossible()) {
+            return new ArrayList<>();
+        }
+        Plan plan = plan(roster);
+        Filter filter = new Filter();
+        Collection<Employee> rows;
+        switch (plan.access()) {
+            case DEPARTMENT:
+                rows = roster.departmentRows(department, descending);
+                break;
+            case SALARY:
+                rows = roster.salaryRows(minSalary, maxSalary, descending);
+                break;
+            default:
+                rows = roster.allRows(descending);
+        }
+
+        if (plan.ordered()) {
+            List<Employee> matches = new ArrayList<>(Math.min(limit, 1024));
+            for (Employee emp : rows) {
+                if (filter.test(emp)) {
+                    matches.add(emp);
+                    if (matches.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return matches;
+        }
+
+        Comparator<Employee> order = order();
+        if (limit == Integer.MAX_VALUE) {
+            List<Employee> matches = new ArrayList<>();
+            forEachMatch(rows, filter, matches::add);
+            matches.sort(order);
+            return matches;
+        }
+        // keep the best `limit` so far, worst on top
+        PriorityQueue<Employee> best = new PriorityQueue<>(Math.min(limit, 1024) + 1, order.reversed());
+        forEachMatch(rows, filter, emp -> {
+            if (best.size() < limit) {
+                best.add(emp);
+            } else if (order.compare(emp, best.peek()) < 0) {
+                best.poll();
+                best.add(emp);
+            }
+        });
+        List<Employee> matches = new ArrayList<>(best);
+        matches.sort(order);
+        return matches;
+    }
+
+    String explain(EmployeManager roster) {
+        if (impossible()) {
+            return "No match possible: a department, designation, city or gender nobody has, or an empty range";
+        }
+        Plan plan = plan(roster);
+        StringBuilder text = new StringBuilder();
+        switch (plan.access()) {
+            case DEPARTMENT:
+                text.append("Walk department index (").append(department).append(", ");
+                break;
+            case SALARY:
+                text.append("Walk salary index (").append(descending ? "descending, " : "");
+                break;
+            default:
+                text.append("Walk all employees in id order (").append(descending ? "descending, " : "");
+        }
+        text.append(plan.rows()).append(" rows");
+        if (plan.scanned() < plan.rows()) {
+            text.append(", about ").append(plan.scanned()).append(" until the limit");
+        }
+        text.append(")");
+        List<String> checks = new ArrayList<>();
+        if (department != null && plan.access() != Access.DEPARTMENT) {
+            checks.add("department");
+        }
+        if (designation != null) {
+            checks.add("designation");
+        }
+        if (city != null) {
+            checks.add("city");
+        }
+        if (gender != null) {
+            checks.add("gender");
+        }
+        if (minAge > Integer.MIN_VALUE || maxAge < Integer.MAX_VALUE) {
+            checks.add("age");
+        }
+        if ((minSalary > Double.NEGATIVE_INFINITY || maxSalary < Double.POSITIVE_INFINITY)
+                && plan.access() != Access.SALARY) {
+            checks.add("salary");
+        }
+        if (joinedFrom > Integer.MIN_VALUE || joinedTo < Integer.MAX_VALUE) {
+            checks.add("joining date");
+        }
+        if (!checks.isEmpty()) {
+            text.append(", check ").append(String.join(", ", checks));
+        }
+        if (!plan.ordered()) {
+            text.append(", sort by ").append(sortKey).append(descending ? " descending" : "");
+        }
+        if (limit < Integer.MAX_VALUE) {
+            text.append(plan.ordered() ? ", stop after " : ", keep the top ").append(limit);
+        }
+        return text.toString();
+    }
+
+    // a criterion no employee can match (a value never seen, or an empty range)
+    private boolean impossible() {
+        return unknown(FieldDictionary.DEPARTMENTS, department) || unknown(FieldDictionary.DESIGNATIONS, designation)
+                || unknown(FieldDictionary.CITIES, city) || unknown(FieldDictionary.GENDERS, gender)
+                || minAge > maxAge || !(minSalary <= maxSalary) || joinedFrom > joinedTo;
+    }
+
+    private static boolean unknown(FieldDictionary dictionary, String value) {
+        return value != null && dictionary.groupOf(value) == FieldDictionary.NONE;
+    }
+
+    private void forEachMatch(Collection<Employee> rows, Filter filter, Consumer<Employee> action) {
+        for (Employee emp : rows) {
+            if (filter.test(emp)) {
+                action.accept(emp);
+            }
+        }
+    }
+
+    private Comparator<Employee> order() {
+        Comparator<Employee> byKey;
+        switch (sortKey) {
+            case NAME:
+                byKey = Comparator.comparing(Employee::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+                break;
+            case SALARY:
+                byKey = Comparator.comparingDouble(Employee::getSalary);
+                break;
+            case AGE:
+                byKey = Comparator.comparingInt(Employee::getAge);
+                break;
+            case JOINING_DATE:
+                byKey = Comparator.comparingInt(Employee::getDojEpochDay);
+                break;
+            default:
+                byKey = (a, b) -> 0;
+        }
+        Comparator<Employee> order = byKey.thenComparingInt(Employee::getEmployeeId);
+        return descending ? order.reversed() : order;
+    }
+
+    // the criteria as dictionary groups and primitives, cheapest checks first
+    private final class Filter {
+        private final int departmentGroup = group(FieldDictionary.DEPARTMENTS, department);
+        private final int designationGroup = group(FieldDictionary.DESIGNATIONS, designation);
+        private final int cityGroup = group(FieldDictionary.CITIES, city);
+        private final int genderGroup = group(FieldDictionary.GENDERS, gender);
+
+        boolean test(Employee emp) {
+            return (departmentGroup == FieldDictionary.NONE
+                    || FieldDictionary.DEPARTMENTS.group(emp.getDepartmentCode()) == departmentGroup)
+                    && (designationGroup == FieldDictionary.NONE
+                    || FieldDictionary.DESIGNATIONS.group(emp.getDesignationCode()) == designationGroup)
+                    && (cityGroup == FieldDictionary.NONE || FieldDictionary.CITIES.group(emp.getCityCode()) == cityGroup)
+                    && (genderGroup == FieldDictionary.NONE
+                    || FieldDictionary.GENDERS.group(emp.getGenderCode()) == genderGroup)
+                    && emp.getAge() >= minAge && emp.getAge() <= maxAge
+                    && emp.getSalary() >= minSalary && emp.getSalary() <= maxSalary
+                    && emp.getDojEpochDay() >= joinedFrom && emp.getDojEpochDay() <= joinedTo;
+        }
+
+        private int group(FieldDictionary dictionary, String value) {
+            return value == null ? FieldDictionary.NONE : dictionary.groupOf(value);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static int parseDate(String date) {
+        int day = EpochDays.parse(date.trim());
+        if (day == EpochDays.NONE) {
+            throw new IllegalArgumentException("Invalid date (expected YYYY-MM-DD): " + date);
+        }
+        return day;
+    }
+}
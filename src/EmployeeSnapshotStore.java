@@ -0,0 +1,287 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Saves the whole roster to a compact binary file and loads it back through a memory map.
+//
+// File layout:
+//   header   magic, version, employee count, string count, records offset, journal sequence
+//   strings  every distinct string once: byte length + UTF-8 bytes
+//   records  one fixed-width record per employee (see the *_OFFSET constants), dates as EpochDays
+public class EmployeeSnapshotStore {
+    private static final int MAGIC = 0x454D5331; // "EMS1"
+    private static final int VERSION = 3;
+    // version 1 files had no journal sequence in the header
+    private static final int V1_HEADER_SIZE = 24;
+    private static final int HEADER_SIZE = 32;
+
+    private static final int PAN_LENGTH = 10;
+    private static final int AADHAAR_LENGTH = 12;
+
+    // fixed offsets inside one record, strings are stored as int indexes into the pool (-1 = null)
+    private static final int ID_OFFSET = 0;
+    private static final int SALARY_OFFSET = 4;
+    private static final int AGE_OFFSET = 12;
+    private static final int DOB_OFFSET = 16; // EpochDays
+    private static final int DOJ_OFFSET = 20;
+    private static final int PAN_OFFSET = 24;
+    private static final int AADHAAR_OFFSET = PAN_OFFSET + PAN_LENGTH;
+    private static final int STRINGS_OFFSET = AADHAAR_OFFSET + AADHAAR_LENGTH;
+    private static final int STRING_FIELDS = 6;
+    private static final int RECORD_SIZE = STRINGS_OFFSET + STRING_FIELDS * 4;
+
+    // versions 1 and 2 kept DOB/DOJ as pooled strings: no date slots, 8 string refs
+    private static final int LEGACY_PAN_OFFSET = 16;
+    private static final int LEGACY_AADHAAR_OFFSET = LEGACY_PAN_OFFSET + PAN_LENGTH;
+    private static final int LEGACY_STRINGS_OFFSET = LEGACY_AADHAAR_OFFSET + AADHAAR_LENGTH;
+    private static final int LEGACY_RECORD_SIZE = LEGACY_STRINGS_OFFSET + 8 * 4;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final Path file;
+
+    // last journal record already contained in the snapshot, journal replay starts after it
+    private long journalSequence;
+
+    public EmployeeSnapshotStore(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public boolean exists() {
+        return Files.exists(file);
+    }
+
+    // writes to a temp file first and then renames it, so a crash never leaves a half-written snapshot
+    public void save(EmployeManager manager) throws IOException {
+        List<Employee> employees = manager.getAllEmployees();
+        long sequence = manager.getJournal() == null ? 0 : manager.getJournal().getLastSequence();
+
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int[] refs = new int[employees.size() * STRING_FIELDS];
+        int r = 0;
+        for (Employee emp : employees) {
+            for (String value : stringFields(emp)) {
+                refs[r++] = intern(value, stringIds, strings);
+            }
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+            // strings go first so the records offset is known once the pool is written
+            channel.position(HEADER_SIZE);
+            for (String value : strings) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                ensureRoom(channel, buffer, 4);
+                buffer.putInt(bytes.length);
+                for (int i = 0; i < bytes.length; i += WRITE_BUFFER_SIZE) {
+                    int chunk = Math.min(WRITE_BUFFER_SIZE, bytes.length - i);
+                    ensureRoom(channel, buffer, chunk);
+                    buffer.put(bytes, i, chunk);
+                }
+            }
+            flush(channel, buffer);
+            long recordsOffset = channel.position();
+
+            r = 0;
+            for (Employee emp : employees) {
+                ensureRoom(channel, buffer, RECORD_SIZE);
+                buffer.putInt(emp.getEmployeeId());
+                buffer.putDouble(emp.getSalary());
+                buffer.putInt(emp.getAge());
+                buffer.putInt(emp.getDobEpochDay());
+                buffer.putInt(emp.getDojEpochDay());
+                putFixedAscii(buffer, emp.getPanCardNumber(), PAN_LENGTH, "PAN", emp);
+                putFixedAscii(buffer, emp.getAadharNumber(), AADHAAR_LENGTH, "Aadhaar", emp);
+                for (int i = 0; i < STRING_FIELDS; i++) {
+                    buffer.putInt(refs[r++]);
+                }
+            }
+            flush(channel, buffer);
+
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(employees.size()).putInt(strings.size())
+                    .putLong(recordsOffset).putLong(sequence).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journalSequence = sequence;
+    }
+
+    // maps the file and adds every stored employee to the manager, returns how many were loaded
+    public int load(EmployeManager manager) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + file);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (map.remaining() < V1_HEADER_SIZE || map.getInt(0) != MAGIC) {
+                throw new IOException("Not an employee snapshot: " + file);
+            }
+            int version = map.getInt(4);
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file);
+            }
+            boolean legacy = version < 3;
+            int recordSize = legacy ? LEGACY_RECORD_SIZE : RECORD_SIZE;
+            int headerSize = version == 1 ? V1_HEADER_SIZE : HEADER_SIZE;
+            journalSequence = version == 1 ? 0 : map.getLong(24);
+            int count = map.getInt(8);
+            int stringCount = map.getInt(12);
+            long recordsOffset = map.getLong(16);
+            if (count < 0 || stringCount < 0 || recordsOffset < headerSize
+                    || recordsOffset + (long) count * recordSize > map.capacity()) {
+                throw new IOException("Truncated snapshot: " + file);
+            }
+
+            // each distinct string is decoded once and shared by every employee that uses it
+            String[] strings = new String[stringCount];
+            int position = headerSize;
+            byte[] scratch = new byte[64];
+            for (int i = 0; i < stringCount; i++) {
+                if (position + 4L > recordsOffset) {
+                    throw new IOException("Corrupt string pool in snapshot: " + file);
+                }
+                int length = map.getInt(position);
+                position += 4;
+                if (length < 0 || position + (long) length > recordsOffset) {
+                    throw new IOException("Corrupt string pool in snapshot: " + file);
+                }
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                map.get(position, scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+                position += length;
+            }
+
+            // decoded first and handed over in one call, so the manager can build its indexes in bulk
+            Employee[] rows = new Employee[count];
+            byte[] fixed = new byte[Math.max(PAN_LENGTH, AADHAAR_LENGTH)];
+            for (int i = 0; i < count; i++) {
+                int base = (int) (recordsOffset + (long) i * recordSize);
+                rows[i] = legacy ? legacyRecord(map, base, strings, fixed) : new Employee(
+                        map.getInt(base + ID_OFFSET),
+                        string(strings, map.getInt(base + STRINGS_OFFSET)),
+                        map.getDouble(base + SALARY_OFFSET),
+                        map.getInt(base + AGE_OFFSET),
+                        string(strings, map.getInt(base + STRINGS_OFFSET + 4)),
+                        string(strings, map.getInt(base + STRINGS_OFFSET + 8)),
+                        string(strings, map.getInt(base + STRINGS_OFFSET + 12)),
+                        map.getInt(base + DOB_OFFSET),
+                        map.getInt(base + DOJ_OFFSET),
+                        string(strings, map.getInt(base + STRINGS_OFFSET + 16)),
+                        string(strings, map.getInt(base + STRINGS_OFFSET + 20)),
+                        getFixedAscii(map, base + PAN_OFFSET, PAN_LENGTH, fixed),
+                        getFixedAscii(map, base + AADHAAR_OFFSET, AADHAAR_LENGTH, fixed));
+            }
+            return manager.loadAll(rows);
+        }
+    }
+
+    // versions 1 and 2: DOB/DOJ are pooled strings between city and department
+    private static Employee legacyRecord(ByteBuffer map, int base, String[] strings, byte[] fixed)
+            throws IOException {
+        int ref = base + LEGACY_STRINGS_OFFSET;
+        return new Employee(
+                map.getInt(base + ID_OFFSET),
+                string(strings, map.getInt(ref)),
+                map.getDouble(base + SALARY_OFFSET),
+                map.getInt(base + AGE_OFFSET),
+                string(strings, map.getInt(ref + 4)),
+                string(strings, map.getInt(ref + 8)),
+                string(strings, map.getInt(ref + 12)),
+                string(strings, map.getInt(ref + 16)),
+                string(strings, map.getInt(ref + 20)),
+                string(strings, map.getInt(ref + 24)),
+                string(strings, map.getInt(ref + 28)),
+                getFixedAscii(map, base + LEGACY_PAN_OFFSET, PAN_LENGTH, fixed),
+                getFixedAscii(map, base + LEGACY_AADHAAR_OFFSET, AADHAAR_LENGTH, fixed));
+    }
+
+    // same order as the constructor arguments after salary/age
+    private static String[] stringFields(Employee emp) {
+        return new String[] {
+                emp.getName(), emp.getGender(), emp.getAddress(), emp.getCity(),
+                emp.getDepartmentName(), emp.getDesignation()
+        };
+    }
+
+    private static int intern(String value, Map<String, Integer> stringIds, List<String> strings) {
+        if (value == null) {
+            return -1;
+        }
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(value, id);
+            strings.add(value);
+        }
+        return id;
+    }
+
+    // nothing reaches the manager until every record decoded, so a bad ref leaves it untouched
+    private static String string(String[] strings, int ref) throws IOException {
+        if (ref >= strings.length || ref < -1) {
+            throw new IOException("Snapshot record points past the string pool");
+        }
+        return ref < 0 ? null : strings[ref];
+    }
+
+    // fixed-width ASCII slot, zero padded; an empty slot reads back as null
+    private static void putFixedAscii(ByteBuffer buffer, String value, int width, String field, Employee emp)
+            throws IOException {
+        int length = value == null ? 0 : value.length();
+        if (length > width) {
+            throw new IOException(field + " of employee " + emp.getEmployeeId() + " does not fit in " + width + " bytes");
+        }
+        for (int i = 0; i < width; i++) {
+            char c = i < length ? value.charAt(i) : 0;
+            if (c > 127) {
+                throw new IOException(field + " of employee " + emp.getEmployeeId() + " is not ASCII");
+            }
+            buffer.put((byte) c);
+        }
+    }
+
+    private static String getFixedAscii(ByteBuffer map, int offset, int width, byte[] scratch) {
+        int length = 0;
+        while (length < width && map.get(offset + length) != 0) {
+            scratch[length] = map.get(offset + length);
+            length++;
+        }
+        return length == 0 ? null : new String(scratch, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private static void ensureRoom(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,105 @@
+// Dates stored as plain ints: days since 1970-01-01 (the same numbering as LocalDate.toEpochDay()).
+// Parsing, formatting and age arithmetic work on primitives only, so nothing is allocated per row
+// except when a date is turned back into a String for display.
+public final class EpochDays {
+    // "no date" (e.g. a missing DOB); never a valid epoch day for the 1900-2100 range we accept
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private EpochDays() {
+    }
+
+    // "YYYY-MM-DD" with 1900 <= year <= 2100 and a real calendar day, otherwise NONE
+    public static int parse(CharSequence text) {
+        if (text == null || text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return NONE;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        if (year < 1900 || year > 2100 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return NONE;
+        }
+        return of(year, month, day);
+    }
+
+    // Howard Hinnant's days_from_civil
+    public static int of(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // the date packed as year * 10000 + month * 100 + day (civil_from_days)
+    public static int toPacked(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    // whole years from `from` to `to`, counting a year only once the anniversary is reached
+    // (so someone born on 29 Feb turns a year older on 1 Mar in non-leap years)
+    public static int yearsBetween(int from, int to) {
+        return Math.floorDiv(toPacked(to) - toPacked(from), 10000);
+    }
+
+    public static String format(int epochDay) {
+        if (epochDay == NONE) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder(10);
+        appendTo(text, epochDay);
+        return text.toString();
+    }
+
+    public static void appendTo(StringBuilder text, int epochDay) {
+        int packed = toPacked(epochDay);
+        int year = packed / 10000;
+        int month = packed / 100 % 100;
+        int day = packed % 100;
+        text.append((char) ('0' + year / 1000 % 10)).append((char) ('0' + year / 100 % 10))
+                .append((char) ('0' + year / 10 % 10)).append((char) ('0' + year % 10)).append('-')
+                .append((char) ('0' + month / 10)).append((char) ('0' + month % 10)).append('-')
+                .append((char) ('0' + day / 10)).append((char) ('0' + day % 10));
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // the digits in [start, end) as an int, or -1 if any of them isn't 0-9
+    private static int digits(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,108 @@
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Dictionary encoding for low-cardinality string fields (department, city, gender, ...):
+// every distinct value is stored once and referred to by a small int code. Codes are handed out
+// in first-seen order and never change, so an int code can stand in for the String.
+//
+// Each value also belongs to a case-folded group ("Sales", "SALES" and "sales" are three codes in
+// one group), which is what the manager matches on. Comparing group codes replaces
+// equalsIgnoreCase. Values are never removed; a roster only ever has a few hundred of them.
+//
+// Thread-safe: Employees are created on import threads and read by request threads.
+public class FieldDictionary {
+    public static final int NONE = -1;
+
+    // the shared dictionaries behind Employee's department, designation, city and gender
+    public static final FieldDictionary DEPARTMENTS = new FieldDictionary();
+    public static final FieldDictionary DESIGNATIONS = new FieldDictionary();
+    public static final FieldDictionary CITIES = new FieldDictionary();
+    public static final FieldDictionary GENDERS = new FieldDictionary();
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private final Map<String, Integer> groupsByKey = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private volatile int[] groups = new int[16];
+    private volatile int size;
+    private int groupCount; // only touched under the lock
+    private volatile int nullCode = NONE; // ConcurrentHashMap can't hold a null key
+
+    // the code for value, adding it if it's new (null is a value like any other)
+    public int encode(String value) {
+        int code = code(value);
+        return code != NONE ? code : add(value);
+    }
+
+    private synchronized int add(String value) {
+        int code = code(value);
+        if (code != NONE) {
+            return code;
+        }
+        int next = size;
+        String[] newValues = next < values.length ? values : Arrays.copyOf(values, next * 2);
+        int[] newGroups = next < groups.length ? groups : Arrays.copyOf(groups, next * 2);
+        newValues[next] = value;
+        Integer group = groupsByKey.get(foldCase(value));
+        if (group == null) {
+            group = groupCount++;
+            groupsByKey.put(foldCase(value), group);
+        }
+        newGroups[next] = group;
+        values = newValues;
+        groups = newGroups;
+        size = next + 1;
+        if (value == null) {
+            nullCode = next;
+        } else {
+            codes.put(value, next);
+        }
+        return next;
+    }
+
+    // the code for value, or NONE if it has never been encoded
+    public int code(String value) {
+        if (value == null) {
+            return nullCode;
+        }
+        Integer code = codes.get(value);
+        return code == null ? NONE : code;
+    }
+
+    public String decode(int code) {
+        return values[code];
+    }
+
+    // the case-folded group of a code
+    public int group(int code) {
+        return groups[code];
+    }
+
+    // the case-folded group value belongs to, or NONE if no spelling of it has been encoded
+    public int groupOf(String value) {
+        Integer group = groupsByKey.get(foldCase(value));
+        return group == null ? NONE : group;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // marks every code whose value equals `value` ignoring case, so a scan can test mask[code]
+    public boolean[] matchIgnoreCase(String value) {
+        int count = size;
+        int[] groupOfCode = groups;
+        boolean[] mask = new boolean[count];
+        int group = groupOf(value);
+        for (int i = 0; i < count && group != NONE; i++) {
+            mask[i] = groupOfCode[i] == group;
+        }
+        return mask;
+    }
+
+    // null and "" fold to the same key, like the manager's indexes always did
+    private static String foldCase(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,181 @@
+import java.util.Arrays;
+
+// Employee id -> employee, as an open-addressing hash table over two parallel arrays (linear
+// probing, backward-shift deletion, so no tombstones). Lookups take an int and never box or
+// allocate, and an entry costs one int plus one reference in the arrays (8-16 bytes, depending on
+// how full the table is) instead of HashMap's node + Integer + table slot (~55 bytes).
+//
+// A free slot has key 0, so probing only reads `keys` until it finds the id; id 0 itself lives in
+// zeroValue. Null values can't be stored. Not thread-safe; EmployeManager's callers
+// (ConcurrentEmployeManager) do the locking, except that get may race a writer: it then returns a
+// wrong answer, which the caller throws away (see ConcurrentEmployeManager.findById), but it never
+// throws or loops forever.
+class IntEmployeeMap {
+    private static final int FREE = 0;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private int[] keys;
+    private Employee[] values;
+    private Employee zeroValue;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    IntEmployeeMap() {
+        this(MIN_CAPACITY);
+    }
+
+    // room for `expected` entries before the first resize
+    IntEmployeeMap(int expected) {
+        allocate(capacityFor(expected));
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    Employee get(int key) {
+        if (key == FREE) {
+            return zeroValue;
+        }
+        // a resize swaps both arrays, so a racing read can see one new and one old
+        int[] keys = this.keys;
+        Employee[] values = this.values;
+        if (keys.length != values.length) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask), probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            int k = keys[i];
+            if (k == key) {
+                return values[i];
+            }
+            if (k == FREE) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    // returns the employee previously stored under key, or null
+    Employee put(int key, Employee value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null value for key " + key);
+        }
+        if (key == FREE) {
+            Employee previous = zeroValue;
+            zeroValue = value;
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+        int i = slot(key, mask);
+        for (; keys[i] != FREE; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                Employee previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        if (size >= resizeAt) {
+            if (values.length == MAX_CAPACITY) {
+                throw new IllegalStateException("IntEmployeeMap is full (" + size + " entries)");
+            }
+            allocate(values.length * 2);
+            for (i = slot(key, mask); keys[i] != FREE; i = (i + 1) & mask) {
+                // find the free slot in the bigger table
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        return null;
+    }
+
+    // returns the removed employee, or null if key wasn't there
+    Employee remove(int key) {
+        if (key == FREE) {
+            Employee removed = zeroValue;
+            zeroValue = null;
+            if (removed != null) {
+                size--;
+            }
+            return removed;
+        }
+        int i = slot(key, mask);
+        for (; keys[i] != FREE; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                Employee removed = values[i];
+                shiftBack(i);
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, null);
+        zeroValue = null;
+        size = 0;
+    }
+
+    // Empties slot `free` and pulls later entries of the same run back into the gap, so every
+    // entry stays reachable from its home slot without crossing a free slot.
+    private void shiftBack(int free) {
+        for (int j = (free + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+            // the entry at j may move to `free` if that doesn't put it before its home slot
+            if (((j - slot(keys[j], mask)) & mask) >= ((j - free) & mask)) {
+                keys[free] = keys[j];
+                values[free] = values[j];
+                free = j;
+            }
+        }
+        keys[free] = FREE;
+        values[free] = null;
+    }
+
+    private void allocate(int capacity) {
+        int[] oldKeys = keys;
+        Employee[] oldValues = values;
+        keys = new int[capacity];
+        values = new Employee[capacity];
+        mask = capacity - 1;
+        // 3/4 full at most, like HashMap, so probe runs stay short
+        resizeAt = capacity / 4 * 3;
+        if (oldKeys != null) {
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    int j = slot(oldKeys[i], mask);
+                    while (keys[j] != FREE) {
+                        j = (j + 1) & mask;
+                    }
+                    keys[j] = oldKeys[i];
+                    values[j] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    private static int capacityFor(int expected) {
+        long needed = Math.max(MIN_CAPACITY, (long) Math.ceil(expected / 0.75) + 1);
+        return (int) Math.min(MAX_CAPACITY, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    // ids are often consecutive, so spread them before masking (same mix as the lock stripes)
+    private static int slot(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
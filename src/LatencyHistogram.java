@@ -0,0 +1,118 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Latency histogram in nanoseconds (log-linear buckets, like HdrHistogram with 5 bits of precision).
+//
+// Values below 64 ns get a bucket each; above that every power of two is split into 32 buckets, so
+// a percentile comes back at most ~3% above the true value. About 1,900 fixed buckets cover
+// everything up to Long.MAX_VALUE, so recording is one array increment and never allocates.
+// Safe to record from many threads at once (counts are atomics); reads are a consistent-enough
+// view while recording goes on.
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;   // per power of two
+    private static final int LINEAR = 2 * SUB_BUCKETS;      // 0..63 are exact
+    private static final int BUCKETS = LINEAR + (63 - SUB_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        totalNanos.addAndGet(value);
+        long max;
+        while (value > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, value)) {
+            // retry
+        }
+    }
+
+    // adds everything `other` recorded into this one
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = other.counts.get(i);
+            if (n != 0) {
+                counts.addAndGet(i, n);
+            }
+        }
+        count.addAndGet(other.count.get());
+        totalNanos.addAndGet(other.totalNanos.get());
+        long max;
+        long otherMax = other.maxNanos.get();
+        while (otherMax > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, otherMax)) {
+            // retry
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public double getMeanNanos() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) totalNanos.get() / n;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    // the latency `percentile` (0-100) of recordings stay at or below; 0 when nothing was recorded
+    public long getPercentileNanos(double percentile) {
+        long n = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // >= SUB_BITS + 1
+        int shift = exponent - SUB_BITS;
+        int top = (int) (value >>> shift); // SUB_BUCKETS..2*SUB_BUCKETS-1
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    // the largest value that lands in the bucket
+    private static long highestValueOf(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR) / SUB_BUCKETS + 1;
+        long top = SUB_BUCKETS + (bucket - LINEAR) % SUB_BUCKETS;
+        long highest = ((top + 1) << shift) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+}
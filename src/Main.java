@@ -1,8 +1,29 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 
 public class Main {
     private static Scanner scanner = new Scanner(System.in);
     private static EmployeManager manager = new EmployeManager();
+    private static EmployeeSnapshotStore snapshotStore = new EmployeeSnapshotStore(Paths.get("employees.snapshot"));
+    private static EmployeeJournal journal;
+    // latencies of the manager's operations and of every menu option, see Show Performance Metrics
+    private static final MetricsRegistry metrics = new MetricsRegistry();
+
+    // listings show PAGE_SIZE rows per page; "all remaining" writes RENDER_BATCH rows per print
+    private static final int PAGE_SIZE = 50;
+    private static final int RENDER_BATCH = 1000;
 
 
     // it is like a mobile call customer care service it ask for input(parameters as per the requirements
@@ -115,7 +136,37 @@ public class Main {
                 updateSalaryByPercentageForAll();
             }
         },
-        EXIT(19, "Exit") {
+        IMPORT_CSV(19, "Import Employees from CSV") {
+            @Override
+            public void execute() {
+                importEmployeesFromCsv();
+            }
+        },
+        EXPORT(20, "Export Employees (CSV/JSON)") {
+            @Override
+            public void execute() {
+                exportEmployees();
+            }
+        },
+        PAYROLL_DASHBOARD(21, "Department Payroll Dashboard") {
+            @Override
+            public void execute() {
+                showPayrollDashboard();
+            }
+        },
+        SHOW_PERFORMANCE_METRICS(22, "Show Performance Metrics") {
+            @Override
+            public void execute() {
+                showPerformanceMetrics();
+            }
+        },
+        SALARY_RANKINGS(23, "Salary Rankings and Percentiles") {
+            @Override
+            public void execute() {
+                showSalaryRankings();
+            }
+        },
+        EXIT(24, "Exit") {
             @Override
             public void execute() {
                 /* Exit handled in processChoice */ }
@@ -151,7 +202,20 @@ public class Main {
     }
 
     public static void main(String[] args) {
+        if (args.length == 2 && args[0].equals("--batch")) {
+            runBatch(args[1]);
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("--serve")) {
+            serve(args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+            return;
+        }
         System.out.println("Welcome to Employee Management System");
+        // appraisals over large rosters use every core; small ones stay sequential
+        manager.setBulkUpdatePool(ForkJoinPool.commonPool());
+        loadSnapshot();
+        openJournal();
+        manager.setMetrics(metrics);
 
         try {
             while (true) {
@@ -165,11 +229,126 @@ public class Main {
         } catch (Exception e) {
             System.out.println("An unexpected error occurred: " + e.getMessage());
         } finally {
+            if (saveSnapshot()) {
+                checkpointJournal();
+            }
+            closeJournal();
             scanner.close();
             System.out.println("Thank you for using Employee Management System!");
         }
     }
 
+    // headless: runs a command script (a file, or "-" for stdin) with EmployeeCommandRunner, no
+    // prompts, then saves like a normal exit. Results and the summary go to stdout in big writes.
+    private static void runBatch(String script) {
+        manager.setBulkUpdatePool(ForkJoinPool.commonPool());
+        loadSnapshot();
+        openJournal();
+        manager.setMetrics(metrics);
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 1 << 16);
+        try (BufferedReader in = script.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+            EmployeeCommandRunner runner = new EmployeeCommandRunner(manager);
+            runner.writeSummary(runner.run(in, out), out);
+        } catch (IOException e) {
+            System.out.println("Batch failed: " + e.getMessage());
+        } finally {
+            if (saveSnapshot()) {
+                checkpointJournal();
+            }
+            closeJournal();
+        }
+    }
+
+    // the HTTP/JSON API (EmployeeHttpServer) on localhost until Enter is pressed, then saves like a
+    // normal exit; requests run concurrently, so the roster is a ConcurrentEmployeManager here
+    private static void serve(int port) {
+        manager = new ConcurrentEmployeManager();
+        manager.setBulkUpdatePool(ForkJoinPool.commonPool());
+        loadSnapshot();
+        openJournal();
+        manager.setMetrics(metrics);
+        try (EmployeeHttpServer server = new EmployeeHttpServer((ConcurrentEmployeManager) manager, port).start()) {
+            System.out.println("Serving http://localhost:" + server.getPort() + "/employees ("
+                    + (server.usesVirtualThreads() ? "virtual threads" : "thread pool") + "), press Enter to stop");
+            if (scanner.hasNextLine()) {
+                scanner.nextLine();
+            }
+        } catch (IOException e) {
+            System.out.println("Could not start the server: " + e.getMessage());
+        } finally {
+            if (saveSnapshot()) {
+                checkpointJournal();
+            }
+            closeJournal();
+        }
+    }
+
+    private static void loadSnapshot() {
+        if (!snapshotStore.exists()) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            int loaded = snapshotStore.load(manager);
+            System.out.printf("Loaded %d employees from %s in %d ms%n",
+                    loaded, snapshotStore.getFile(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            System.out.println("Could not load saved employees: " + e.getMessage());
+        }
+    }
+
+    // replays changes made after the last snapshot (e.g. before a crash), then journals new ones
+    private static void openJournal() {
+        try {
+            // group commit: a change is on disk before the menu reports it done
+            journal = new EmployeeJournal(Paths.get("employees.journal"));
+            int replayed = journal.replay(manager, snapshotStore.getJournalSequence());
+            if (replayed > 0) {
+                System.out.println("Recovered " + replayed + " unsaved change(s) from " + journal.getFile());
+            }
+            manager.setJournal(journal);
+        } catch (IOException e) {
+            System.out.println("Could not open journal, changes will only be saved on exit: " + e.getMessage());
+        }
+    }
+
+    private static boolean saveSnapshot() {
+        try {
+            snapshotStore.save(manager);
+            System.out.println("Saved " + manager.getEmployeeCount() + " employees to " + snapshotStore.getFile());
+            return true;
+        } catch (IOException e) {
+            System.out.println("Could not save employees: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // the snapshot now holds everything in the journal, so it can start over
+    private static void checkpointJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.checkpoint();
+        } catch (IOException e) {
+            System.out.println("Could not reset journal: " + e.getMessage());
+        }
+    }
+
+    private static void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Could not close journal: " + e.getMessage());
+        }
+    }
+
     private static void displayMenu() {
         System.out.println("\n===== Employee Management System =====");
         for (MenuOption option : MenuOption.values()) {
@@ -196,7 +375,14 @@ public class Main {
                 if (selectedOption == MenuOption.EXIT) {
                     return false;
                 }
-                selectedOption.execute();
+                // includes the time spent at the option's prompts; the manager's own metrics show
+                // what the operations themselves cost
+                long start = System.nanoTime();
+                try {
+                    selectedOption.execute();
+                } finally {
+                    metrics.record("menu." + selectedOption.name(), start);
+                }
                 // Pause before showing menu again
                 pauseBeforeMenu();
             } else {
@@ -364,6 +550,15 @@ public class Main {
         List<Employee> found = manager.searchByName(searchName);
         if (found.isEmpty()) {
             System.out.println("No employees found with name: " + searchName);
+            // partial names first, then names with a typo or two
+            List<Employee> similar = manager.searchByNameContaining(searchName, 20);
+            if (similar.isEmpty()) {
+                similar = manager.searchByNameFuzzy(searchName, 2, 20);
+            }
+            if (!similar.isEmpty()) {
+                System.out.println("Did you mean:");
+                similar.forEach(System.out::println);
+            }
         } else {
             System.out.println("Found " + found.size() + " employee(s):");
             found.forEach(System.out::println);
@@ -398,7 +593,7 @@ public class Main {
             String newName = getValidStringInput("Enter new name: ",
                     Validation::isValidName,
                     "Invalid name. Please use only letters and spaces (2-50 characters).");
-            emp.setName(newName);
+            manager.updateName(updateId, newName);
             System.out.println("Name updated successfully.");
         } else {
             System.out.println("Employee not found with ID: " + updateId);
@@ -414,7 +609,7 @@ public class Main {
             String newAddress = getValidStringInput("Enter new address: ",
                     addr -> Validation.isValidString(addr, 5, 100),
                     "Address must be between 5 and 100 characters.");
-            emp.setAddress(newAddress);
+            manager.updateAddress(updateId, newAddress);
             System.out.println("Address updated successfully.");
         } else {
             System.out.println("Employee not found with ID: " + updateId);
@@ -432,13 +627,13 @@ public class Main {
                     "Invalid date format. Please use YYYY-MM-DD format.");
             
             // Validate that employee would still be at least 18 at joining with new DOB
-            if (!Validation.isAgeAtLeast18AtJoining(newDob, emp.getDoj())) {
+            if (!Validation.isAgeAtLeast18AtJoining(EpochDays.parse(newDob), emp.getDojEpochDay())) {
                 System.out.println("Error: With the new DOB, employee would be under 18 at the time of joining.");
                 System.out.println("DOB: " + newDob + ", DOJ: " + emp.getDoj());
                 return;
             }
             
-            emp.setDob(newDob);
+            manager.updateDob(updateId, newDob);
             System.out.println("DOB updated successfully.");
         } else {
             System.out.println("Employee not found with ID: " + updateId);
@@ -512,27 +707,22 @@ public class Main {
     private static void updateSalaryForAll() {
         System.out.println("\n--- Update Salary for All Employees ---");
         
-        // Display all current employees and their salaries
-        List<Employee> allEmployees = manager.getAllEmployees();
-        if (allEmployees.isEmpty()) {
+        // Display current employees and their salaries, a page at a time
+        int total = manager.getEmployeeCount();
+        if (total == 0) {
             System.out.println("No employees found in the system.");
             return;
         }
 
         System.out.println("\nCurrent employees and their salaries:");
         System.out.println("=".repeat(70));
-        for (Employee emp : allEmployees) {
-            System.out.println("ID: " + emp.getEmployeeId() + 
-                             ", Name: " + emp.getName() + 
-                             ", Department: " + emp.getDepartmentName() + 
-                             ", Current Salary: Rs." + emp.getSalary());
-        }
+        browseEmployees(Main::renderCurrentSalary);
         System.out.println("=".repeat(70));
-        System.out.println("Total employees: " + allEmployees.size());
+        System.out.println("Total employees: " + total);
 
         double newSalary = getValidDoubleInput("Enter new salary for ALL employees: ");
 
-        System.out.print("Are you sure you want to update salary for all " + allEmployees.size() + " employees? (y/n): ");
+        System.out.print("Are you sure you want to update salary for all " + total + " employees? (y/n): ");
         String confirmation = scanner.nextLine().trim().toLowerCase();
         
         if (!confirmation.equals("y") && !confirmation.equals("yes")) {
@@ -574,8 +764,8 @@ public class Main {
         double oldSalary = emp.getSalary();
         double newSalary = oldSalary + (oldSalary * percentage / 100);
 
-        if (newSalary < 0) {
-            System.out.println("Error: The percentage decrease would result in a negative salary.");
+        if (!Validation.isValidNewSalary(newSalary)) {
+            System.out.println("Error: The percentage change would result in a negative or infinite salary.");
             return;
         }
 
@@ -650,23 +840,18 @@ public class Main {
     private static void updateSalaryByPercentageForAll() {
         System.out.println("\n--- Update Salary by Percentage (All Employees) ---");
         
-        // Display all current employees and their salaries
-        List<Employee> allEmployees = manager.getAllEmployees();
-        if (allEmployees.isEmpty()) {
+        // Display current employees and their salaries, a page at a time
+        int total = manager.getEmployeeCount();
+        if (total == 0) {
             System.out.println("No employees found in the system.");
             return;
         }
 
         System.out.println("\nCurrent employees and their salaries:");
         System.out.println("=".repeat(70));
-        for (Employee emp : allEmployees) {
-            System.out.println("ID: " + emp.getEmployeeId() + 
-                             ", Name: " + emp.getName() + 
-                             ", Department: " + emp.getDepartmentName() + 
-                             ", Current Salary: Rs." + emp.getSalary());
-        }
+        browseEmployees(Main::renderCurrentSalary);
         System.out.println("=".repeat(70));
-        System.out.println("Total employees: " + allEmployees.size());
+        System.out.println("Total employees: " + total);
 
         double percentage = getValidDoubleInput("Enter percentage increase/decrease for ALL employees: ");
         
@@ -676,13 +861,14 @@ public class Main {
         }
 
         System.out.println("Preview of salary changes:");
-        for (Employee emp : allEmployees) {
+        browseEmployees((out, emp) -> {
             double oldSalary = emp.getSalary();
             double newSalary = oldSalary + (oldSalary * percentage / 100);
-            System.out.println(emp.getName() + ": Rs." + oldSalary + " -> Rs." + String.format("%.2f", newSalary));
-        }
+            out.append(emp.getName()).append(": Rs.").append(oldSalary).append(" -> Rs.")
+                    .append(String.format("%.2f", newSalary)).append('\n');
+        });
 
-        System.out.print("Are you sure you want to apply " + (percentage >= 0 ? "+" : "") + percentage + "% to all " + allEmployees.size() + " employees? (y/n): ");
+        System.out.print("Are you sure you want to apply " + (percentage >= 0 ? "+" : "") + percentage + "% to all " + total + " employees? (y/n): ");
         String confirmation = scanner.nextLine().trim().toLowerCase();
         
         if (!confirmation.equals("y") && !confirmation.equals("yes")) {
@@ -699,6 +885,86 @@ public class Main {
         }
     }
 
+    private static void importEmployeesFromCsv() {
+        System.out.println("\n--- Import Employees from CSV ---");
+        System.out.println("Columns: id,name,salary,age,gender,address,city,dob,doj,department,designation,pan,aadhaar");
+        System.out.print("Enter CSV file path: ");
+        String file = scanner.nextLine().trim();
+
+        Path csv = Paths.get(file);
+        if (file.isEmpty() || !Files.isRegularFile(csv)) {
+            System.out.println("File not found: " + file);
+            return;
+        }
+        Path errorReport = Paths.get(file + ".errors.csv");
+
+        try {
+            EmployeeCsvImporter.ImportResult result = new EmployeeCsvImporter(manager).importFile(csv, errorReport);
+            System.out.println("Import finished: " + result);
+            if (result.getRejected() > 0) {
+                System.out.println("Rejected rows and the rule they failed were written to " + errorReport);
+            }
+        } catch (IOException e) {
+            System.out.println("Import failed: " + e.getMessage());
+        }
+    }
+
+    private static void exportEmployees() {
+        System.out.println("\n--- Export Employees ---");
+        System.out.print("Enter output file path: ");
+        String file = scanner.nextLine().trim();
+        if (file.isEmpty()) {
+            System.out.println("File path cannot be empty.");
+            return;
+        }
+
+        System.out.print("Format (csv/json) [csv]: ");
+        String formatInput = scanner.nextLine().trim().toLowerCase();
+        EmployeeExporter.Format format = formatInput.startsWith("j")
+                ? EmployeeExporter.Format.JSON_LINES : EmployeeExporter.Format.CSV;
+
+        EmployeeExporter exporter = new EmployeeExporter(manager);
+
+        System.out.print("Department filter (blank for all): ");
+        exporter.department(scanner.nextLine().trim());
+
+        System.out.print("Salary range as min-max (blank for all): ");
+        String range = scanner.nextLine().trim();
+        if (!range.isEmpty()) {
+            String[] bounds = range.split("-");
+            try {
+                exporter.salaryRange(Double.parseDouble(bounds[0].trim()), Double.parseDouble(bounds[1].trim()));
+            } catch (RuntimeException e) {
+                System.out.println("Invalid salary range. Use e.g. 30000-60000.");
+                return;
+            }
+        }
+
+        System.out.print("Columns, comma separated (blank for all): ");
+        String columnInput = scanner.nextLine().trim();
+        if (!columnInput.isEmpty()) {
+            List<EmployeeExporter.Column> columns = new ArrayList<>();
+            for (String name : columnInput.split(",")) {
+                EmployeeExporter.Column column = EmployeeExporter.Column.fromHeader(name);
+                if (column == null) {
+                    System.out.println("Unknown column: " + name.trim());
+                    return;
+                }
+                columns.add(column);
+            }
+            exporter.columns(columns);
+        }
+
+        try {
+            long start = System.nanoTime();
+            long written = exporter.export(Paths.get(file), format);
+            System.out.println("Exported " + written + " employees to " + file + " in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            System.out.println("Export failed: " + e.getMessage());
+        }
+    }
+
     private static void displayHighestSalaryEmployee() {
         System.out.println("\n--- Employee with Highest Salary ---");
         Employee highest = manager.getHighestSalaryEmployee();
@@ -721,36 +987,165 @@ public class Main {
 
     private static void showSystemStatistics() {
         System.out.println("\n===== System Statistics =====");
-        System.out.println("Total Employees: " + manager.getEmployeeCount());
+        // every figure comes from the same point in time, even if the roster changes meanwhile
+        try (RosterSnapshot snapshot = manager.snapshot()) {
+            System.out.println("Total Employees: " + snapshot.getEmployeeCount());
 
-        List<String> departments = manager.getAllDepartments();
-        System.out.println("Total Departments: " + departments.size());
+            List<String> departments = snapshot.getAllDepartments();
+            System.out.println("Total Departments: " + departments.size());
 
-        if (!departments.isEmpty()) {
-            System.out.println("Departments: " + String.join(", ", departments));
+            if (!departments.isEmpty()) {
+                System.out.println("Departments: " + String.join(", ", departments));
+            }
+
+            Employee highest = snapshot.getHighestSalaryEmployee();
+            Employee lowest = snapshot.getLowestSalaryEmployee();
+
+            if (highest != null) {
+                System.out.println("Highest Salary: Rs." + highest.getSalary() + " (" + highest.getName() + ")");
+            }
+            if (lowest != null) {
+                System.out.println("Lowest Salary: Rs." + lowest.getSalary() + " (" + lowest.getName() + ")");
+            }
+
+            DepartmentStats payroll = snapshot.getPayrollStats();
+            if (payroll.getHeadcount() > 0) {
+                System.out.printf("Average Salary: Rs.%.2f\n", payroll.getAverageSalary());
+                System.out.printf("P90 Salary: Rs.%.2f (approx.)\n", payroll.getP90Salary());
+            }
         }
+    }
 
-        Employee highest = manager.getHighestSalaryEmployee();
-        Employee lowest = manager.getLowestSalaryEmployee();
+    // per-department figures straight from the running department stats, no pass over the roster
+    private static void showPayrollDashboard() {
+        System.out.println("\n===== Department Payroll Dashboard =====");
+        List<DepartmentStats> departments = manager.getAllDepartmentStats();
+        if (departments.isEmpty()) {
+            System.out.println("No employees found in the system.");
+            return;
+        }
+        departments.sort(Comparator.comparing(DepartmentStats::getTotalSalary).reversed());
+
+        System.out.println("+" + "-".repeat(112) + "+");
+        System.out.printf("| %-20s | %-9s | %-15s | %-12s | %-12s | %-12s | %-12s |\n",
+                "Department", "Headcount", "Total Payroll", "Average", "Median", "P90", "Highest");
+        System.out.println("+" + "-".repeat(112) + "+");
+        for (DepartmentStats stats : departments) {
+            printPayrollRow(stats);
+        }
+        System.out.println("+" + "-".repeat(112) + "+");
+        printPayrollRow(DepartmentStats.combine("All departments", departments));
+        System.out.println("+" + "-".repeat(112) + "+");
+        System.out.println("Median and P90 are within 1% of the exact figures.");
+    }
 
-        if (highest != null) {
-            System.out.println("Highest Salary: Rs." + highest.getSalary() + " (" + highest.getName() + ")");
+    private static void printPayrollRow(DepartmentStats stats) {
+        System.out.printf("| %-20s | %9d | %15.2f | %12.2f | %12.2f | %12.2f | %12.2f |\n",
+                truncateString(stats.getDepartment(), 20), stats.getHeadcount(), stats.getTotalSalary(),
+                stats.getAverageSalary(), stats.getMedianSalary(), stats.getP90Salary(), stats.getMaxSalary());
+    }
+
+    // exact ranks from the manager's salary rank indexes, each a tree walk instead of a sort
+    private static void showSalaryRankings() {
+        System.out.println("\n===== Salary Rankings =====");
+        System.out.print("Department (blank for everyone): ");
+        String input = scanner.nextLine().trim();
+        String dept = input.isEmpty() ? null : input;
+        String scope = dept == null ? "everyone" : dept;
+
+        int headcount = manager.countEmployeesInSalaryRange(dept, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        if (headcount == 0) {
+            System.out.println("No employees found in " + scope + ".");
+            return;
         }
-        if (lowest != null) {
-            System.out.println("Lowest Salary: Rs." + lowest.getSalary() + " (" + lowest.getName() + ")");
+        System.out.println("Employees: " + headcount);
+        for (double percentile : new double[] { 50, 90, 95, 99 }) {
+            Employee emp = manager.getEmployeeAtSalaryPercentile(dept, percentile);
+            System.out.printf("%s Salary: Rs.%.2f (%s, ID %d)\n", percentile == 50 ? "Median" : "P" + (int) percentile,
+                    emp.getSalary(), emp.getName(), emp.getEmployeeId());
+        }
+
+        int k = getValidIntegerInput("How many top earners to show: ");
+        List<Employee> top = manager.getTopSalaryEmployees(dept, k);
+        StringBuilder out = new StringBuilder(top.size() * 96);
+        for (int i = 0; i < top.size(); i++) {
+            out.append(i + 1).append(". ");
+            renderCurrentSalary(out, top.get(i));
+        }
+        System.out.print(out);
+
+        System.out.print("Show everyone between two percentiles, e.g. 90-95 (blank to skip): ");
+        String band = scanner.nextLine().trim();
+        if (!band.isEmpty()) {
+            String[] bounds = band.split("-");
+            try {
+                double from = Double.parseDouble(bounds[0].trim());
+                double to = Double.parseDouble(bounds[bounds.length - 1].trim());
+                List<Employee> rows = manager.getEmployeesBetweenSalaryPercentiles(dept, from, to);
+                if (rows.isEmpty()) {
+                    System.out.println("Nobody in that range (percentiles go from 0 to 100).");
+                }
+                out.setLength(0);
+                rows.forEach(emp -> renderCurrentSalary(out, emp));
+                System.out.print(out);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid range: " + band);
+            }
+        }
+
+        System.out.print("Employee ID to rank (blank to skip): ");
+        String id = scanner.nextLine().trim();
+        if (!id.isEmpty()) {
+            try {
+                int empId = Integer.parseInt(id);
+                int rank = manager.getSalaryRank(empId);
+                if (rank == 0) {
+                    System.out.println("Employee " + empId + " not found.");
+                } else {
+                    System.out.println("Salary rank: " + rank + " of " + manager.getEmployeeCount()
+                            + ", " + manager.getDepartmentSalaryRank(empId) + " in "
+                            + manager.searchById(empId).getDepartmentName() + " (1 = best paid)");
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid ID: " + id);
+            }
+        }
+    }
+
+    private static void showPerformanceMetrics() {
+        System.out.println("\n===== Performance Metrics =====");
+        if (metrics.getHistograms().values().stream().allMatch(histogram -> histogram.getCount() == 0)) {
+            System.out.println("Nothing measured yet.");
+            return;
+        }
+        System.out.print(metrics.toText());
+        System.out.println("Latencies are within 3% of the exact figures. menu.* include the time spent at prompts.");
+
+        System.out.print("Save as JSON to (file name, blank to skip, 'reset' to start over): ");
+        String answer = scanner.nextLine().trim();
+        if (answer.equalsIgnoreCase("reset")) {
+            metrics.reset();
+            System.out.println("Metrics reset.");
+        } else if (!answer.isEmpty()) {
+            try {
+                Files.writeString(Paths.get(answer), metrics.toJson(), StandardCharsets.UTF_8);
+                System.out.println("Metrics saved to " + answer);
+            } catch (IOException e) {
+                System.out.println("Could not save metrics: " + e.getMessage());
+            }
         }
     }
 
     private static void listAllEmployees() {
         System.out.println("\n===== All Employees =====");
-        List<Employee> employees = manager.getAllEmployees();
+        int total = manager.getEmployeeCount();
         
-        if (employees.isEmpty()) {
+        if (total == 0) {
             System.out.println("No employees found in the system.");
             return;
         }
         
-        System.out.println("Total Employees: " + employees.size());
+        System.out.println("Total Employees: " + total);
         System.out.println();
         
         // Print table header
@@ -760,21 +1155,61 @@ public class Main {
         System.out.println("+" + "-".repeat(125) + "+");
         
         // Print employee data
-        for (Employee emp : employees) {
-            System.out.printf("| %-4d | %-20s | %-15s | %-20s | %-10.2f | %-6d | %-10s | %-12s |\n",
-                    emp.getEmployeeId(),
-                    truncateString(emp.getName(), 20),
-                    truncateString(emp.getDepartmentName(), 15),
-                    truncateString(emp.getDesignation(), 20),
-                    emp.getSalary(),
-                    emp.getAge(),
-                    emp.getGender(),
-                    emp.getDoj());
-        }
+        browseEmployees((out, emp) -> new Formatter(out).format(
+                "| %-4d | %-20s | %-15s | %-20s | %-10.2f | %-6d | %-10s | %-12s |\n",
+                emp.getEmployeeId(),
+                truncateString(emp.getName(), 20),
+                truncateString(emp.getDepartmentName(), 15),
+                truncateString(emp.getDesignation(), 20),
+                emp.getSalary(),
+                emp.getAge(),
+                emp.getGender(),
+                emp.getDoj()));
         
         System.out.println("+" + "-".repeat(125) + "+");
         System.out.println("\nNote: Use individual search options to view complete employee details.");
     }
+
+    private static void renderCurrentSalary(StringBuilder out, Employee emp) {
+        out.append("ID: ").append(emp.getEmployeeId())
+                .append(", Name: ").append(emp.getName())
+                .append(", Department: ").append(emp.getDepartmentName())
+                .append(", Current Salary: Rs.").append(emp.getSalary()).append('\n');
+    }
+
+    // Page through the roster in id order with a keyset cursor (EmployeManager.getEmployeesAfter),
+    // so the first page shows up without copying the roster. Each batch of rows is rendered into one
+    // buffer and written with a single print: System.out flushes on every println, which is what
+    // made long listings slow. Enter shows the next page, "a" prints the rest, "q" stops.
+    private static void browseEmployees(BiConsumer<StringBuilder, Employee> renderRow) {
+        Integer afterId = null;
+        boolean rest = false;
+        while (true) {
+            int batch = rest ? RENDER_BATCH : PAGE_SIZE;
+            List<Employee> page = manager.getEmployeesAfter(afterId, batch + 1); // one extra: is there more?
+            boolean more = page.size() > batch;
+            if (more) {
+                page = page.subList(0, batch);
+            }
+            StringBuilder out = new StringBuilder(page.size() * 128);
+            for (Employee emp : page) {
+                renderRow.accept(out, emp);
+            }
+            System.out.print(out);
+            if (!more) {
+                return;
+            }
+            afterId = page.get(page.size() - 1).getEmployeeId();
+            if (!rest) {
+                System.out.print("-- Enter: next page, a: all remaining, q: stop -- ");
+                String answer = scanner.hasNextLine() ? scanner.nextLine().trim().toLowerCase() : "q";
+                if (answer.equals("q")) {
+                    return;
+                }
+                rest = answer.equals("a");
+            }
+        }
+    }
     
     // Helper method to truncate strings for table display
     private static String truncateString(String str, int maxLength) {
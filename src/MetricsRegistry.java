@@ -0,0 +1,83 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Named operation counters with latency histograms (LatencyHistogram), for watching the search and
+// update paths in production without a profiler.
+//
+//   long start = System.nanoTime();
+//   ...
+//   metrics.record("searchById", start);
+//
+// Recording is a map lookup plus a histogram increment (tens of nanoseconds, no allocation once the
+// name has been seen) and is safe from any thread. EmployeManager.setMetrics and Main's menu
+// report into one; toText()/toJson() dump count, mean, p50, p90, p99, p99.9 and max per name.
+public class MetricsRegistry {
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private volatile long startedAt = System.currentTimeMillis();
+
+    // the time since startNanos (a System.nanoTime() reading) as one call of `name`
+    public void record(String name, long startNanos) {
+        histogram(name).record(System.nanoTime() - startNanos);
+    }
+
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram : histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    // by name
+    public Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    // forgets everything recorded so far (the names stay)
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+        startedAt = System.currentTimeMillis();
+    }
+
+    // a table in microseconds, names with no calls left out
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%-40s %10s %10s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "mean us", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us"));
+        getHistograms().forEach((name, histogram) -> {
+            if (histogram.getCount() > 0) {
+                text.append(String.format("%-40s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n", name,
+                        histogram.getCount(), histogram.getMeanNanos() / 1e3,
+                        histogram.getPercentileNanos(50) / 1e3, histogram.getPercentileNanos(90) / 1e3,
+                        histogram.getPercentileNanos(99) / 1e3, histogram.getPercentileNanos(99.9) / 1e3,
+                        histogram.getMaxNanos() / 1e3));
+            }
+        });
+        return text.toString();
+    }
+
+    // {"since":<epoch millis>,"operations":{"<name>":{"count":..,"meanNanos":..,"p50Nanos":..,...}}}
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"since\":").append(startedAt).append(",\"operations\":{");
+        boolean first = true;
+        for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            EmployeeExporter.appendJsonString(json, entry.getKey());
+            json.append(":{\"count\":").append(histogram.getCount())
+                    .append(",\"meanNanos\":").append(Math.round(histogram.getMeanNanos()))
+                    .append(",\"p50Nanos\":").append(histogram.getPercentileNanos(50))
+                    .append(",\"p90Nanos\":").append(histogram.getPercentileNanos(90))
+                    .append(",\"p99Nanos\":").append(histogram.getPercentileNanos(99))
+                    .append(",\"p999Nanos\":").append(histogram.getPercentileNanos(99.9))
+                    .append(",\"maxNanos\":").append(histogram.getMaxNanos())
+                    .append('}');
+        }
+        return json.append("}}").toString();
+    }
+}
@@ -0,0 +1,652 @@
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+// Index over the distinct (lower-cased) employee names for the HR desk's partial and misspelled
+// lookups. EmployeManager keeps it in step with add/delete/rename and turns the names it finds
+// into employees; the index itself only knows names.
+//
+// - prefix: names in sorted order, plus every later word start of every name ("smi" finds
+//   "john smith"), so a prefix query is a range scan that stops as soon as enough is found
+// - substring: the distinct words are indexed by their letter triples; a substring query looks up
+//   the words containing it and then the names with those words
+// - typo-tolerant: the same triples give the candidate words for a misspelled word, which are
+//   then checked with a bounded edit distance (a swap of two letters counts as one edit)
+//
+// Results come out ranked: best match first, then alphabetical. Queries hand the names to a
+// visitor that returns false once it has enough, so nothing past the limit is looked at.
+//
+// Not thread-safe; EmployeManager's callers (ConcurrentEmployeManager) do the locking.
+class NameIndex {
+    private static final char PAD = '\u0000';
+    private static final int MAX_EDITS = 3;
+
+    // distinct name -> how many employees have it
+    private final NavigableMap<String, Integer> names = new TreeMap<>();
+    // every word start after the first in every distinct name, ordered by the text from there on
+    private final NavigableSet<WordStart> laterWords = new TreeSet<>();
+    // distinct words; a word's id stays the same even while no name uses it (its triples stay
+    // indexed), so like FieldDictionary this only grows by the number of distinct words ever seen
+    private final Map<String, Word> words = new HashMap<>();
+    private final List<Word> wordsById = new ArrayList<>();
+    private int[] wordLengths = new int[16]; // by id, so the typo search can skip words cheaply
+    // letter triple -> the words containing it, as an open-addressing table (linear probing; a
+    // triple is never removed) so that looking up a triple doesn't box it; see postings()
+    private long[] tripleKeys = new long[1024];
+    private Postings[] triplePostings = new Postings[1024];
+    private int tripleCount;
+
+    private static final class Word {
+        final int id;
+        final String text;
+        int names; // distinct names containing it; 0 = unused
+        int leading; // names that start with it
+        int later; // names that have it after their first word
+
+        Word(int id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    // word ids that contain a triple, ascending (ids are handed out in first-seen order)
+    private static final class Postings {
+        int[] ids = new int[0];
+        int size;
+        int pending; // ids about to be added by postTriples
+    }
+
+    // name.substring(offset) without the copy; a probe sorts before every entry with the same text
+    private record WordStart(String name, int offset, boolean probe) implements Comparable<WordStart> {
+        static WordStart probe(String text) {
+            return new WordStart(text, 0, true);
+        }
+
+        boolean startsWith(String prefix) {
+            return name.startsWith(prefix, offset);
+        }
+
+        int length() {
+            return name.length() - offset;
+        }
+
+        @Override
+        public int compareTo(WordStart other) {
+            int n = Math.min(length(), other.length());
+            for (int i = 0; i < n; i++) {
+                char a = name.charAt(offset + i);
+                char b = other.name.charAt(other.offset + i);
+                if (a != b) {
+                    return a - b;
+                }
+            }
+            if (length() != other.length()) {
+                return length() - other.length();
+            }
+            if (probe != other.probe) {
+                return probe ? -1 : 1;
+            }
+            return name.compareTo(other.name);
+        }
+    }
+
+    // a name matching a fuzzy query, with its total number of edits
+    private record Scored(String name, int edits) {
+    }
+
+    // `name` is already lower-cased (EmployeManager.indexKey)
+    void add(String name) {
+        int known = wordsById.size();
+        insert(name);
+        postTriples(known);
+    }
+
+    // add for a whole batch (see EmployeManager.beginBatch): the triples of all the new words are
+    // posted in one pass at the end, each list growing once to its final size
+    void addAll(Collection<String> added) {
+        int known = wordsById.size();
+        for (String name : added) {
+            insert(name);
+        }
+        postTriples(known);
+    }
+
+    // everything but the triple postings of new words
+    private void insert(String name) {
+        if (names.merge(name, 1, Integer::sum) > 1) {
+            return;
+        }
+        countWords(name, 1);
+        forEachLaterWordStart(name, offset -> laterWords.add(new WordStart(name, offset, false)));
+    }
+
+    void remove(String name) {
+        Integer count = names.get(name);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            names.put(name, count - 1);
+            return;
+        }
+        names.remove(name);
+        countWords(name, -1);
+        forEachLaterWordStart(name, offset -> laterWords.remove(new WordStart(name, offset, false)));
+    }
+
+    // a word repeated in a name counts once; names hold a handful of words, so the repeats are
+    // found with indexOf rather than a set per name
+    private void countWords(String name, int delta) {
+        List<String> nameWords = wordsOf(name);
+        for (int i = 0; i < nameWords.size(); i++) {
+            String text = nameWords.get(i);
+            if (nameWords.indexOf(text) < i) {
+                continue;
+            }
+            Word word = words.computeIfAbsent(text, this::newWord);
+            word.names += delta;
+            if (i == 0) {
+                word.leading += delta;
+            }
+            if (nameWords.lastIndexOf(text) > 0) {
+                word.later += delta;
+            }
+        }
+    }
+
+    // Names where the whole name starts with prefix, then names where a later word does.
+    void prefix(String prefix, Predicate<String> visitor) {
+        prefix(prefix, new HashSet<>(), visitor);
+    }
+
+    private boolean prefix(String prefix, Set<String> seen, Predicate<String> visitor) {
+        for (String name : names.tailMap(prefix, true).keySet()) {
+            if (!name.startsWith(prefix)) {
+                break;
+            }
+            if (seen.add(name) && !visitor.test(name)) {
+                return false;
+            }
+        }
+        for (WordStart start : laterWords.tailSet(WordStart.probe(prefix), true)) {
+            if (!start.startsWith(prefix)) {
+                break;
+            }
+            if (seen.add(start.name()) && !visitor.test(start.name())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Names containing text: the prefix matches first, then matches inside a word. Text shorter
+    // than three letters only matches at the start of a word; anywhere else it would match most of
+    // the roster and rank nothing.
+    void substring(String text, Predicate<String> visitor) {
+        Set<String> seen = new HashSet<>();
+        if (text.isEmpty() || !prefix(text, seen, visitor)) {
+            return;
+        }
+        // the text up to its first space is the end of some word (or all of the text is inside one)
+        int space = text.indexOf(' ');
+        String piece = space < 0 ? text : text.substring(0, space);
+        if (piece.length() < 3) {
+            return;
+        }
+        List<Word> matching = new ArrayList<>();
+        for (int id : rarestTriple(piece)) {
+            Word word = wordsById.get(id);
+            if (word.names > 0 && word.text.indexOf(piece, 1) >= 0 && (space < 0 || word.text.endsWith(piece))) {
+                matching.add(word);
+            }
+        }
+        matching.sort(Comparator.comparing(word -> word.text));
+        for (Word word : matching) {
+            boolean more = forEachNameWithWord(word, name -> (space >= 0 && !name.contains(text))
+                    || !seen.add(name) || visitor.test(name));
+            if (!more) {
+                return;
+            }
+        }
+    }
+
+    // Names whose words match every word of `query` within maxEdits edits each (letters inserted,
+    // deleted, replaced or two neighbours swapped), fewest edits in total first. Like most search
+    // engines, short words allow fewer typos (see allowedEdits): two letters away from a 4-letter
+    // word is a different word.
+    void fuzzy(String query, int maxEdits, Predicate<String> visitor) {
+        int edits = Math.min(maxEdits, MAX_EDITS);
+        List<String> queryWords = wordsOf(query);
+        if (edits < 0 || queryWords.isEmpty()) {
+            return;
+        }
+        // the close words for every query word, and how many names those cover
+        List<Map<Word, Integer>> close = new ArrayList<>();
+        int driver = 0;
+        long fewest = Long.MAX_VALUE;
+        for (int i = 0; i < queryWords.size(); i++) {
+            Map<Word, Integer> found = closeWords(queryWords.get(i), allowedEdits(queryWords.get(i), edits));
+            if (found.isEmpty()) {
+                return;
+            }
+            long covered = 0;
+            for (Word word : found.keySet()) {
+                covered += word.names;
+            }
+            if (covered < fewest) {
+                fewest = covered;
+                driver = i;
+            }
+            close.add(found);
+        }
+
+        if (queryWords.size() == 1) {
+            // rank by the word's edits, then word, then name: no need to collect anything
+            List<Map.Entry<Word, Integer>> ranked = new ArrayList<>(close.get(0).entrySet());
+            ranked.sort(Comparator.comparingInt((Map.Entry<Word, Integer> e) -> e.getValue())
+                    .thenComparing(e -> e.getKey().text));
+            Set<String> seen = new HashSet<>();
+            for (Map.Entry<Word, Integer> entry : ranked) {
+                if (!forEachNameWithWord(entry.getKey(), name -> !seen.add(name) || visitor.test(name))) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        // several words: start from the query word with the fewest candidate names and score each
+        // candidate against the other query words
+        Map<String, Scored> scored = new HashMap<>();
+        for (Word word : close.get(driver).keySet()) {
+            forEachNameWithWord(word, name -> {
+                if (!scored.containsKey(name)) {
+                    int total = score(name, queryWords, edits);
+                    scored.put(name, total < 0 ? null : new Scored(name, total));
+                }
+                return true;
+            });
+        }
+        List<Scored> ranked = new ArrayList<>();
+        for (Scored match : scored.values()) {
+            if (match != null) {
+                ranked.add(match);
+            }
+        }
+        ranked.sort(Comparator.comparingInt(Scored::edits).thenComparing(Scored::name));
+        for (Scored match : ranked) {
+            if (!visitor.test(match.name())) {
+                return;
+            }
+        }
+    }
+
+    // total edits of the best word of `name` for every query word, or -1 if one has no match
+    private static int score(String name, List<String> queryWords, int maxEdits) {
+        List<String> nameWords = wordsOf(name);
+        int total = 0;
+        for (String queryWord : queryWords) {
+            int best = -1;
+            for (String nameWord : nameWords) {
+                int edits = editDistance(queryWord, nameWord, allowedEdits(queryWord, maxEdits));
+                if (edits >= 0 && (best < 0 || edits < best)) {
+                    best = edits;
+                }
+            }
+            if (best < 0) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    // 0 for words of 1-2 letters, 1 for 3-6 letters, 2 for 7-10, ...: about one typo per four
+    // letters, which also keeps the triple counts in sharingTriples selective
+    static int allowedEdits(String word, int maxEdits) {
+        return Math.min(maxEdits, (word.length() + 1) / 4);
+    }
+
+    // the words within maxEdits of `word`, with their edit counts
+    private Map<Word, Integer> closeWords(String word, int maxEdits) {
+        Set<Word> candidates = new HashSet<>();
+        gatherCandidates(word, maxEdits, candidates);
+        Map<Word, Integer> close = new HashMap<>();
+        for (Word candidate : candidates) {
+            int edits = candidate.names == 0 ? -1 : editDistance(word, candidate.text, maxEdits);
+            if (edits >= 0) {
+                close.put(candidate, edits);
+            }
+        }
+        return close;
+    }
+
+    // Every word within maxEdits of `word` (and some that aren't; closeWords checks them). A
+    // letter inserted, deleted or replaced changes at most three of the padded triples, so those
+    // words share at least (length + 2 - 3 * edits) triples with it. A swap of two neighbours can
+    // change four, so words with a swap are looked for from each swapped spelling instead.
+    private void gatherCandidates(String word, int maxEdits, Set<Word> candidates) {
+        Word exact = words.get(word);
+        if (exact != null) {
+            candidates.add(exact);
+        }
+        if (maxEdits == 0) {
+            return;
+        }
+        sharingTriples(word, word.length() + 2 - 3 * maxEdits, maxEdits, candidates);
+        for (int i = 0; i + 1 < word.length(); i++) {
+            if (word.charAt(i) != word.charAt(i + 1)) {
+                char[] swapped = word.toCharArray();
+                swapped[i] = word.charAt(i + 1);
+                swapped[i + 1] = word.charAt(i);
+                gatherCandidates(new String(swapped), maxEdits - 1, candidates);
+            }
+        }
+    }
+
+    // the words of about word's length that contain at least `needed` of its padded triples
+    private void sharingTriples(String word, int needed, int maxEdits, Set<Word> candidates) {
+        List<Postings> lists = new ArrayList<>();
+        for (long triple : padded(word)) {
+            Postings list = postings(triple, false);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        // a match is missing from at most (lists - needed) lists, so it is in one of the rarest
+        // (lists - needed + 1); the other lists are only probed for those candidates
+        int scan = lists.size() - needed + 1;
+        if (needed <= 0 || scan <= 0) {
+            return;
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        // walk the scanned lists side by side (each is ascending), one candidate id at a time
+        int[] next = new int[lists.size()];
+        while (true) {
+            int id = Integer.MAX_VALUE;
+            for (int l = 0; l < scan; l++) {
+                Postings list = lists.get(l);
+                if (next[l] < list.size && list.ids[next[l]] < id) {
+                    id = list.ids[next[l]];
+                }
+            }
+            if (id == Integer.MAX_VALUE) {
+                break;
+            }
+            int hits = 0;
+            for (int l = 0; l < scan; l++) {
+                Postings list = lists.get(l);
+                if (next[l] < list.size && list.ids[next[l]] == id) {
+                    hits++;
+                    next[l]++;
+                }
+            }
+            // candidates come in ascending order, so the probes into the other lists only move forward
+            for (int l = scan; l < lists.size() && hits < needed; l++) {
+                if (hits + lists.size() - l < needed) {
+                    break; // can't get there even if it's in every list left
+                }
+                Postings list = lists.get(l);
+                next[l] = seek(list, next[l], id);
+                if (next[l] < list.size && list.ids[next[l]] == id) {
+                    hits++;
+                }
+            }
+            if (hits < needed || Math.abs(wordLengths[id] - word.length()) > maxEdits) {
+                continue;
+            }
+            candidates.add(wordsById.get(id));
+        }
+    }
+
+    // the first position at or after `from` whose id is >= id (galloping, then binary search)
+    private static int seek(Postings list, int from, int id) {
+        int step = 1;
+        int high = from;
+        while (high < list.size && list.ids[high] < id) {
+            from = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int low = from;
+        high = Math.min(high, list.size);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (list.ids[mid] < id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // the words containing piece (three letters or more) are all in its rarest triple's list
+    private int[] rarestTriple(String piece) {
+        Postings rarest = null;
+        for (int i = 0; i + 3 <= piece.length(); i++) {
+            Postings list = postings(triple(piece.charAt(i), piece.charAt(i + 1), piece.charAt(i + 2)), false);
+            if (list == null) {
+                return new int[0];
+            }
+            if (rarest == null || list.size < rarest.size) {
+                rarest = list;
+            }
+        }
+        return Arrays.copyOf(rarest.ids, rarest.size);
+    }
+
+    // names containing `word` as a whole word, alphabetical per kind (first word, later word)
+    private boolean forEachNameWithWord(Word word, Predicate<String> visitor) {
+        return (word.leading == 0 || forEachNameStartingWith(word.text, visitor))
+                && (word.later == 0 || forEachNameWithLaterWord(word.text, visitor));
+    }
+
+    private boolean forEachNameStartingWith(String word, Predicate<String> visitor) {
+        String followed = word + " ";
+        for (String name : names.tailMap(word, true).keySet()) {
+            if (!name.equals(word) && !name.startsWith(followed)) {
+                break;
+            }
+            if (!visitor.test(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean forEachNameWithLaterWord(String word, Predicate<String> visitor) {
+        String followed = word + " ";
+        for (WordStart start : laterWords.tailSet(WordStart.probe(word), true)) {
+            boolean whole = start.length() == word.length() && start.startsWith(word);
+            if (!whole && !start.startsWith(followed)) {
+                break;
+            }
+            if (!visitor.test(start.name())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Word newWord(String text) {
+        Word word = new Word(wordsById.size(), text);
+        wordsById.add(word);
+        if (word.id == wordLengths.length) {
+            wordLengths = Arrays.copyOf(wordLengths, word.id * 2);
+        }
+        wordLengths[word.id] = text.length();
+        return word;
+    }
+
+    // Posts the triples of the words with ids from `from` on. A list is looked up once per word
+    // with its triple, counted, grown once (to the exact size when it starts empty) and then
+    // filled; ids stay ascending because words are posted in id order.
+    private void postTriples(int from) {
+        List<Postings> lists = new ArrayList<>();
+        int[] listsPerWord = new int[wordsById.size() - from];
+        for (int id = from; id < wordsById.size(); id++) {
+            long[] triples = padded(wordsById.get(id).text);
+            for (int i = 0; i < triples.length; i++) {
+                if (!repeated(triples, i)) {
+                    Postings list = postings(triples[i], true);
+                    list.pending++;
+                    lists.add(list);
+                    listsPerWord[id - from]++;
+                }
+            }
+        }
+        for (Postings list : lists) {
+            if (list.pending > 0) {
+                if (list.size + list.pending > list.ids.length) {
+                    list.ids = Arrays.copyOf(list.ids, Math.max(list.size + list.pending, list.ids.length * 2));
+                }
+                list.pending = 0;
+            }
+        }
+        int next = 0;
+        for (int id = from; id < wordsById.size(); id++) {
+            for (int k = 0; k < listsPerWord[id - from]; k++) {
+                Postings list = lists.get(next++);
+                list.ids[list.size++] = id;
+            }
+        }
+    }
+
+    // the list of a triple; a missing one is created when `create` is set, otherwise null
+    private Postings postings(long triple, boolean create) {
+        int mask = tripleKeys.length - 1;
+        int slot = Long.hashCode(triple) & mask;
+        while (triplePostings[slot] != null) {
+            if (tripleKeys[slot] == triple) {
+                return triplePostings[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!create) {
+            return null;
+        }
+        Postings list = new Postings();
+        tripleKeys[slot] = triple;
+        triplePostings[slot] = list;
+        if (++tripleCount * 2 > tripleKeys.length) {
+            growTriples();
+        }
+        return list;
+    }
+
+    private void growTriples() {
+        long[] oldKeys = tripleKeys;
+        Postings[] oldPostings = triplePostings;
+        tripleKeys = new long[oldKeys.length * 2];
+        triplePostings = new Postings[oldPostings.length * 2];
+        int mask = tripleKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldPostings[i] != null) {
+                int slot = Long.hashCode(oldKeys[i]) & mask;
+                while (triplePostings[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                tripleKeys[slot] = oldKeys[i];
+                triplePostings[slot] = oldPostings[i];
+            }
+        }
+    }
+
+    // "lalal" has "lal" twice, but a word is posted once per list
+    private static boolean repeated(long[] triples, int i) {
+        for (int j = 0; j < i; j++) {
+            if (triples[j] == triples[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "ravi" -> __r, _ra, rav, avi, vi_, i__ (length + 2 triples)
+    private static long[] padded(String word) {
+        long[] triples = new long[word.length() + 2];
+        for (int i = 0; i < triples.length; i++) {
+            triples[i] = triple(padded(word, i - 2), padded(word, i - 1), padded(word, i));
+        }
+        return triples;
+    }
+
+    // word's char at i, or PAD past either end (no padded copy of the word, which the \u0000
+    // would also turn into a UTF-16 string)
+    private static char padded(String word, int i) {
+        return i < 0 || i >= word.length() ? PAD : word.charAt(i);
+    }
+
+    // the three chars packed into 48 bits, then scrambled (multiplying by an odd constant loses
+    // nothing): Long.hashCode xors the two halves, which collides a lot for the plain packing
+    private static long triple(char a, char b, char c) {
+        return (((long) a << 32) | ((long) b << 16) | c) * 0x9E3779B97F4A7C15L;
+    }
+
+    // the words of a name, split on spaces (without the regex String.split would compile)
+    private static List<String> wordsOf(String name) {
+        List<String> result = new ArrayList<>(3);
+        int start = -1;
+        for (int i = 0; i <= name.length(); i++) {
+            boolean space = i == name.length() || name.charAt(i) == ' ';
+            if (space && start >= 0) {
+                result.add(name.substring(start, i));
+                start = -1;
+            } else if (!space && start < 0) {
+                start = i;
+            }
+        }
+        return result;
+    }
+
+    private static void forEachLaterWordStart(String name, IntConsumer action) {
+        boolean afterFirstWord = false;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != ' ') {
+                if (afterFirstWord && name.charAt(i - 1) == ' ') {
+                    action.accept(i);
+                }
+                afterFirstWord = true;
+            }
+        }
+    }
+
+    // Edit distance between a and b counting an adjacent swap as one edit, or -1 if it's more than
+    // max. Only the band of width 2 * max + 1 around the diagonal is filled in.
+    static int editDistance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return -1;
+        }
+        int big = max + 1;
+        int[] before = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = Math.min(j, big);
+        }
+        for (int i = 1; i <= n; i++) {
+            Arrays.fill(current, big);
+            current[0] = Math.min(i, big);
+            int rowBest = current[0];
+            for (int j = Math.max(1, i - max); j <= Math.min(m, i + max); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, before[j - 2] + 1);
+                }
+                current[j] = Math.min(d, big);
+                rowBest = Math.min(rowBest, current[j]);
+            }
+            if (rowBest > max) {
+                return -1;
+            }
+            int[] recycled = before;
+            before = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[m] <= max ? previous[m] : -1;
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.*;
+import java.util.function.Consumer;
+
+// A point-in-time, read-only view of an EmployeManager (see EmployeManager.snapshot()).
+//
+// Taking one bumps the manager's snapshot version and copies the department figures, O(departments);
+// the rows stay in the manager. Writers keep going afterwards: a row changed later first saves its
+// old state for the open snapshots (Employee.beforeChange), a row added later is stamped with a
+// newer version and skipped, and a row deleted later leaves a frozen copy behind. So every read here
+// returns the row as it was when the snapshot was taken. Rows are handed out as detached copies;
+// changing them changes nothing.
+//
+// Reading the rows walks the live roster, ROW_CHUNK rows per call into the manager, so a full pass
+// costs O(N) like before, but only for the reports that make it. ConcurrentEmployeManager takes the
+// roster read lock for each chunk, not for the whole pass, so writers only wait for one chunk; a
+// plain EmployeManager must not change while the snapshot is read.
+//
+// The department figures (DepartmentStats) and the highest/lowest paid employees are captured
+// when the snapshot is taken, so dashboards read them in O(departments) instead of a full pass.
+//
+// Close it (try-with-resources) when the report is done. Old row states are dropped as soon as
+// no open snapshot can see them.
+public class RosterSnapshot implements AutoCloseable {
+    private static final int ROW_CHUNK = 1024;
+
+    private final EmployeManager manager;
+    private final long version;
+    private final int employeeCount;
+    private final NavigableMap<Integer, DepartmentStats> departmentStats; // by department group
+    private final Employee highest;
+    private final Employee lowest;
+    private volatile boolean closed;
+
+    RosterSnapshot(EmployeManager manager, long version, int employeeCount,
+                   NavigableMap<Integer, DepartmentStats> departmentStats, Employee highest, Employee lowest) {
+        this.manager = manager;
+        this.version = version;
+        this.employeeCount = employeeCount;
+        this.departmentStats = departmentStats;
+        this.highest = highest;
+        this.lowest = lowest;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getEmployeeCount() {
+        return employeeCount;
+    }
+
+    public Employee searchById(int empId) {
+        checkOpen();
+        return manager.snapshotRow(version, empId);
+    }
+
+    // every employee in id order
+    public void forEachEmployee(Consumer<Employee> action) {
+        checkOpen();
+        Integer after = null;
+        while (true) {
+            List<Employee> chunk = manager.snapshotRows(version, after, ROW_CHUNK);
+            for (Employee emp : chunk) {
+                action.accept(emp);
+            }
+            if (chunk.size() < ROW_CHUNK) {
+                return;
+            }
+            after = chunk.get(chunk.size() - 1).getEmployeeId();
+        }
+    }
+
+    public void forEachInDepartment(String dept, Consumer<Employee> action) {
+        int group = dept == null ? FieldDictionary.NONE : FieldDictionary.DEPARTMENTS.groupOf(dept);
+        if (group == FieldDictionary.NONE) {
+            return;
+        }
+        forEachEmployee(emp -> {
+            if (FieldDictionary.DEPARTMENTS.group(emp.getDepartmentCode()) == group) {
+                action.accept(emp);
+            }
+        });
+    }
+
+    public void forEachInSalaryRange(double minSalary, double maxSalary, Consumer<Employee> action) {
+        forEachEmployee(emp -> {
+            if (emp.getSalary() >= minSalary && emp.getSalary() <= maxSalary) {
+                action.accept(emp);
+            }
+        });
+    }
+
+    public List<Employee> getAllEmployees() {
+        List<Employee> all = new ArrayList<>(employeeCount);
+        forEachEmployee(all::add);
+        return all;
+    }
+
+    // keyset paging, as EmployeManager.getEmployeesAfter
+    public List<Employee> getEmployeesAfter(Integer afterId, int pageSize) {
+        checkOpen();
+        return manager.snapshotRows(version, afterId, Math.max(0, pageSize));
+    }
+
+    public List<Employee> searchByDepartment(String dept) {
+        List<Employee> matches = new ArrayList<>();
+        forEachInDepartment(dept, matches::add);
+        return matches;
+    }
+
+    // lowest id among equal salaries, like EmployeManager
+    public Employee getHighestSalaryEmployee() {
+        checkOpen();
+        return highest == null ? null : highest.rowAt(version);
+    }
+
+    public Employee getLowestSalaryEmployee() {
+        checkOpen();
+        return lowest == null ? null : lowest.rowAt(version);
+    }
+
+    public List<String> getAllDepartments() {
+        List<String> departments = new ArrayList<>(departmentStats.size());
+        for (DepartmentStats stats : departmentStats.values()) {
+            departments.add(stats.getDepartment());
+        }
+        return departments;
+    }
+
+    public int getDepartmentCount() {
+        return departmentStats.size();
+    }
+
+    // null if nobody worked in dept
+    public DepartmentStats getDepartmentStats(String dept) {
+        int group = dept == null ? FieldDictionary.NONE : FieldDictionary.DEPARTMENTS.groupOf(dept);
+        return departmentStats.get(group);
+    }
+
+    public List<DepartmentStats> getAllDepartmentStats() {
+        return new ArrayList<>(departmentStats.values());
+    }
+
+    public DepartmentStats getPayrollStats() {
+        return DepartmentStats.combine("All departments", departmentStats.values());
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            manager.releaseSnapshot(version);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Snapshot " + version + " is closed");
+        }
+    }
+}
@@ -0,0 +1,377 @@
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Employees in (salary, id) order, as an AVL tree where every node also knows the size of its
+// subtree (an order-statistics tree). On top of the ordered walks a TreeMap gives, that answers in
+// O(log N):
+//   rank(salary, id)         how many rows sort before that key
+//   select(k)                the k-th row in salary order
+//   countBetween(min, max)   how many salaries fall in a range
+// and a walk can start at any position, so "the 90th to 95th percentile" or "the top 100" costs
+// O(log N) plus the rows returned.
+//
+// EmployeManager keeps one over everyone and one per department and moves a row whenever its
+// salary changes. A node keeps the salary it was indexed under, so a row can still be found after
+// Employee.setSalary has changed it (remove/move take the old salary).
+//
+// Not thread-safe; EmployeManager's callers (ConcurrentEmployeManager) do the locking.
+class SalaryRankIndex {
+    private static final class Node {
+        final double salary;
+        final int id;
+        final Employee emp;
+        Node left;
+        Node right;
+        int size = 1;
+        int height = 1;
+
+        Node(Employee emp) {
+            this.salary = emp.getSalary();
+            this.id = emp.getEmployeeId();
+            this.emp = emp;
+        }
+    }
+
+    private Node root;
+
+    int size() {
+        return size(root);
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    void add(Employee emp) {
+        root = insert(root, new Node(emp));
+    }
+
+    // removes the row indexed under (salary, id); false if there is none
+    boolean remove(double salary, int id) {
+        int before = size(root);
+        root = delete(root, salary, id);
+        return size(root) < before;
+    }
+
+    // re-files emp after its salary changed from oldSalary
+    void move(Employee emp, double oldSalary) {
+        remove(oldSalary, emp.getEmployeeId());
+        add(emp);
+    }
+
+    // replaces the contents with rows already sorted by (salary, id), in O(N)
+    void build(Employee[] sorted) {
+        root = build(sorted, 0, sorted.length);
+    }
+
+    // the k-th row (0 = lowest salary), or null if k is out of range
+    Employee select(int k) {
+        if (k < 0 || k >= size(root)) {
+            return null;
+        }
+        Node node = root;
+        while (true) {
+            int left = size(node.left);
+            if (k < left) {
+                node = node.left;
+            } else if (k == left) {
+                return node.emp;
+            } else {
+                k -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    // the salaries the first and last rows are indexed under, NaN when empty
+    double lowestSalary() {
+        Node node = root;
+        while (node != null && node.left != null) {
+            node = node.left;
+        }
+        return node == null ? Double.NaN : node.salary;
+    }
+
+    double highestSalary() {
+        Node node = root;
+        while (node != null && node.right != null) {
+            node = node.right;
+        }
+        return node == null ? Double.NaN : node.salary;
+    }
+
+    // how many rows sort before (salary, id)
+    int rank(double salary, int id) {
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int c = compare(salary, id, node);
+            if (c < 0) {
+                node = node.left;
+            } else if (c == 0) {
+                return rank + size(node.left);
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    // rows with a salary below `salary`; the position of the first row earning at least that much
+    int countBelow(double salary) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (Double.compare(node.salary, salary) < 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    // rows with a salary of at most `salary`
+    int countAtMost(double salary) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (Double.compare(node.salary, salary) <= 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    int countBetween(double minSalary, double maxSalary) {
+        return minSalary <= maxSalary ? Math.max(0, countAtMost(maxSalary) - countBelow(minSalary)) : 0;
+    }
+
+    // the rows at positions from (inclusive) to to (exclusive), lowest salary first or, with
+    // descending, highest first; a live view like TreeMap's, so don't change the index while
+    // walking it
+    Collection<Employee> range(int from, int to, boolean descending) {
+        int start = Math.max(0, from);
+        int end = Math.min(to, size(root));
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Employee> iterator() {
+                return new Walk(start, end, descending);
+            }
+
+            @Override
+            public int size() {
+                return Math.max(0, end - start);
+            }
+        };
+    }
+
+    Collection<Employee> all(boolean descending) {
+        return range(0, size(root), descending);
+    }
+
+    // in-order walk from a position, with the path still to visit on a stack (no parent links)
+    private final class Walk implements Iterator<Employee> {
+        private final Node[] stack = new Node[height(root) + 1];
+        private final boolean descending;
+        private int depth;
+        private int remaining;
+
+        Walk(int from, int to, boolean descending) {
+            this.descending = descending;
+            this.remaining = Math.max(0, to - from);
+            if (remaining == 0) {
+                return;
+            }
+            // descend to the first row visited, stacking the nodes that come after it
+            int k = descending ? to - 1 : from;
+            Node node = root;
+            while (node != null) {
+                int left = size(node.left);
+                if (k == left) {
+                    stack[depth++] = node;
+                    break;
+                }
+                boolean goLeft = k < left;
+                if (goLeft != descending) {
+                    stack[depth++] = node;
+                }
+                if (goLeft) {
+                    node = node.left;
+                } else {
+                    k -= left + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public Employee next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            Node node = stack[--depth];
+            for (Node next = descending ? node.left : node.right; next != null;
+                 next = descending ? next.right : next.left) {
+                stack[depth++] = next;
+            }
+            return node.emp;
+        }
+    }
+
+    // ---- AVL maintenance ----
+
+    private static int compare(double salary, int id, Node node) {
+        int bySalary = Double.compare(salary, node.salary);
+        return bySalary != 0 ? bySalary : Integer.compare(id, node.id);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.salary, added.id, node) < 0) {
+            Node child = node.left;
+            int height = height(child);
+            int size = size(child);
+            node.left = insert(child, added);
+            return settle(node, node.left, height, size);
+        }
+        Node child = node.right;
+        int height = height(child);
+        int size = size(child);
+        node.right = insert(child, added);
+        return settle(node, node.right, height, size);
+    }
+
+    private static Node delete(Node node, double salary, int id) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(salary, id, node);
+        if (c < 0) {
+            Node child = node.left;
+            int height = height(child);
+            int size = size(child);
+            node.left = delete(child, salary, id);
+            return settle(node, node.left, height, size);
+        }
+        if (c > 0) {
+            Node child = node.right;
+            int height = height(child);
+            int size = size(child);
+            node.right = delete(child, salary, id);
+            return settle(node, node.right, height, size);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        successor.right = deleteFirst(node.right);
+        successor.left = node.left;
+        return balance(successor);
+    }
+
+    private static Node deleteFirst(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        Node child = node.left;
+        int height = height(child);
+        int size = size(child);
+        node.left = deleteFirst(child);
+        return settle(node, node.left, height, size);
+    }
+
+    // After one child subtree changed: if its height stayed the same, this node only needs its size
+    // adjusted (without reading the other child, which is usually a cache miss); otherwise it gets
+    // the full AVL update. Height changes stop after a level or two, so most of the path is cheap.
+    private static Node settle(Node node, Node child, int oldHeight, int oldSize) {
+        if (height(child) == oldHeight) {
+            node.size += size(child) - oldSize;
+            return node;
+        }
+        return balance(node);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    // a perfectly balanced tree over sorted[from, to)
+    private static Node build(Employee[] sorted, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        Node node = new Node(sorted[mid]);
+        node.left = build(sorted, from, mid);
+        node.right = build(sorted, mid + 1, to);
+        update(node);
+        return node;
+    }
+}
@@ -0,0 +1,181 @@
+import java.util.*;
+
+// A batch of salary changes that is applied all at once or not at all.
+//
+//   SalaryRevision revision = manager.beginSalaryRevision()
+//           .raiseDepartment("Sales", 8)
+//           .setSalary(1042, 95000)
+//           .raiseAll(-2);
+//   if (!revision.commit()) {
+//       revision.getErrors().forEach(System.out::println);
+//       revision.rollback();
+//   }
+//
+// Nothing touches the roster until commit(). The staged changes are then worked out in order
+// against the current salaries (a later change to the same employee builds on the earlier one),
+// and every resulting salary is checked first. If any employee is missing or any salary would
+// fail Validation.isValidSalary (below Rs.0, above Rs.10,000,000, NaN or Infinity), the roster is
+// left untouched and commit() returns false. Otherwise all the new salaries are written in one
+// step: one journal record, and (in ConcurrentEmployeManager) under one write lock, so readers see
+// the roster either before or after the revision.
+public class SalaryRevision {
+    enum Target {
+        EMPLOYEE, DEPARTMENT, ALL
+    }
+
+    record Change(Target target, int empId, String dept, boolean percentage, double value) {
+        double apply(double salary) {
+            return percentage ? salary + (salary * value / 100) : value;
+        }
+
+        String describe() {
+            String what = percentage ? String.format("%+.2f%%", value) : String.format("Rs.%.2f", value);
+            switch (target) {
+                case EMPLOYEE:
+                    return what + " for employee " + empId;
+                case DEPARTMENT:
+                    return what + " for department " + dept;
+                default:
+                    return what + " for everyone";
+            }
+        }
+    }
+
+    private static final int MAX_ERRORS = 100;
+
+    private final EmployeManager manager;
+    private final List<Change> changes = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+    private int errorCount;
+    private boolean closed;
+
+    SalaryRevision(EmployeManager manager) {
+        this.manager = manager;
+    }
+
+    public SalaryRevision setSalary(int empId, double newSalary) {
+        return stage(new Change(Target.EMPLOYEE, empId, null, false, newSalary));
+    }
+
+    public SalaryRevision raiseSalary(int empId, double percentage) {
+        return stage(new Change(Target.EMPLOYEE, empId, null, true, percentage));
+    }
+
+    public SalaryRevision setDepartmentSalary(String dept, double newSalary) {
+        return stage(new Change(Target.DEPARTMENT, 0, dept, false, newSalary));
+    }
+
+    public SalaryRevision raiseDepartment(String dept, double percentage) {
+        return stage(new Change(Target.DEPARTMENT, 0, dept, true, percentage));
+    }
+
+    public SalaryRevision setAllSalaries(double newSalary) {
+        return stage(new Change(Target.ALL, 0, null, false, newSalary));
+    }
+
+    public SalaryRevision raiseAll(double percentage) {
+        return stage(new Change(Target.ALL, 0, null, true, percentage));
+    }
+
+    public int getStagedChangeCount() {
+        return changes.size();
+    }
+
+    // why the last commit() failed
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    // applies every staged change or none; true if the revision was applied
+    public boolean commit() {
+        if (closed) {
+            throw new IllegalStateException("Salary revision is closed");
+        }
+        errors.clear();
+        errorCount = 0;
+        if (manager.commitSalaryRevision(this)) {
+            closed = true;
+            return true;
+        }
+        return false;
+    }
+
+    // drops the staged changes; the roster was never touched, so there is nothing to undo
+    public void rollback() {
+        changes.clear();
+        closed = true;
+    }
+
+    // the staged changes in order (the journal logs these, not the resulting salaries)
+    List<Change> getChanges() {
+        return changes;
+    }
+
+    // re-stages a change read back from the journal
+    SalaryRevision stage(Target target, int empId, String dept, boolean percentage, double value) {
+        return stage(new Change(target, empId, dept, percentage, value));
+    }
+
+    private SalaryRevision stage(Change change) {
+        if (closed) {
+            throw new IllegalStateException("Salary revision is closed");
+        }
+        changes.add(change);
+        return this;
+    }
+
+    // Works out the salary every affected employee ends up with, in staging order. Called by the
+    // manager (under its write lock in ConcurrentEmployeManager) before it journals or writes
+    // anything; returns null and fills the error list if anything is invalid, so every salary it
+    // does return is one the indexes can take.
+    Map<Employee, Double> resolve(EmployeManager roster) {
+        Map<Employee, Double> result = new LinkedHashMap<>();
+        for (Change change : changes) {
+            if (!(change.percentage() ? change.value() >= -100 && change.value() < Double.POSITIVE_INFINITY
+                    : Validation.isValidSalary(change.value()))) {
+                error("Invalid change " + change.describe());
+                continue;
+            }
+            Collection<Employee> targets;
+            switch (change.target()) {
+                case EMPLOYEE: {
+                    Employee emp = roster.findById(change.empId());
+                    if (emp == null) {
+                        error("Employee " + change.empId() + " not found (" + change.describe() + ")");
+                        continue;
+                    }
+                    targets = List.of(emp);
+                    break;
+                }
+                case DEPARTMENT:
+                    targets = roster.departmentRows(change.dept());
+                    break;
+                default:
+                    targets = roster.allRows();
+            }
+            for (Employee emp : targets) {
+                double salary = change.apply(result.getOrDefault(emp, emp.getSalary()));
+                if (!Validation.isValidSalary(salary)) {
+                    error(String.format("Employee %d would go to Rs.%.2f (%s)",
+                            emp.getEmployeeId(), salary, change.describe()));
+                } else {
+                    result.put(emp, salary);
+                }
+            }
+        }
+        if (errorCount > MAX_ERRORS) {
+            errors.add("... and " + (errorCount - MAX_ERRORS) + " more");
+        }
+        return errorCount == 0 ? result : null;
+    }
+
+    private void error(String message) {
+        if (++errorCount <= MAX_ERRORS) {
+            errors.add(message);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.Arrays;
+
+// Quantile sketch for salaries (log-bucketed, in the spirit of DDSketch).
+//
+// A value v > 0 goes into bucket ceil(log(v) / log(GAMMA)); every value in a bucket is within
+// RELATIVE_ACCURACY of the bucket's representative value, so any quantile comes back within 1%
+// of the true one. Values below 1 share one "zero" bucket. Buckets are plain counts, which makes
+// the sketch cheap to update in both directions (a salary change is remove(old) + add(new)) and
+// mergeable: two sketches add up to the sketch of both rosters. Salaries up to Rs.10,000,000 need
+// about 800 buckets.
+public class SalarySketch {
+    public static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private long[] buckets = new long[64]; // bucket i + 1 for values >= 1, bucket 0 for values < 1
+    private long count;
+
+    public SalarySketch() {
+    }
+
+    public SalarySketch(SalarySketch other) {
+        buckets = other.buckets.clone();
+        count = other.count;
+    }
+
+    public void add(double salary) {
+        int bucket = bucketOf(salary);
+        if (bucket >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, Math.max(bucket + 1, buckets.length * 2));
+        }
+        buckets[bucket]++;
+        count++;
+    }
+
+    // the salary must have been added before
+    public void remove(double salary) {
+        int bucket = bucketOf(salary);
+        if (bucket < buckets.length && buckets[bucket] > 0) {
+            buckets[bucket]--;
+            count--;
+        }
+    }
+
+    public void merge(SalarySketch other) {
+        if (other.buckets.length > buckets.length) {
+            buckets = Arrays.copyOf(buckets, other.buckets.length);
+        }
+        for (int i = 0; i < other.buckets.length; i++) {
+            buckets[i] += other.buckets[i];
+        }
+        count += other.count;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // the q-quantile (0 = lowest, 0.5 = median, 0.9 = P90, 1 = highest), within 1%; NaN if empty
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(Math.min(1, Math.max(0, q)) * (count - 1));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen > rank) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(buckets.length - 1);
+    }
+
+    // NaN goes to the zero bucket and Infinity to the bucket of Double.MAX_VALUE (about 35,500), so
+    // a bad value can't overflow the index
+    private static int bucketOf(double salary) {
+        if (!(salary >= 1)) {
+            return 0;
+        }
+        return 1 + (int) Math.ceil(Math.log(Math.min(salary, Double.MAX_VALUE)) / LOG_GAMMA);
+    }
+
+    // the representative value of a bucket: relative error at most RELATIVE_ACCURACY either side
+    private static double valueOf(int bucket) {
+        if (bucket == 0) {
+            return 0;
+        }
+        return 2 * Math.pow(GAMMA, bucket - 1) / (GAMMA + 1);
+    }
+}
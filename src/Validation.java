@@ -1,46 +1,36 @@
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+// Field rules for employees. The checks walk the characters directly (no regex, no trim() copies),
+// so they allocate nothing; they accept exactly what the old patterns did:
+//   Aadhaar ^[2-9]{1}[0-9]{11}$   PAN ^[A-Z]{5}[0-9]{4}[A-Z]{1}$   name ^[A-Za-z ]+$ after trim()
 public class Validation {
-    private static final Pattern AADHAAR_PATTERN = Pattern.compile("^[2-9]{1}[0-9]{11}$");
-    private static final Pattern PAN_PATTERN = Pattern.compile("^[A-Z]{5}[0-9]{4}[A-Z]{1}$");
-    private static final Pattern DATE_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}$");
-    private static final Pattern NAME_PATTERN = Pattern.compile("^[A-Za-z ]+$");
-
-    public static boolean isValidAadhaar(String aadhaar) {
-        return aadhaar != null && AADHAAR_PATTERN.matcher(aadhaar).matches();
+    // the fields of one incoming employee, dates already parsed with EpochDays
+    public record Candidate(String name, double salary, int age, String gender, String address, String city,
+                            int dobEpochDay, int dojEpochDay, String pan, String aadhaar) {
     }
 
-    public static boolean isValidPAN(String pan) {
-        return pan != null && PAN_PATTERN.matcher(pan).matches();
+    // one rejected record of a batch: its position in the batch and every rule it breaks
+    public record Failure(int index, List<String> rules) {
     }
 
-    public static boolean isValidDate(String date) {
-        if (date == null || !DATE_PATTERN.matcher(date).matches()) {
+    public static boolean isValidAadhaar(String aadhaar) {
+        if (aadhaar == null || aadhaar.length() != 12) {
             return false;
         }
+        char first = aadhaar.charAt(0);
+        return first >= '2' && first <= '9' && allDigits(aadhaar, 1, 12);
+    }
 
-        try {
-            String[] parts = date.split("-");
-            int year = Integer.parseInt(parts[0]);
-            int month = Integer.parseInt(parts[1]);
-            int day = Integer.parseInt(parts[2]);
-
-            if (year < 1900 || year > 2100)
-                return false;
-            if (month < 1 || month > 12)
-                return false;
-            if (day < 1 || day > 31)
-                return false;
-
-            if (month == 2 && day > 29)
-                return false;
-            if ((month == 4 || month == 6 || month == 9 || month == 11) && day > 30)
-                return false;
+    public static boolean isValidPAN(String pan) {
+        return pan != null && pan.length() == 10 && allUpperCase(pan, 0, 5) && allDigits(pan, 5, 9)
+                && allUpperCase(pan, 9, 10);
+    }
 
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
+    // YYYY-MM-DD between 1900 and 2100 that exists on the calendar (no 29 Feb in non-leap years)
+    public static boolean isValidDate(String date) {
+        return EpochDays.parse(date) != EpochDays.NONE;
     }
 
     public static boolean isValidAge(int age) {
@@ -51,10 +41,29 @@ public class Validation {
         return salary >= 0 && salary <= 10000000;
     }
 
+    // what a salary update may set: no cap (existing rows were never held to one), just not
+    // negative, NaN or infinite
+    public static boolean isValidNewSalary(double salary) {
+        return salary >= 0 && salary < Double.POSITIVE_INFINITY;
+    }
+
+    // 2-50 letters and spaces, ignoring leading/trailing whitespace
     public static boolean isValidName(String name) {
-        return name != null && !name.trim().isEmpty() &&
-                name.trim().length() >= 2 && name.trim().length() <= 50 &&
-                NAME_PATTERN.matcher(name.trim()).matches();
+        if (name == null) {
+            return false;
+        }
+        int start = trimStart(name);
+        int end = trimEnd(name, start);
+        if (end - start < 2 || end - start > 50) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = name.charAt(i);
+            if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c == ' ')) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public static boolean isValidGender(String gender) {
@@ -64,37 +73,128 @@ public class Validation {
     }
 
     public static boolean isValidString(String str, int minLength, int maxLength) {
-        return str != null && str.trim().length() >= minLength && str.trim().length() <= maxLength;
+        if (str == null) {
+            return false;
+        }
+        int start = trimStart(str);
+        int length = trimEnd(str, start) - start;
+        return length >= minLength && length <= maxLength;
     }
 
     public static boolean isAgeAtLeast18AtJoining(String dob, String doj) {
-        if (!isValidDate(dob) || !isValidDate(doj)) {
+        return isAgeAtLeast18AtJoining(EpochDays.parse(dob), EpochDays.parse(doj));
+    }
+
+    // same rule on already parsed dates (EpochDays), no parsing or allocation
+    public static boolean isAgeAtLeast18AtJoining(int dobEpochDay, int dojEpochDay) {
+        if (dobEpochDay == EpochDays.NONE || dojEpochDay == EpochDays.NONE) {
             return false;
         }
+        // yearsBetween only counts a year once the birthday has passed in the joining year
+        return EpochDays.yearsBetween(dobEpochDay, dojEpochDay) >= 18;
+    }
 
-        try {
-            String[] dobParts = dob.split("-");
-            String[] dojParts = doj.split("-");
+    // every rule the candidate breaks, in the order Main.addEmployee asks for the fields; an empty
+    // list (nothing allocated) when it passes. The PAN is checked as given, so upper-case it first.
+    public static List<String> failedRules(Candidate c) {
+        List<String> failed = Collections.emptyList();
+        if (!isValidName(c.name())) {
+            failed = fail(failed, "isValidName");
+        }
+        if (!isValidSalary(c.salary())) {
+            failed = fail(failed, "isValidSalary");
+        }
+        if (!isValidAge(c.age())) {
+            failed = fail(failed, "isValidAge");
+        }
+        if (!isValidGender(c.gender())) {
+            failed = fail(failed, "isValidGender");
+        }
+        if (!isValidString(c.address(), 5, 100)) {
+            failed = fail(failed, "isValidString(address)");
+        }
+        if (!isValidString(c.city(), 2, 50)) {
+            failed = fail(failed, "isValidString(city)");
+        }
+        if (c.dobEpochDay() == EpochDays.NONE) {
+            failed = fail(failed, "isValidDate(dob)");
+        }
+        if (c.dojEpochDay() == EpochDays.NONE) {
+            failed = fail(failed, "isValidDate(doj)");
+        }
+        // only meaningful once both dates are valid
+        if (c.dobEpochDay() != EpochDays.NONE && c.dojEpochDay() != EpochDays.NONE
+                && !isAgeAtLeast18AtJoining(c.dobEpochDay(), c.dojEpochDay())) {
+            failed = fail(failed, "isAgeAtLeast18AtJoining");
+        }
+        if (!isValidPAN(c.pan())) {
+            failed = fail(failed, "isValidPAN");
+        }
+        if (!isValidAadhaar(c.aadhaar())) {
+            failed = fail(failed, "isValidAadhaar");
+        }
+        return failed;
+    }
+
+    // checks a whole batch and reports every failing record together, in batch order; null
+    // entries are skipped (e.g. lines that could not even be parsed)
+    public static List<Failure> validateAll(List<Candidate> batch) {
+        List<Failure> failures = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Candidate candidate = batch.get(i);
+            if (candidate == null) {
+                continue;
+            }
+            List<String> failed = failedRules(candidate);
+            if (!failed.isEmpty()) {
+                failures.add(new Failure(i, failed));
+            }
+        }
+        return failures;
+    }
 
-            int dobYear = Integer.parseInt(dobParts[0]);
-            int dobMonth = Integer.parseInt(dobParts[1]);
-            int dobDay = Integer.parseInt(dobParts[2]);
+    private static List<String> fail(List<String> failed, String rule) {
+        if (failed.isEmpty()) {
+            failed = new ArrayList<>(2);
+        }
+        failed.add(rule);
+        return failed;
+    }
 
-            int dojYear = Integer.parseInt(dojParts[0]);
-            int dojMonth = Integer.parseInt(dojParts[1]);
-            int dojDay = Integer.parseInt(dojParts[2]);
+    // the bounds String.trim() would cut to (it drops chars <= ' ' at both ends)
+    private static int trimStart(String s) {
+        int start = 0;
+        while (start < s.length() && s.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
 
-            // Calculate age at joining
-            int ageAtJoining = dojYear - dobYear;
+    private static int trimEnd(String s, int start) {
+        int end = s.length();
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
 
-            // Adjust if the birthday hasn't occurred yet in the joining year
-            if (dojMonth < dobMonth || (dojMonth == dobMonth && dojDay < dobDay)) {
-                ageAtJoining--;
+    private static boolean allDigits(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
             }
+        }
+        return true;
+    }
 
-            return ageAtJoining >= 18;
-        } catch (NumberFormatException e) {
-            return false;
+    private static boolean allUpperCase(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
         }
+        return true;
     }
 }
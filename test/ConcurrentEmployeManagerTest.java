@@ -0,0 +1,260 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Hammers ConcurrentEmployeManager from several threads and then checks that nothing was lost and
+// every index still agrees with the employee fields. Per-row updates only take a stripe and the
+// index lock they touch, so these are the tests that catch a missing lock.
+class ConcurrentEmployeManagerTest {
+    private static final int THREADS = 8;
+
+    // employee 1 starts at 1.0 and every thread raises it by 1% again and again while the others
+    // hire, fire, move and search; a lost update would show up in the final salary
+    @Test
+    void concurrentRaisesAreNotLost() throws Exception {
+        int size = 10_000;
+        int raisesPerThread = 50;
+        int churnPerThread = 1_000;
+        ConcurrentEmployeManager manager = new ConcurrentEmployeManager();
+        for (int i = 1; i <= size; i++) {
+            manager.addEmployee(EmployeeBenchmark.syntheticEmployee(i));
+        }
+        manager.updateSalaryById(1, 1.0);
+
+        runThreads(thread -> {
+            Random random = new Random(thread);
+            int firstId = size + 1 + thread * churnPerThread;
+            for (int i = 0; i < churnPerThread; i++) {
+                manager.addEmployee(EmployeeBenchmark.syntheticEmployee(firstId + i));
+                if (i < raisesPerThread) {
+                    manager.updateSalaryByPercentageById(1, 1);
+                }
+                manager.updateSalaryByPercentageById(2 + random.nextInt(size - 1), 0.5);
+                manager.updateAddress(1 + random.nextInt(size), "Moved " + i);
+                manager.searchByDepartment("Dept " + random.nextInt(20));
+                if (i % 2 == 1) {
+                    manager.deleteEmployee(firstId + i);
+                }
+                if (i % 250 == 0) {
+                    manager.updateSalaryByPercentageForAll(0);
+                }
+            }
+        });
+
+        int expectedCount = size + THREADS * churnPerThread / 2;
+        double expectedSalary = 1.0;
+        for (int i = 0; i < THREADS * raisesPerThread; i++) {
+            expectedSalary = expectedSalary + (expectedSalary * 1 / 100);
+        }
+        int indexed = 0;
+        for (String dept : manager.getAllDepartments()) {
+            indexed += manager.searchByDepartment(dept).size();
+        }
+        assertEquals(expectedCount, manager.getEmployeeCount());
+        assertEquals(expectedCount, manager.getAllEmployees().size());
+        assertEquals(expectedCount, indexed, "department index");
+        assertEquals(expectedSalary, manager.searchById(1).getSalary(), "lost salary updates on employee 1");
+        assertIndexesInSync(manager);
+    }
+
+    // a mix of every kind of per-row update next to queries, snapshots and the odd bulk raise; the
+    // readers check what they see as they go (not the salary order: a raise may land as soon as the
+    // query lets go of its locks), and the indexes are compared with the fields at the end
+    @Test
+    void mixedWorkloadKeepsIndexesInSync() throws Exception {
+        int size = 5_000;
+        int opsPerThread = 5_000;
+        EmployeeDataGenerator generator = new EmployeeDataGenerator();
+        ConcurrentEmployeManager manager = new ConcurrentEmployeManager();
+        for (int i = 1; i <= size; i++) {
+            manager.addEmployee(generator.employee(i));
+        }
+        List<String> departments = manager.getAllDepartments();
+        AtomicInteger nextId = new AtomicInteger(size + 1);
+
+        runThreads(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < opsPerThread; i++) {
+                int id = 1 + random.nextInt(size);
+                String dept = departments.get(random.nextInt(departments.size()));
+                switch (random.nextInt(12)) {
+                    case 0:
+                        manager.updateSalaryById(id, 20_000 + random.nextInt(200_000));
+                        break;
+                    case 1:
+                        manager.updateSalaryByPercentageById(id, random.nextInt(11) - 5);
+                        break;
+                    case 2:
+                        manager.updateName(id, "Renamed " + (char) ('a' + random.nextInt(26)));
+                        break;
+                    case 3:
+                        manager.updateAddress(id, "Street " + i);
+                        break;
+                    case 4: {
+                        int newId = nextId.getAndIncrement();
+                        manager.addEmployee(generator.employee(newId));
+                        if (random.nextBoolean()) {
+                            manager.deleteEmployee(newId);
+                        }
+                        break;
+                    }
+                    case 5:
+                        assertDistinctInDepartment(dept, 30, manager.getTopSalaryEmployees(dept, 30));
+                        break;
+                    case 6:
+                        if (manager.searchById(id) != null) {
+                            assertTrue(manager.getSalaryRank(id) >= 1, "salary rank of " + id);
+                        }
+                        break;
+                    case 7:
+                        for (Employee emp : manager.searchByNamePrefix("renamed", 20)) {
+                            assertTrue(emp.getName().toLowerCase().startsWith("renamed"), emp.getName());
+                        }
+                        break;
+                    case 8:
+                        assertDistinctInDepartment(dept, 20, manager.query().department(dept)
+                                .orderByDescending(EmployeeQuery.SortKey.SALARY).limit(20).list());
+                        break;
+                    case 9:
+                        try (RosterSnapshot snapshot = manager.snapshot()) {
+                            double[] total = { 0 };
+                            int[] count = { 0 };
+                            snapshot.forEachEmployee(emp -> {
+                                total[0] += emp.getSalary();
+                                count[0]++;
+                            });
+                            DepartmentStats payroll = snapshot.getPayrollStats();
+                            assertEquals(count[0], payroll.getHeadcount(), "snapshot headcount");
+                            assertEquals(total[0], payroll.getTotalSalary(), 1e-6 * total[0], "snapshot payroll");
+                        }
+                        break;
+                    case 10:
+                        if (i % 200 == 0) {
+                            manager.updateSalaryByPercentageByDepartment(dept, 1);
+                        }
+                        break;
+                    default:
+                        manager.getDepartmentStats(dept);
+                }
+            }
+        });
+
+        assertIndexesInSync(manager);
+        for (String dept : departments) {
+            List<Employee> top = manager.getTopSalaryEmployees(dept, Integer.MAX_VALUE);
+            assertEquals(manager.searchByDepartment(dept).size(), top.size(), "salary index of " + dept);
+            assertDescendingSalaries(top);
+        }
+    }
+
+    // searchById reads the id map without a lock while writers grow it and shift entries back on
+    // delete; a reader must never miss a row that is there the whole time, nor get the wrong one
+    @Test
+    void lockFreeIdLookupsSurviveAddsDeletesAndResizes() throws Exception {
+        int stable = 500;
+        int churnPerWriter = 20_000;
+        int writers = 2;
+        ConcurrentEmployeManager manager = new ConcurrentEmployeManager();
+        for (int i = 1; i <= stable; i++) {
+            manager.addEmployee(EmployeeBenchmark.syntheticEmployee(i));
+        }
+        AtomicInteger writing = new AtomicInteger(writers);
+
+        runThreads(thread -> {
+            Random random = new Random(thread);
+            if (thread < writers) {
+                int firstId = stable + 1 + thread * churnPerWriter;
+                for (int i = 0; i < churnPerWriter; i++) {
+                    manager.addEmployee(EmployeeBenchmark.syntheticEmployee(firstId + i));
+                    if (i % 3 != 0) {
+                        manager.deleteEmployee(firstId + random.nextInt(i + 1));
+                    }
+                }
+                writing.decrementAndGet();
+                return;
+            }
+            while (writing.get() > 0) {
+                int id = 1 + random.nextInt(stable);
+                Employee emp = manager.searchById(id);
+                assertNotNull(emp, "stable employee " + id);
+                assertEquals(id, emp.getEmployeeId());
+                assertTrue(manager.hasEmployee(id));
+                int churned = stable + 1 + random.nextInt(writers * churnPerWriter);
+                Employee maybe = manager.searchById(churned);
+                assertTrue(maybe == null || maybe.getEmployeeId() == churned, "wrong row for " + churned);
+            }
+        });
+
+        assertEquals(manager.getAllEmployees().size(), manager.getEmployeeCount());
+        for (Employee emp : manager.getAllEmployees()) {
+            assertSame(emp, manager.searchById(emp.getEmployeeId()));
+        }
+    }
+
+    private static void assertIndexesInSync(ConcurrentEmployeManager manager) {
+        List<Employee> all = manager.getAllEmployees();
+        List<Employee> bySalary = manager.getTopSalaryEmployees(null, all.size());
+        assertEquals(all.size(), bySalary.size(), "salary index size");
+        assertDescendingSalaries(bySalary);
+        double total = 0;
+        for (Employee emp : all) {
+            assertTrue(manager.searchByName(emp.getName()).contains(emp), "name index is missing " + emp.getName());
+            total += emp.getSalary();
+        }
+        DepartmentStats payroll = manager.getPayrollStats();
+        assertEquals(all.size(), payroll.getHeadcount(), "payroll headcount");
+        assertEquals(total, payroll.getTotalSalary(), 1e-6 * total, "payroll total");
+    }
+
+    private static void assertDistinctInDepartment(String dept, int limit, List<Employee> employees) {
+        assertTrue(employees.size() <= limit, "more than " + limit + " results");
+        assertEquals(employees.size(), new HashSet<>(employees).size(), "duplicate results");
+        for (Employee emp : employees) {
+            assertEquals(dept, emp.getDepartmentName());
+        }
+    }
+
+    private static void assertDescendingSalaries(List<Employee> employees) {
+        for (int i = 1; i < employees.size(); i++) {
+            assertTrue(employees.get(i - 1).getSalary() >= employees.get(i).getSalary(), "salary order");
+        }
+    }
+
+    interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    // runs the worker on THREADS threads at once and rethrows the first failure
+    private static void runThreads(Worker worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    worker.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeManagerTest {
+    private static Employee employee(int id, String name, double salary, String dept) {
+        return new Employee(id, name, salary, 30, "Male", "12 Park Street", "Pune", "1994-03-10",
+                "2018-07-01", dept, "Engineer", "ABCDE1234F", "234567890123");
+    }
+
+    // the name index is keyed by the lower-cased name; a delete that removed the raw name left
+    // "Ravi Kumar" findable after he was gone
+    @Test
+    void deletedEmployeeIsNoLongerFoundByName() {
+        EmployeManager manager = new EmployeManager();
+        manager.addEmployee(employee(1, "Ravi Kumar", 50_000, "Sales"));
+        manager.addEmployee(employee(2, "Amit Rao", 60_000, "Sales"));
+        assertEquals(1, manager.searchByName("ravi kumar").size());
+
+        assertTrue(manager.deleteEmployee(1));
+
+        assertEquals(List.of(), manager.searchByName("ravi kumar"));
+        assertEquals(List.of(), manager.searchByName("Ravi Kumar"));
+        assertEquals(List.of(), manager.searchByNamePrefix("ravi", 10));
+        assertEquals(List.of(), manager.searchByNameFuzzy("ravi kumr", 1, 10));
+        assertEquals(1, manager.searchByName("AMIT RAO").size());
+    }
+
+    // the lowest/highest salary follow deletes and raises of the people who held them
+    @Test
+    void departmentExtremesFollowDeletesAndSalaryChanges() {
+        EmployeManager manager = new EmployeManager();
+        manager.addEmployee(employee(1, "Ravi Kumar", 50_000, "Sales"));
+        manager.addEmployee(employee(2, "Amit Rao", 90_000, "Sales"));
+        manager.addEmployee(employee(3, "Neha Shah", 70_000, "sales"));
+        manager.addEmployee(employee(4, "Asha Iyer", 10_000, "Support"));
+
+        DepartmentStats sales = manager.getDepartmentStats("SALES");
+        assertEquals(3, sales.getHeadcount());
+        assertEquals(50_000, sales.getMinSalary());
+        assertEquals(90_000, sales.getMaxSalary());
+
+        manager.deleteEmployee(2);
+        manager.updateSalaryById(1, 80_000);
+        sales = manager.getDepartmentStats("Sales");
+        assertEquals(70_000, sales.getMinSalary());
+        assertEquals(80_000, sales.getMaxSalary());
+
+        manager.updateSalaryByPercentageByDepartment("Sales", 10);
+        sales = manager.getDepartmentStats("Sales");
+        assertEquals(77_000, sales.getMinSalary(), 1e-6);
+        assertEquals(88_000, sales.getMaxSalary(), 1e-6);
+
+        DepartmentStats payroll = manager.getPayrollStats();
+        assertEquals(10_000, payroll.getMinSalary());
+        assertEquals(88_000, payroll.getMaxSalary(), 1e-6);
+
+        manager.deleteEmployee(1);
+        manager.deleteEmployee(3);
+        assertNull(manager.getDepartmentStats("Sales"));
+        assertEquals(1, manager.getAllDepartmentStats().size());
+    }
+
+    // updates only refuse a negative, NaN or infinite salary; the 10,000,000 cap is for new hires.
+    // A bulk raise skips just the rows it would overflow, in the manager and the column store alike.
+    @Test
+    void salaryUpdatesOnlyRejectNegativeOrNonFiniteSalaries() {
+        EmployeManager manager = new EmployeManager();
+        manager.addEmployee(employee(1, "Ravi Kumar", 9_000_000, "Sales"));
+        manager.addEmployee(employee(2, "Amit Rao", 90_000, "Sales"));
+        manager.addEmployee(employee(3, "Neha Shah", 70_000, "Support"));
+        assertTrue(manager.updateSalaryById(2, 1e300));
+        EmployeeColumnStore store = EmployeeColumnStore.of(manager);
+
+        // past the cap: every Sales row moves
+        assertEquals(2, manager.updateSalaryByPercentageByDepartment("Sales", 20));
+        assertEquals(2, store.updateSalaryByPercentageByDepartment("Sales", 20));
+        // 1.2e300 * 1e10 overflows, so only employees 1 and 3 get this one
+        assertEquals(2, manager.updateSalaryByPercentageForAll(1e10));
+        assertEquals(2, store.updateSalaryByPercentageForAll(1e10));
+        for (Employee emp : new Employee[] { manager.searchById(2), store.searchById(2) }) {
+            assertEquals(1.2e300, emp.getSalary(), 1e286);
+        }
+        for (Employee emp : new Employee[] { manager.searchById(1), store.searchById(1) }) {
+            assertEquals(10_800_000 * (1 + 1e8), emp.getSalary(), 1e6);
+        }
+
+        for (double bad : new double[] { -1, Double.NaN, Double.POSITIVE_INFINITY }) {
+            assertFalse(manager.updateSalaryById(3, bad));
+            assertFalse(store.updateSalaryById(3, bad));
+            assertEquals(0, manager.updateSalaryForAll(bad));
+            assertEquals(0, store.updateSalaryForAll(bad));
+            assertEquals(0, manager.updateSalaryByPercentageForAll(bad == -1 ? -101 : bad));
+        }
+        assertTrue(manager.updateSalaryById(3, 20_000_000));
+        assertEquals(20_000_000, manager.getDepartmentStats("Support").getMaxSalary());
+        assertEquals(1.2e300, manager.getPayrollStats().getMaxSalary(), 1e286);
+    }
+}
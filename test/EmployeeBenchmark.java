@@ -0,0 +1,1228 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// Small stand-alone benchmark harness, run with: java EmployeeBenchmark [mode] [size]
+// (there is no JMH in this project, so it does its own warmup + timing)
+//
+// "suite" is the baseline to check performance changes against:
+//   java -cp target/classes EmployeeBenchmark suite [size|all] [results.csv]
+// runs every EmployeManager hot path and every Validation method on a generated roster
+// (EmployeeDataGenerator, fixed seed) at 10k, 100k and 1M employees, and can append the
+// ns/op figures to a CSV so two runs can be diffed.
+public class EmployeeBenchmark {
+    private static final int SUITE_WARMUP_ITERATIONS = 5;
+    private static final int SUITE_ITERATIONS = 10;
+
+    // results are folded into this so the JIT can't drop the work being measured
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "delete";
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+
+        switch (mode) {
+            case "delete":
+                benchmarkBulkDelete(size, Math.max(1, size / 100));
+                break;
+            case "search":
+                benchmarkSearch(size, 10_000);
+                break;
+            case "names":
+                benchmarkNameSearch(size, 10_000);
+                break;
+            case "query":
+                benchmarkQueries(size, 200);
+                break;
+            case "http":
+                benchmarkHttpServer(size, args.length > 2 ? Integer.parseInt(args[2]) : 1000, 200_000);
+                break;
+            case "commands":
+                benchmarkCommandScript(size, 1_000_000);
+                break;
+            case "metrics":
+                benchmarkMetricsOverhead(size, 1_000_000);
+                break;
+            case "idmap":
+                benchmarkIdMap(size, 1_000_000);
+                break;
+            case "validation":
+                benchmarkValidation(size);
+                break;
+            case "snapshot":
+                benchmarkSnapshot(size);
+                break;
+            case "journal":
+                benchmarkJournal(size, Math.min(size, 20_000));
+                break;
+            case "concurrent":
+                benchmarkConcurrentThroughput(size, 200_000);
+                break;
+            case "import":
+                benchmarkCsvImport(size);
+                break;
+            case "export":
+                benchmarkExport(size);
+                break;
+            case "parallel":
+                benchmarkParallelBulkUpdates(size);
+                break;
+            case "columnar":
+                benchmarkColumnStore(size);
+                break;
+            case "suite":
+                runSuite(args.length > 1 && !args[1].equals("all") ? new int[] { size }
+                        : new int[] { 10_000, 100_000, 1_000_000 }, args.length > 2 ? Path.of(args[2]) : null);
+                break;
+            default:
+                System.out.println("Unknown mode: " + mode);
+                System.out.println("Modes: delete, search, names, query, commands, http, metrics, idmap, validation, snapshot, journal, concurrent, import, export, parallel, columnar, suite");
+        }
+    }
+
+    // offboards `deletes` random people from a roster of `size` and compares the old
+    // ArrayList.remove path with the current EmployeManager
+    private static void benchmarkBulkDelete(int size, int deletes) {
+        System.out.println("Bulk delete: " + deletes + " deletes from " + size + " employees");
+        int[] ids = randomIds(size, deletes, 42L);
+
+        for (int round = 0; round < 3; round++) {
+            boolean warmup = round < 2;
+
+            ListBackedRoster before = new ListBackedRoster();
+            EmployeManager after = new EmployeManager();
+            for (int i = 1; i <= size; i++) {
+                Employee emp = syntheticEmployee(i);
+                before.add(emp);
+                after.addEmployee(emp);
+            }
+
+            long start = System.nanoTime();
+            for (int id : ids) {
+                before.delete(id);
+            }
+            long beforeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int id : ids) {
+                after.deleteEmployee(id);
+            }
+            long afterNanos = System.nanoTime() - start;
+
+            if (!warmup) {
+                report("ArrayList.remove (before)", deletes, beforeNanos);
+                report("EmployeManager    (after)", deletes, afterNanos);
+            }
+        }
+    }
+
+    // name and department lookups against the secondary indexes
+    private static void benchmarkSearch(int size, int lookups) {
+        System.out.println("Search: " + lookups + " lookups over " + size + " employees");
+        EmployeManager manager = new EmployeManager();
+        for (int i = 1; i <= size; i++) {
+            manager.addEmployee(syntheticEmployee(i));
+        }
+
+        Random random = new Random(7L);
+        for (int round = 0; round < 3; round++) {
+            long matches = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                matches += manager.searchByName(syntheticName(1 + random.nextInt(size)).toUpperCase()).size();
+            }
+            long nameNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                matches += manager.searchByDepartment("DEPT " + random.nextInt(20)).size();
+            }
+            long deptNanos = System.nanoTime() - start;
+
+            if (round == 2) {
+                report("searchByName", lookups, nameNanos);
+                report("searchByDepartment", lookups, deptNanos);
+                System.out.println("  (matched " + matches + " rows)");
+            }
+        }
+    }
+
+    // Prefix, substring and typo-tolerant name lookups (20 results each) on a roster where every
+    // name is different, the worst case for the name index. Queries look like "Employee abcd"
+    // typed by the HR desk: the start of the last name, a piece of it, or the name with a typo.
+    private static void benchmarkNameSearch(int size, int lookups) {
+        System.out.println("Name search: " + lookups + " lookups over " + size + " employees");
+        long base = usedHeap();
+        EmployeManager manager = new EmployeManager();
+        for (int i = 1; i <= size; i++) {
+            manager.addEmployee(syntheticEmployee(i));
+        }
+        System.out.println("  heap with name indexes: " + ((usedHeap() - base) >> 20) + " MB");
+
+        String[] prefixes = new String[lookups];
+        String[] pieces = new String[lookups];
+        String[] typos = new String[lookups];
+        Random random = new Random(11L);
+        for (int i = 0; i < lookups; i++) {
+            String last = syntheticName(1 + random.nextInt(size)).substring("Employee ".length());
+            prefixes[i] = last.substring(0, Math.min(3, last.length()));
+            pieces[i] = last.length() > 3 ? last.substring(1, 4) : last;
+            typos[i] = "Emplyee " + last; // one letter missing
+        }
+        check(!manager.searchByNameFuzzy(typos[0], 1, 20).isEmpty(), "fuzzy finds the misspelled name");
+
+        for (int round = 0; round < 3; round++) {
+            long matches = 0;
+            long start = System.nanoTime();
+            for (String prefix : prefixes) {
+                matches += manager.searchByNamePrefix(prefix, 20).size();
+            }
+            long prefixNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String piece : pieces) {
+                matches += manager.searchByNameContaining(piece, 20).size();
+            }
+            long substringNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String typo : typos) {
+                matches += manager.searchByNameFuzzy(typo, 1, 20).size();
+            }
+            long fuzzyNanos = System.nanoTime() - start;
+
+            if (round == 2) {
+                report("searchByNamePrefix", lookups, prefixNanos);
+                report("searchByNameContaining", lookups, substringNanos);
+                report("searchByNameFuzzy", lookups, fuzzyNanos);
+                System.out.println("  (matched " + matches + " rows)");
+            }
+        }
+    }
+
+    // typical multi-filter HR queries through EmployeeQuery vs. copying the roster and filtering it
+    private static void benchmarkQueries(int size, int runs) {
+        System.out.println("Queries: " + runs + " runs each over " + size + " employees");
+        EmployeeDataGenerator generator = new EmployeeDataGenerator();
+        EmployeManager manager = generator.roster(size);
+        String dept = generator.department(3);
+        int joinedFrom = EpochDays.parse("2015-01-01");
+
+        Map<String, java.util.function.Supplier<EmployeeQuery>> queries = new LinkedHashMap<>();
+        queries.put("dept+city+age, top 20 by salary", () -> manager.query().department(dept).city("Pune")
+                .ageBetween(30, 40).orderByDescending(EmployeeQuery.SortKey.SALARY).limit(20));
+        queries.put("salary band+designation", () -> manager.query().salaryBetween(1_500_000, 1_520_000)
+                .designation("Manager"));
+        queries.put("gender+joined since 2015, first 50", () -> manager.query().gender("Female")
+                .joinedBetween("2015-01-01", null).limit(50));
+        Map<String, java.util.function.Predicate<Employee>> manual = new LinkedHashMap<>();
+        manual.put("dept+city+age, top 20 by salary", emp -> emp.getDepartmentName().equalsIgnoreCase(dept)
+                && emp.getCity().equalsIgnoreCase("Pune") && emp.getAge() >= 30 && emp.getAge() <= 40);
+        manual.put("salary band+designation", emp -> emp.getSalary() >= 1_500_000 && emp.getSalary() <= 1_520_000
+                && emp.getDesignation().equalsIgnoreCase("Manager"));
+        manual.put("gender+joined since 2015, first 50", emp -> emp.getGender().equalsIgnoreCase("Female")
+                && emp.getDojEpochDay() >= joinedFrom);
+
+        for (String label : queries.keySet()) {
+            EmployeeQuery query = queries.get(label).get();
+            System.out.println("  " + label + ": " + query.explain());
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < runs; i++) {
+                    sink += queries.get(label).get().list().size();
+                }
+                long queryNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < runs; i++) {
+                    List<Employee> matches = new ArrayList<>();
+                    for (Employee emp : manager.getAllEmployees()) {
+                        if (manual.get(label).test(emp)) {
+                            matches.add(emp);
+                        }
+                    }
+                    sink += matches.size();
+                }
+                long copyNanos = System.nanoTime() - start;
+                if (round == 2) {
+                    report("EmployeeQuery", runs, queryNanos);
+                    report("getAllEmployees + filter", runs, copyNanos);
+                }
+            }
+        }
+    }
+
+    // load test of EmployeeHttpServer on localhost: `clients` requests in flight at all times (each
+    // on its own connection), mostly lookups with some raises, queries and department figures
+    private static void benchmarkHttpServer(int size, int clients, int requests) throws Exception {
+        EmployeeDataGenerator generator = new EmployeeDataGenerator();
+        ConcurrentEmployeManager manager = new ConcurrentEmployeManager();
+        manager.addEmployees(Arrays.asList(generator.employees(size)));
+        try (EmployeeHttpServer server = new EmployeeHttpServer(manager, 0).start()) {
+            System.out.println("HTTP: " + requests + " requests from " + clients + " concurrent clients, "
+                    + size + " employees, " + (server.usesVirtualThreads() ? "virtual threads" : "thread pool"));
+            String base = "http://127.0.0.1:" + server.getPort();
+            java.net.http.HttpClient client = java.net.http.HttpClient.newBuilder()
+                    .version(java.net.http.HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newFixedThreadPool(4))
+                    .build();
+            Random random = new Random(22);
+            int departments = generator.getDepartmentCount();
+
+            for (int round = 0; round < 2; round++) {
+                boolean warmup = round == 0;
+                int total = warmup ? Math.min(requests, 20_000) : requests;
+                LatencyHistogram latency = new LatencyHistogram();
+                AtomicInteger failed = new AtomicInteger();
+                Semaphore inFlight = new Semaphore(clients);
+                CountDownLatch done = new CountDownLatch(total);
+                long start = System.nanoTime();
+                for (int i = 0; i < total; i++) {
+                    int id = 1 + random.nextInt(size);
+                    int pick = random.nextInt(100);
+                    java.net.http.HttpRequest.Builder request;
+                    if (pick < 70) {
+                        request = java.net.http.HttpRequest.newBuilder(URI.create(base + "/employees/" + id));
+                    } else if (pick < 85) {
+                        request = java.net.http.HttpRequest.newBuilder(URI.create(base + "/employees/" + id))
+                                .method("PATCH", java.net.http.HttpRequest.BodyPublishers.ofString("{\"raisePercent\":1}"));
+                    } else if (pick < 95) {
+                        request = java.net.http.HttpRequest.newBuilder(URI.create(base + "/employees/search?department="
+                                + generator.department(random.nextInt(departments)).replace(" ", "%20")
+                                + "&minAge=30&maxAge=40&sort=salary&descending=true&limit=20"));
+                    } else {
+                        request = java.net.http.HttpRequest.newBuilder(URI.create(base + "/stats/"
+                                + generator.department(random.nextInt(departments)).replace(" ", "%20")));
+                    }
+                    inFlight.acquire();
+                    long sent = System.nanoTime();
+                    client.sendAsync(request.build(), java.net.http.HttpResponse.BodyHandlers.discarding())
+                            .whenComplete((response, error) -> {
+                                latency.record(System.nanoTime() - sent);
+                                if (error != null || response.statusCode() >= 300) {
+                                    failed.incrementAndGet();
+                                }
+                                inFlight.release();
+                                done.countDown();
+                            });
+                }
+                done.await();
+                long nanos = System.nanoTime() - start;
+                if (!warmup) {
+                    report("requests (" + failed.get() + " failed)", total, nanos);
+                    System.out.printf("  latency p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                            latency.getPercentileNanos(50) / 1e6, latency.getPercentileNanos(90) / 1e6,
+                            latency.getPercentileNanos(99) / 1e6, latency.getPercentileNanos(99.9) / 1e6,
+                            latency.getMaxNanos() / 1e6);
+                }
+            }
+            ((ExecutorService) client.executor().get()).shutdown();
+        }
+    }
+
+    // a scripted HR workload through EmployeeCommandRunner (what Main --batch runs): mostly lookups
+    // and raises, some hires/exits and searches; results are dropped, the summary goes to stdout
+    private static void benchmarkCommandScript(int size, int commands) throws IOException {
+        System.out.println("Command script: " + commands + " commands on " + size + " employees");
+        EmployeeDataGenerator generator = new EmployeeDataGenerator();
+        Employee[] employees = generator.employees(size);
+        Path script = Files.createTempFile("ems-bench", ".commands");
+        try {
+            Random random = new Random(21);
+            int nextId = size + 1;
+            try (BufferedWriter out = Files.newBufferedWriter(script)) {
+                for (int i = 0; i < commands; i++) {
+                    Employee emp = employees[random.nextInt(size)];
+                    int pick = random.nextInt(100);
+                    if (pick < 50) {
+                        out.write("get " + emp.getEmployeeId());
+                    } else if (pick < 70) {
+                        out.write("raise " + emp.getEmployeeId() + " " + (random.nextInt(10) + 1));
+                    } else if (pick < 72) {
+                        out.write("find-name \"" + emp.getName() + "\"");
+                    } else if (pick < 84) {
+                        Employee hire = syntheticEmployee(nextId++);
+                        out.write("add " + hire.getEmployeeId() + "," + hire.getName() + "," + hire.getSalary() + ","
+                                + hire.getAge() + "," + hire.getGender() + "," + hire.getAddress() + ","
+                                + hire.getCity() + "," + hire.getDob() + "," + hire.getDoj() + ","
+                                + hire.getDepartmentName() + "," + hire.getDesignation() + ","
+                                + hire.getPanCardNumber() + "," + hire.getAadharNumber());
+                    } else if (pick < 90) {
+                        out.write("delete " + (1 + random.nextInt(nextId - 1)));
+                    } else if (pick < 97) {
+                        out.write("set-address " + emp.getEmployeeId() + " \"" + random.nextInt(999) + " Ring Road\"");
+                    } else if (pick < 99) {
+                        out.write("top 10");
+                    } else {
+                        out.write("stats \"" + emp.getDepartmentName() + "\"");
+                    }
+                    out.newLine();
+                }
+            }
+
+            EmployeManager manager = new EmployeManager();
+            manager.addEmployees(Arrays.asList(employees));
+            try (BufferedReader in = Files.newBufferedReader(script)) {
+                EmployeeCommandRunner runner = new EmployeeCommandRunner(manager);
+                EmployeeCommandRunner.RunResult result = runner.run(in, Writer.nullWriter());
+                runner.writeSummary(result, new PrintWriter(System.out));
+            }
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+
+    // what attaching a MetricsRegistry costs on the hottest paths (an id lookup, a salary update),
+    // then the latency report the registry collected
+    private static void benchmarkMetricsOverhead(int size, int operations) {
+        System.out.println("Metrics overhead: " + operations + " lookups and updates on " + size + " employees");
+        EmployeeDataGenerator generator = new EmployeeDataGenerator();
+        EmployeManager manager = generator.roster(size);
+        int[] ids = generator.randomIds(size, operations);
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        for (int round = 0; round < 6; round++) {
+            boolean measured = round % 2 == 1;
+            manager.setMetrics(measured ? metrics : null);
+            metrics.reset();
+
+            long start = System.nanoTime();
+            for (int id : ids) {
+                sink += manager.searchById(id).getAge();
+            }
+            long searchNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ids.length; i++) {
+                sink += manager.updateSalaryById(ids[i], 30_000 + (i & 1023) * 100) ? 1 : 0;
+            }
+            long updateNanos = System.nanoTime() - start;
+
+            if (round >= 4) {
+                String suffix = measured ? " (metrics)" : " (no metrics)";
+                report("searchById" + suffix, operations, searchNanos);
+                report("updateSalaryById" + suffix, operations, updateNanos);
+            }
+        }
+        System.out.print(metrics.toText());
+    }
+
+    // EmployeManager's id map: the HashMap<Integer, Employee> it used to be vs. IntEmployeeMap,
+    // by heap footprint (every entry points at one shared Employee, so only the map is counted)
+    // and by put / hit / miss / remove time (random ids, except for the put of 1..size)
+    private static void benchmarkIdMap(int size, int lookups) {
+        System.out.println("Id map: " + size + " entries, " + lookups + " lookups");
+        Employee emp = syntheticEmployee(1);
+        int[] hits = randomIds(size, lookups, 13L);
+        int[] misses = randomIds(size, lookups, 17L);
+        for (int i = 0; i < misses.length; i++) {
+            misses[i] += size;
+        }
+
+        long base = usedHeap();
+        Map<Integer, Employee> boxed = new HashMap<>();
+        for (int id = 1; id <= size; id++) {
+            boxed.put(id, emp);
+        }
+        long boxedBytes = usedHeap() - base;
+        sink += boxed.size();
+        boxed = null;
+
+        base = usedHeap();
+        IntEmployeeMap primitive = new IntEmployeeMap();
+        for (int id = 1; id <= size; id++) {
+            primitive.put(id, emp);
+        }
+        long primitiveBytes = usedHeap() - base;
+        sink += primitive.size();
+        primitive = null;
+        System.out.printf("  heap: HashMap %d MB (%.1f bytes/entry), IntEmployeeMap %d MB (%.1f bytes/entry)%n",
+                boxedBytes >> 20, (double) boxedBytes / size, primitiveBytes >> 20, (double) primitiveBytes / size);
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            boxed = new HashMap<>();
+            for (int id = 1; id <= size; id++) {
+                boxed.put(id, emp);
+            }
+            long boxedPut = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int id : hits) {
+                sink += boxed.get(id) != null ? 1 : 0;
+            }
+            long boxedHit = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int id : misses) {
+                sink += boxed.get(id) != null ? 1 : 0;
+            }
+            long boxedMiss = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int id : hits) {
+                sink += boxed.remove(id) != null ? 1 : 0;
+            }
+            long boxedRemove = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            primitive = new IntEmployeeMap();
+            for (int id = 1; id <= size; id++) {
+                primitive.put(id, emp);
+            }
+            long primitivePut = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int id : hits) {
+                sink += primitive.get(id) != null ? 1 : 0;
+            }
+            long primitiveHit = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int id : misses) {
+                sink += primitive.get(id) != null ? 1 : 0;
+            }
+            long primitiveMiss = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int id : hits) {
+                sink += primitive.remove(id) != null ? 1 : 0;
+            }
+            long primitiveRemove = System.nanoTime() - start;
+            check(primitive.size() == boxed.size(), "same ids removed");
+            boxed = null;
+            primitive = null;
+
+            if (round == 2) {
+                report("put (HashMap)", size, boxedPut);
+                report("put (IntEmployeeMap)", size, primitivePut);
+                report("get hit (HashMap)", lookups, boxedHit);
+                report("get hit (IntEmployeeMap)", lookups, primitiveHit);
+                report("get miss (HashMap)", lookups, boxedMiss);
+                report("get miss (IntEmployeeMap)", lookups, primitiveMiss);
+                report("remove (HashMap)", lookups, boxedRemove);
+                report("remove (IntEmployeeMap)", lookups, primitiveRemove);
+            }
+        }
+    }
+
+    // the regex rules Validation used to run, kept as the baseline for the timings (ValidationTest
+    // checks that both accept the same strings)
+    private static final Pattern AADHAAR_PATTERN = Pattern.compile("^[2-9]{1}[0-9]{11}$");
+    private static final Pattern PAN_PATTERN = Pattern.compile("^[A-Z]{5}[0-9]{4}[A-Z]{1}$");
+    private static final Pattern NAME_PATTERN = Pattern.compile("^[A-Za-z ]+$");
+
+    private static boolean regexAadhaar(String aadhaar) {
+        return aadhaar != null && AADHAAR_PATTERN.matcher(aadhaar).matches();
+    }
+
+    private static boolean regexPAN(String pan) {
+        return pan != null && PAN_PATTERN.matcher(pan).matches();
+    }
+
+    private static boolean regexName(String name) {
+        return name != null && !name.trim().isEmpty() &&
+                name.trim().length() >= 2 && name.trim().length() <= 50 &&
+                NAME_PATTERN.matcher(name.trim()).matches();
+    }
+
+    private static boolean regexString(String str, int minLength, int maxLength) {
+        return str != null && str.trim().length() >= minLength && str.trim().length() <= maxLength;
+    }
+
+    // times Validation against the old regex rules on the fields of a bulk ingest
+    private static void benchmarkValidation(int size) {
+        System.out.println("Validation: " + size + " records");
+        Employee[] employees = new EmployeeDataGenerator().employees(size);
+        String[] names = new String[size];
+        String[] addresses = new String[size];
+        String[] pans = new String[size];
+        String[] aadhaars = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = employees[i].getName();
+            addresses[i] = employees[i].getAddress();
+            pans[i] = employees[i].getPanCardNumber();
+            aadhaars[i] = employees[i].getAadharNumber();
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < size; i++) {
+                sink += (regexName(names[i]) ? 1 : 0) + (regexString(addresses[i], 5, 100) ? 1 : 0)
+                        + (regexPAN(pans[i]) ? 1 : 0) + (regexAadhaar(aadhaars[i]) ? 1 : 0);
+            }
+            long regexNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < size; i++) {
+                sink += (Validation.isValidName(names[i]) ? 1 : 0) + (Validation.isValidString(addresses[i], 5, 100) ? 1 : 0)
+                        + (Validation.isValidPAN(pans[i]) ? 1 : 0) + (Validation.isValidAadhaar(aadhaars[i]) ? 1 : 0);
+            }
+            long handNanos = System.nanoTime() - start;
+
+            List<Validation.Candidate> batch = new ArrayList<>(size);
+            for (Employee emp : employees) {
+                batch.add(new Validation.Candidate(emp.getName(), emp.getSalary(), emp.getAge(), emp.getGender(),
+                        emp.getAddress(), emp.getCity(), emp.getDobEpochDay(), emp.getDojEpochDay(),
+                        emp.getPanCardNumber(), emp.getAadharNumber()));
+            }
+            start = System.nanoTime();
+            sink += Validation.validateAll(batch).size();
+            long batchNanos = System.nanoTime() - start;
+            if (round == 2) {
+                report("regex, 4 fields", size, regexNanos);
+                report("Validation, 4 fields", size, handNanos);
+                report("validateAll, all rules", size, batchNanos);
+            }
+        }
+    }
+
+    // save once, then time cold loads of the snapshot into a fresh manager
+    private static void benchmarkSnapshot(int size) throws IOException {
+        System.out.println("Snapshot: " + size + " employees");
+        EmployeManager manager = new EmployeManager();
+        for (int i = 1; i <= size; i++) {
+            manager.addEmployee(syntheticEmployee(i));
+        }
+
+        Path file = Files.createTempFile("ems-bench", ".snapshot");
+        try {
+            EmployeeSnapshotStore store = new EmployeeSnapshotStore(file);
+            long start = System.nanoTime();
+            store.save(manager);
+            report("save", size, System.nanoTime() - start);
+            System.out.println("  file size: " + Files.size(file) / 1024 + " KB");
+            // a second roster in the heap would have the loads below timing the GC at 1M
+            manager = null;
+
+            for (int round = 0; round < 3; round++) {
+                EmployeManager loaded = new EmployeManager();
+                start = System.nanoTime();
+                int count = store.load(loaded);
+                long nanos = System.nanoTime() - start;
+                if (round == 0) {
+                    report("load (cold)", count, nanos);
+                } else if (round == 2) {
+                    report("load", count, nanos);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // writes a synthetic CSV (1% bad PANs) and imports it into an empty manager
+    private static void benchmarkCsvImport(int size) throws IOException {
+        System.out.println("CSV import: " + size + " rows");
+        Path csv = Files.createTempFile("ems-bench", ".csv");
+        Path errors = Files.createTempFile("ems-bench", ".errors.csv");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(csv)) {
+                out.write("id,name,salary,age,gender,address,city,dob,doj,department,designation,pan,aadhaar");
+                out.newLine();
+                for (int i = 1; i <= size; i++) {
+                    Employee emp = syntheticEmployee(i);
+                    out.write(emp.getEmployeeId() + "," + emp.getName() + "," + emp.getSalary() + "," + emp.getAge()
+                            + "," + emp.getGender() + "," + emp.getAddress() + "," + emp.getCity() + ","
+                            + emp.getDob() + "," + emp.getDoj() + "," + emp.getDepartmentName() + ","
+                            + emp.getDesignation() + "," + (i % 100 == 0 ? "BAD" : emp.getPanCardNumber()) + ","
+                            + emp.getAadharNumber());
+                    out.newLine();
+                }
+            }
+
+            for (int round = 0; round < 2; round++) {
+                EmployeManager manager = new EmployeManager();
+                EmployeeCsvImporter.ImportResult result = new EmployeeCsvImporter(manager).importFile(csv, errors);
+                if (round == 1) {
+                    report("import (" + result.getRejected() + " rejected)", (int) result.getRowsRead(),
+                            result.getElapsedMillis() * 1_000_000);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(errors);
+        }
+    }
+
+    private static void benchmarkExport(int size) throws IOException {
+        System.out.println("Export: " + size + " employees");
+        EmployeManager manager = new EmployeManager();
+        for (int i = 1; i <= size; i++) {
+            manager.addEmployee(syntheticEmployee(i));
+        }
+        Path file = Files.createTempFile("ems-bench", ".out");
+        try {
+            for (int round = 0; round < 3; round++) {
+                for (EmployeeExporter.Format format : EmployeeExporter.Format.values()) {
+                    long start = System.nanoTime();
+                    long written = new EmployeeExporter(manager).export(file, format);
+                    long nanos = System.nanoTime() - start;
+                    if (round == 2) {
+                        report(format + " (" + Files.size(file) / (1024 * 1024) + " MB)", (int) written, nanos);
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // per-employee salary updates: group commit (acknowledged after their fsync, from 1 and 4
+    // threads, which share fsyncs) vs. async batching (acknowledged when buffered)
+    private static void benchmarkJournal(int size, int updates) throws Exception {
+        System.out.println("Journal: " + updates + " salary updates over " + size + " employees");
+        int[] ids = randomIds(size, updates, 11L);
+
+        for (int threads : new int[] { 1, 4 }) {
+            ConcurrentEmployeManager manager = new ConcurrentEmployeManager();
+            for (int i = 1; i <= size; i++) {
+                manager.addEmployee(syntheticEmployee(i));
+            }
+            Path file = Files.createTempFile("ems-bench", ".journal");
+            try (EmployeeJournal journal = new EmployeeJournal(file)) {
+                manager.setJournal(journal);
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                List<Future<?>> futures = new ArrayList<>();
+                long start = System.nanoTime();
+                for (int t = 0; t < threads; t++) {
+                    int first = t;
+                    futures.add(pool.submit(() -> {
+                        for (int i = first; i < ids.length; i += threads) {
+                            manager.updateSalaryByPercentageById(ids[i], 1);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                report("group commit, " + threads + " thread(s)", updates, System.nanoTime() - start);
+                pool.shutdown();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        int[][] policies = { { 1, 0 }, { 256, 50 }, { 4096, 200 } };
+        for (int[] policy : policies) {
+            EmployeManager manager = new EmployeManager();
+            for (int i = 1; i <= size; i++) {
+                manager.addEmployee(syntheticEmployee(i));
+            }
+            Path file = Files.createTempFile("ems-bench", ".journal");
+            try (EmployeeJournal journal = new EmployeeJournal(file, policy[0], policy[1])) {
+                manager.setJournal(journal);
+                long start = System.nanoTime();
+                for (int id : ids) {
+                    manager.updateSalaryByPercentageById(id, 1);
+                }
+                journal.sync();
+                report("async, sync every " + policy[0] + " records", updates, System.nanoTime() - start);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // mixed read-mostly workload at 1, 2, 4, ... threads
+    private static void benchmarkConcurrentThroughput(int size, int opsPerThread) throws Exception {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        System.out.println("Concurrent throughput: " + size + " employees, " + opsPerThread + " ops/thread "
+                + "(90% searchById, 8% raise by id, 2% department search)");
+        ConcurrentEmployeManager manager = new ConcurrentEmployeManager();
+        for (int i = 1; i <= size; i++) {
+            manager.addEmployee(syntheticEmployee(i));
+        }
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            for (int round = 0; round < 2; round++) {
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int seed = t;
+                    futures.add(pool.submit(() -> {
+                        Random random = new Random(seed);
+                        start.await();
+                        for (int i = 0; i < opsPerThread; i++) {
+                            int roll = random.nextInt(100);
+                            int id = 1 + random.nextInt(size);
+                            if (roll < 90) {
+                                manager.searchById(id);
+                            } else if (roll < 98) {
+                                manager.updateSalaryByPercentageById(id, 0.1);
+                            } else {
+                                manager.searchByDepartment("Dept " + random.nextInt(20)).size();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                long begin = System.nanoTime();
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                long nanos = System.nanoTime() - begin;
+                pool.shutdown();
+                if (round == 1) {
+                    report(threads + " thread(s)", threads * opsPerThread, nanos);
+                }
+            }
+        }
+    }
+
+    // company-wide and department appraisals with the sequential loops vs. a ForkJoinPool of
+    // 1, 2, 4, ... workers; every run must end with exactly the same salaries and counts
+    private static void benchmarkParallelBulkUpdates(int size) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Parallel bulk updates: " + size + " employees, " + cores + " core(s)");
+        EmployeeDataGenerator generator = new EmployeeDataGenerator();
+        EmployeManager expected = generator.roster(size);
+        String dept = generator.department(0);
+        int expectedAll = expected.updateSalaryByPercentageForAll(7.5);
+        int expectedDept = expected.updateSalaryByPercentageByDepartment(dept, -12);
+
+        List<Integer> parallelism = new ArrayList<>(List.of(0));
+        for (int workers = 1; workers <= Math.max(4, cores); workers *= 2) {
+            parallelism.add(workers);
+        }
+        for (int workers : parallelism) {
+            ForkJoinPool pool = workers == 0 ? null : new ForkJoinPool(workers);
+            try {
+                // one untimed pass first so the JIT has compiled both paths
+                EmployeManager warmup = generator.roster(Math.min(size, 100_000));
+                warmup.setBulkUpdatePool(pool);
+                warmup.updateSalaryByPercentageForAll(7.5);
+                warmup.updateSalaryByPercentageByDepartment(dept, -12);
+
+                EmployeManager manager = generator.roster(size);
+                manager.setBulkUpdatePool(pool);
+                long start = System.nanoTime();
+                check(manager.updateSalaryByPercentageForAll(7.5) == expectedAll, "raise all count");
+                long allNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                check(manager.updateSalaryByPercentageByDepartment(dept, -12) == expectedDept, "department count");
+                long deptNanos = System.nanoTime() - start;
+
+                expected.forEachEmployee(emp -> check(
+                        manager.searchById(emp.getEmployeeId()).getSalary() == emp.getSalary(),
+                        "salary of " + emp.getEmployeeId()));
+                check(sameIds(manager.getTopSalaryEmployees(100), expected.getTopSalaryEmployees(100))
+                        && sameIds(manager.getBottomSalaryEmployees(100), expected.getBottomSalaryEmployees(100)),
+                        "salary index");
+
+                String label = workers == 0 ? "sequential" : workers + " worker(s)";
+                report("raise all, " + label, size, allNanos);
+                report("raise " + dept + ", " + label, expectedDept, deptNanos);
+            } finally {
+                if (pool != null) {
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+
+    private static boolean sameIds(List<Employee> a, List<Employee> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i).getEmployeeId() != b.get(i).getEmployeeId()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // heap and scan time of the object roster vs. the columnar store, after checking both agree
+    private static void benchmarkColumnStore(int size) {
+        System.out.println("Columnar store: " + size + " employees");
+        EmployeeDataGenerator generator = new EmployeeDataGenerator();
+
+        // built separately from their own generated employees, so they don't share any strings
+        long base = usedHeap();
+        EmployeManager manager = generator.roster(size);
+        long managerBytes = usedHeap() - base;
+        EmployeeColumnStore store = new EmployeeColumnStore(size);
+        for (int i = 1; i <= size; i++) {
+            store.addEmployee(generator.employee(i));
+        }
+        long storeBytes = usedHeap() - base - managerBytes;
+        System.out.printf("  heap: EmployeManager %d MB, EmployeeColumnStore %d MB%n",
+                managerBytes >> 20, storeBytes >> 20);
+
+        String dept = generator.department(1).toUpperCase();
+        check(manager.updateSalaryByPercentageForAll(5) == store.updateSalaryByPercentageForAll(5), "raise all");
+        check(manager.updateSalaryByPercentageByDepartment(dept, -3)
+                == store.updateSalaryByPercentageByDepartment(dept, -3), "cut one department");
+        check(manager.deleteEmployee(size / 2) == store.deleteEmployee(size / 2), "delete");
+        check(manager.updateSalaryById(size / 3, 99_999) == store.updateSalaryById(size / 3, 99_999), "set one");
+        manager.forEachEmployee(emp -> check(emp.getSalary() == store.searchById(emp.getEmployeeId()).getSalary(),
+                "salary of " + emp.getEmployeeId()));
+        check(manager.getEmployeeCount() == store.getEmployeeCount(), "count");
+        check(manager.getHighestSalaryEmployee().getEmployeeId() == store.getHighestSalaryEmployee().getEmployeeId(),
+                "highest");
+        check(manager.getLowestSalaryEmployee().getEmployeeId() == store.getLowestSalaryEmployee().getEmployeeId(),
+                "lowest");
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            manager.updateSalaryByPercentageForAll(round % 2 == 0 ? 1 : -1);
+            long managerRaise = System.nanoTime() - start;
+            start = System.nanoTime();
+            store.updateSalaryByPercentageForAll(round % 2 == 0 ? 1 : -1);
+            long storeRaise = System.nanoTime() - start;
+
+            double[] total = { 0 };
+            start = System.nanoTime();
+            manager.forEachEmployee(emp -> total[0] += emp.getSalary());
+            long managerSum = System.nanoTime() - start;
+            start = System.nanoTime();
+            total[0] += store.getTotalSalary();
+            long storeSum = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            sink += manager.getHighestSalaryEmployee().getEmployeeId();
+            long managerMax = System.nanoTime() - start;
+            start = System.nanoTime();
+            sink += store.getHighestSalaryEmployee().getEmployeeId();
+            long storeMax = System.nanoTime() - start;
+            sink += (long) total[0];
+
+            if (round == 2) {
+                report("raise all (manager)", size, managerRaise);
+                report("raise all (columnar)", size, storeRaise);
+                report("total salary (manager)", size, managerSum);
+                report("total salary (columnar)", size, storeSum);
+                report("highest salary (manager)", 1, managerMax);
+                report("highest salary (columnar)", 1, storeMax);
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void runSuite(int[] sizes, Path results) throws IOException {
+        List<String> rows = new ArrayList<>();
+        for (int size : sizes) {
+            System.out.println("Suite: " + size + " employees (seed " + EmployeeDataGenerator.DEFAULT_SEED + ")");
+            suiteManager(size, rows);
+            suiteValidation(size, rows);
+        }
+        System.out.println("(sink " + sink + ")");
+
+        if (results != null) {
+            boolean header = !Files.exists(results);
+            try (BufferedWriter out = Files.newBufferedWriter(results, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND)) {
+                if (header) {
+                    out.write("benchmark,size,ns_per_op,min_ns_per_op");
+                    out.newLine();
+                }
+                for (String row : rows) {
+                    out.write(row);
+                    out.newLine();
+                }
+            }
+            System.out.println("Results appended to " + results);
+        }
+    }
+
+    private static void suiteManager(int size, List<String> rows) {
+        EmployeeDataGenerator generator = new EmployeeDataGenerator();
+        Employee[] employees = generator.employees(size);
+        int[] ids = generator.randomIds(size, 100_000);
+        String[] names = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            names[i] = employees[ids[i] - 1].getName();
+        }
+        int departments = generator.getDepartmentCount();
+
+        // a fresh manager and fresh employees per iteration (an employee can only belong to one
+        // manager), so every iteration inserts into an empty roster
+        EmployeManager[] target = new EmployeManager[1];
+        Employee[][] batch = new Employee[1][];
+        measure(rows, "addEmployee", size, size, () -> {
+            target[0] = new EmployeManager();
+            batch[0] = generator.employees(size);
+        }, () -> {
+            for (Employee emp : batch[0]) {
+                target[0].addEmployee(emp);
+            }
+        });
+        target[0] = null;
+        batch[0] = null;
+
+        EmployeManager manager = new EmployeManager();
+        for (Employee emp : employees) {
+            manager.addEmployee(emp);
+        }
+
+        // deletes 1% of the roster, then puts those employees back outside the timed section
+        int deletes = Math.max(1, size / 100);
+        int[] deleteIds = Arrays.copyOf(generator.randomIds(size, deletes * 2), deletes);
+        measure(rows, "deleteEmployee", size, deletes, () -> {
+            for (int id : deleteIds) {
+                if (!manager.hasEmployee(id)) {
+                    manager.addEmployee(employees[id - 1]);
+                }
+            }
+        }, () -> {
+            for (int id : deleteIds) {
+                sink += manager.deleteEmployee(id) ? 1 : 0;
+            }
+        });
+        for (int id : deleteIds) {
+            if (!manager.hasEmployee(id)) {
+                manager.addEmployee(employees[id - 1]);
+            }
+        }
+
+        measure(rows, "searchById", size, ids.length, null, () -> {
+            for (int id : ids) {
+                sink += manager.searchById(id).getAge();
+            }
+        });
+        // one 50-row page of the listing from a random point in the roster
+        int pages = 10_000;
+        measure(rows, "getEmployeesAfter (page of 50)", size, pages, null, () -> {
+            for (int i = 0; i < pages; i++) {
+                sink += manager.getEmployeesAfter(ids[i % ids.length], 50).size();
+            }
+        });
+        measure(rows, "searchByName", size, ids.length, null, () -> {
+            for (String name : names) {
+                sink += manager.searchByName(name).size();
+            }
+        });
+        // the HR desk's partial lookups: start of a last name, a piece of a first name, a typo
+        int partialLookups = 1_000;
+        measure(rows, "searchByNamePrefix", size, partialLookups, null, () -> {
+            for (int i = 0; i < partialLookups; i++) {
+                String name = names[i];
+                sink += manager.searchByNamePrefix(name.substring(name.indexOf(' ') + 1).substring(0, 3), 20).size();
+            }
+        });
+        measure(rows, "searchByNameContaining", size, partialLookups, null, () -> {
+            for (int i = 0; i < partialLookups; i++) {
+                sink += manager.searchByNameContaining(names[i].substring(1, 4), 20).size();
+            }
+        });
+        measure(rows, "searchByNameFuzzy", size, partialLookups, null, () -> {
+            for (int i = 0; i < partialLookups; i++) {
+                String name = names[i];
+                sink += manager.searchByNameFuzzy(name.charAt(1) + name.substring(2), 1, 20).size();
+            }
+        });
+        int queries = 1_000;
+        measure(rows, "query(dept+city+age, top 20 by salary)", size, queries, null, () -> {
+            for (int i = 0; i < queries; i++) {
+                sink += manager.query().department(generator.department(i % departments)).city("Pune")
+                        .ageBetween(30, 40).orderByDescending(EmployeeQuery.SortKey.SALARY).limit(20).list().size();
+            }
+        });
+        // a department is a few percent of the roster, so fewer lookups per iteration
+        int deptLookups = Math.max(10, 10_000_000 / size);
+        measure(rows, "searchByDepartment", size, deptLookups, null, () -> {
+            for (int i = 0; i < deptLookups; i++) {
+                sink += manager.searchByDepartment(generator.department(i % departments)).size();
+            }
+        });
+        measure(rows, "getHighestSalaryEmployee", size, ids.length, null, () -> {
+            for (int i = 0; i < ids.length; i++) {
+                sink += manager.getHighestSalaryEmployee().getEmployeeId();
+            }
+        });
+        // the ranked payroll questions, answered from the salary rank indexes
+        measure(rows, "getSalaryRank", size, ids.length, null, () -> {
+            for (int id : ids) {
+                sink += manager.getSalaryRank(id);
+            }
+        });
+        measure(rows, "getEmployeeAtSalaryPercentile(dept, 90)", size, ids.length, null, () -> {
+            for (int i = 0; i < ids.length; i++) {
+                sink += manager.getEmployeeAtSalaryPercentile(generator.department(i % departments), 90).getEmployeeId();
+            }
+        });
+        measure(rows, "getTopSalaryEmployees(dept, 100)", size, queries, null, () -> {
+            for (int i = 0; i < queries; i++) {
+                sink += manager.getTopSalaryEmployees(generator.department(i % departments), 100).size();
+            }
+        });
+
+        // salaries go up and down by the same amount so the roster stays comparable between iterations
+        measure(rows, "updateSalaryById", size, ids.length, null, () -> {
+            for (int i = 0; i < ids.length; i++) {
+                sink += manager.updateSalaryById(ids[i], 30_000 + (i & 1023) * 100) ? 1 : 0;
+            }
+        });
+        measure(rows, "updateSalaryByPercentageById", size, ids.length, null, () -> {
+            for (int i = 0; i < ids.length; i++) {
+                sink += manager.updateSalaryByPercentageById(ids[i], (i & 1) == 0 ? 10 : -10) ? 1 : 0;
+            }
+        });
+        int[] round = { 0 };
+        measure(rows, "updateSalaryByDepartment", size, size, null, () -> {
+            for (int d = 0; d < departments; d++) {
+                sink += manager.updateSalaryByDepartment(generator.department(d), 40_000 + round[0]++);
+            }
+        });
+        measure(rows, "updateSalaryByPercentageByDepartment", size, size, null, () -> {
+            for (int d = 0; d < departments; d++) {
+                sink += manager.updateSalaryByPercentageByDepartment(generator.department(d),
+                        (round[0]++ & 1) == 0 ? 5 : -5);
+            }
+        });
+        measure(rows, "updateSalaryForAll", size, size, null,
+                () -> sink += manager.updateSalaryForAll(50_000 + round[0]++));
+        measure(rows, "updateSalaryByPercentageForAll", size, size, null,
+                () -> sink += manager.updateSalaryByPercentageForAll((round[0]++ & 1) == 0 ? 5 : -5));
+    }
+
+    // every Validation method over the generated roster's own field values
+    private static void suiteValidation(int size, List<String> rows) {
+        int count = Math.min(size, 100_000);
+        Employee[] employees = new EmployeeDataGenerator().employees(count);
+        String[] dobs = new String[count];
+        String[] dojs = new String[count];
+        for (int i = 0; i < count; i++) {
+            dobs[i] = employees[i].getDob();
+            dojs[i] = employees[i].getDoj();
+        }
+
+        measure(rows, "Validation.isValidName", size, count, null, () -> {
+            for (Employee emp : employees) {
+                sink += Validation.isValidName(emp.getName()) ? 1 : 0;
+            }
+        });
+        measure(rows, "Validation.isValidAadhaar", size, count, null, () -> {
+            for (Employee emp : employees) {
+                sink += Validation.isValidAadhaar(emp.getAadharNumber()) ? 1 : 0;
+            }
+        });
+        measure(rows, "Validation.isValidPAN", size, count, null, () -> {
+            for (Employee emp : employees) {
+                sink += Validation.isValidPAN(emp.getPanCardNumber()) ? 1 : 0;
+            }
+        });
+        measure(rows, "Validation.isValidDate", size, count, null, () -> {
+            for (String dob : dobs) {
+                sink += Validation.isValidDate(dob) ? 1 : 0;
+            }
+        });
+        measure(rows, "Validation.isValidAge", size, count, null, () -> {
+            for (Employee emp : employees) {
+                sink += Validation.isValidAge(emp.getAge()) ? 1 : 0;
+            }
+        });
+        measure(rows, "Validation.isValidSalary", size, count, null, () -> {
+            for (Employee emp : employees) {
+                sink += Validation.isValidSalary(emp.getSalary()) ? 1 : 0;
+            }
+        });
+        measure(rows, "Validation.isValidGender", size, count, null, () -> {
+            for (Employee emp : employees) {
+                sink += Validation.isValidGender(emp.getGender()) ? 1 : 0;
+            }
+        });
+        measure(rows, "Validation.isValidString", size, count, null, () -> {
+            for (Employee emp : employees) {
+                sink += Validation.isValidString(emp.getAddress(), 5, 100) ? 1 : 0;
+            }
+        });
+        measure(rows, "Validation.isAgeAtLeast18AtJoining", size, count, null, () -> {
+            for (int i = 0; i < count; i++) {
+                sink += Validation.isAgeAtLeast18AtJoining(dobs[i], dojs[i]) ? 1 : 0;
+            }
+        });
+    }
+
+    // runs setup (untimed) + body for the warmup and measured iterations and prints the mean and
+    // best ns per operation; `ops` is how many operations one body call performs
+    private static void measure(List<String> rows, String label, int size, int ops, Runnable setup, Runnable body) {
+        long total = 0;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SUITE_WARMUP_ITERATIONS + SUITE_ITERATIONS; i++) {
+            if (setup != null) {
+                setup.run();
+            }
+            long start = System.nanoTime();
+            body.run();
+            long nanos = System.nanoTime() - start;
+            if (i >= SUITE_WARMUP_ITERATIONS) {
+                total += nanos;
+                best = Math.min(best, nanos);
+            }
+        }
+        double mean = (double) total / SUITE_ITERATIONS / ops;
+        double min = (double) best / ops;
+        System.out.printf("  %-40s %12.1f ns/op  (best %.1f)%n", label, mean, min);
+        rows.add(String.format(Locale.ROOT, "%s,%d,%.1f,%.1f", label, size, mean, min));
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("Check failed: " + message);
+        }
+    }
+
+    private static void report(String label, int ops, long nanos) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("  %-28s %10.2f ms  %14.0f ops/s%n", label, nanos / 1_000_000.0, ops / seconds);
+    }
+
+    private static int[] randomIds(int size, int count, long seed) {
+        Random random = new Random(seed);
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = 1 + random.nextInt(size);
+        }
+        return ids;
+    }
+
+    static Employee syntheticEmployee(int id) {
+        return new Employee(id, syntheticName(id), 30000 + (id % 1000) * 100, 25 + id % 40,
+                id % 2 == 0 ? "Male" : "Female", "Street " + id, "City " + (id % 50),
+                "1990-01-15", "2015-06-01", "Dept " + (id % 20), "Engineer",
+                "ABCDE1234F", "234567890123");
+    }
+
+    // names have to pass Validation.isValidName, so the id is spelled with letters
+    static String syntheticName(int id) {
+        StringBuilder name = new StringBuilder("Employee ");
+        do {
+            name.append((char) ('a' + id % 26));
+            id /= 26;
+        } while (id > 0);
+        return name.toString();
+    }
+
+    // the storage layout EmployeManager used before: a list plus an id map
+    private static class ListBackedRoster {
+        private final List<Employee> employeeList = new ArrayList<>();
+        private final Map<Integer, Employee> employeeById = new HashMap<>();
+
+        void add(Employee emp) {
+            employeeList.add(emp);
+            employeeById.put(emp.getEmployeeId(), emp);
+        }
+
+        void delete(int empId) {
+            Employee emp = employeeById.remove(empId);
+            if (emp != null) {
+                employeeList.remove(emp);
+            }
+        }
+    }
+}
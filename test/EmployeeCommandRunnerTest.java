@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeCommandRunnerTest {
+    private static List<String> run(EmployeeCommandRunner runner, String script, long expectedErrors)
+            throws IOException {
+        StringWriter out = new StringWriter();
+        EmployeeCommandRunner.RunResult result = runner.run(new BufferedReader(new StringReader(script)), out);
+        assertEquals(expectedErrors, result.getErrors(), out.toString());
+        return List.of(out.toString().split("\n"));
+    }
+
+    // a script through run(): one result line (or more) per command, errors reported with their line
+    // number while the rest of the script still runs
+    @Test
+    void runsAScriptAndReportsErrorsByLine() throws IOException {
+        EmployeManager manager = new EmployeManager();
+        EmployeeCommandRunner runner = new EmployeeCommandRunner(manager);
+        String script = String.join("\n",
+                "# two people in Sales",
+                "add 1,\"  Ravi Kumar \",50000,30,Male,\" 12 Park Street \",\" Pune \",1994-03-10,2018-07-01,Sales,Engineer,abcde1234f,234567890123",
+                "add 2,Amit Rao,70000,35,Male,9 Lake Road,Mumbai,1989-05-20,2015-01-12,Sales,Manager,FGHIJ5678K,345678901234",
+                "",
+                "get 1",
+                "raise 1 10",
+                "set-name 2 \"Amit Kumar Rao\"",
+                "find-dept sales",
+                "count",
+                "stats Sales",
+                "stats",
+                "add 3,R2-D2,50000,30,Male,12 Park Street,Pune,1994-03-10,2018-07-01,Sales,Engineer,ABCDE1234F,234567890123",
+                "add 1,Ravi Kumar,50000,30,Male,12 Park Street,Pune,1994-03-10,2018-07-01,Sales,Engineer,ABCDE1234F,234567890123",
+                "get x",
+                "raise 1",
+                "set-dob 1 2023-02-29",
+                "fire 2",
+                "stats Nowhere",
+                "delete 1",
+                "delete 1",
+                "count");
+
+        List<String> lines = new ArrayList<>(run(runner, script, 6));
+        // median and p90 come from the salary sketch and are approximate; min and max are exact
+        for (int i = 9; i <= 10; i++) {
+            String[] columns = lines.get(i).split(",");
+            assertEquals(8, columns.length, lines.get(i));
+            columns[4] = "median";
+            columns[5] = "p90";
+            lines.set(i, String.join(",", columns));
+        }
+        assertEquals(List.of(
+                "added 1",
+                "added 2",
+                "1,Ravi Kumar,50000.0,30,Male,12 Park Street,Pune,1994-03-10,2018-07-01,Sales,Engineer,ABCDE1234F,234567890123",
+                "updated 1",
+                "updated 2",
+                "2 found",
+                "1,Ravi Kumar,55000.0,30,Male,12 Park Street,Pune,1994-03-10,2018-07-01,Sales,Engineer,ABCDE1234F,234567890123",
+                "2,Amit Kumar Rao,70000.0,35,Male,9 Lake Road,Mumbai,1989-05-20,2015-01-12,Sales,Manager,FGHIJ5678K,345678901234",
+                "2",
+                "Sales,2,125000.00,62500.00,median,p90,55000.00,70000.00",
+                "All departments,2,125000.00,62500.00,median,p90,55000.00,70000.00",
+                "error: line 12: invalid employee: isValidName",
+                "error: line 13: employee id already exists: 1",
+                "error: line 14: invalid employee id: x",
+                "error: line 15: expected 2 argument(s), got 1",
+                "error: line 16: invalid date (YYYY-MM-DD): 2023-02-29",
+                "error: line 17: unknown command: fire",
+                "not found: Nowhere",
+                "deleted 1",
+                "not found: 1",
+                "1"), lines);
+
+        assertEquals("Amit Kumar Rao", manager.searchById(2).getName());
+        Map<String, LatencyHistogram> latencies = runner.getLatencies();
+        assertEquals(4, latencies.get("add").getCount());
+        assertEquals(1, latencies.get("unknown").getCount());
+    }
+
+    @Test
+    void addStoresTrimmedValues() throws IOException {
+        EmployeManager manager = new EmployeManager();
+        EmployeeCommandRunner runner = new EmployeeCommandRunner(manager);
+        run(runner, "add 7,\"\tNeha Shah  \",60000,28,Female,\"  4 Hill View \",\"\tKochi\t\",1996-02-29,2014-03-01,"
+                + "Support,Engineer,KLMNO1234P,456789012345", 0);
+        Employee neha = manager.searchById(7);
+        assertEquals("Neha Shah", neha.getName());
+        assertEquals("4 Hill View", neha.getAddress());
+        assertEquals("Kochi", neha.getCity());
+        assertEquals(1, manager.searchByName("Neha Shah").size());
+
+        // 18 only on 1 Mar 2014 for someone born on 29 Feb 1996
+        assertEquals(List.of("error: line 1: invalid employee: isAgeAtLeast18AtJoining"),
+                run(runner, "add 8,Neha Shah,60000,28,Female,4 Hill View,Kochi,1996-02-29,2014-02-28,"
+                        + "Support,Engineer,KLMNO1234P,456789012345", 1));
+    }
+}
@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeCsvImporterTest {
+    @TempDir
+    Path dir;
+
+    // rows are parsed and validated on the pool in small batches; every bad row must still be
+    // reported with the rules it broke, and every good row imported
+    @Test
+    void importsValidRowsAndReportsEveryRejectedOne() throws Exception {
+        int size = 2_000;
+        EmployeeDataGenerator generator = new EmployeeDataGenerator();
+        Path csv = dir.resolve("employees.csv");
+        Map<Long, String> expectedRules = new HashMap<>();
+        try (BufferedWriter out = Files.newBufferedWriter(csv)) {
+            out.write("id,name,salary,age,gender,address,city,dob,doj,department,designation,pan,aadhaar");
+            out.newLine();
+            for (int i = 1; i <= size; i++) {
+                Employee emp = generator.employee(i);
+                String name = emp.getName();
+                String salary = String.valueOf(emp.getSalary());
+                String pan = emp.getPanCardNumber();
+                long line = i + 1;
+                if (i % 100 == 0) {
+                    pan = "BAD";
+                    expectedRules.put(line, "isValidPAN");
+                } else if (i % 100 == 1) {
+                    salary = "Infinity";
+                    expectedRules.put(line, "isValidSalary");
+                } else if (i % 100 == 2) {
+                    name = "R2-D2";
+                    salary = "-5";
+                    expectedRules.put(line, "isValidName;isValidSalary");
+                }
+                out.write(emp.getEmployeeId() + "," + EmployeeCsvImporter.quote(name) + "," + salary + ","
+                        + emp.getAge() + "," + emp.getGender() + "," + EmployeeCsvImporter.quote(emp.getAddress())
+                        + "," + emp.getCity() + "," + emp.getDob() + "," + emp.getDoj() + ","
+                        + emp.getDepartmentName() + "," + emp.getDesignation() + "," + pan + ","
+                        + emp.getAadharNumber());
+                out.newLine();
+            }
+            // a duplicate id and a short row
+            out.write(generator.employee(5).getEmployeeId() + ",Someone Else,50000,30,Male,1 Main Road,Pune,"
+                    + "1990-01-01,2015-01-01,Dept 1,Engineer,ABCDE1234F,234567890123");
+            out.newLine();
+            expectedRules.put((long) size + 2, "duplicateEmployeeId");
+            out.write("9999,Short Row");
+            out.newLine();
+            expectedRules.put((long) size + 3, "columnCount");
+        }
+
+        EmployeManager manager = new EmployeManager();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Path errors = dir.resolve("errors.csv");
+        EmployeeCsvImporter.ImportResult result;
+        try {
+            result = new EmployeeCsvImporter(manager, pool, 64).importFile(csv, errors);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(size + 2, result.getRowsRead());
+        assertEquals(expectedRules.size(), result.getRejected());
+        assertEquals(size + 2 - expectedRules.size(), result.getImported());
+        assertEquals(result.getImported(), manager.getEmployeeCount());
+
+        Map<Long, String> reported = new HashMap<>();
+        List<String> lines = Files.readAllLines(errors);
+        assertEquals("line,rule,record", lines.get(0));
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> fields = EmployeeCsvImporter.splitCsvLine(line);
+            reported.put(Long.parseLong(fields.get(0)), fields.get(1));
+        }
+        assertEquals(expectedRules, reported);
+
+        Employee imported = manager.findById(3);
+        assertEquals(generator.employee(3).getName(), imported.getName());
+        assertEquals(generator.employee(3).getSalary(), imported.getSalary());
+        assertNull(manager.findById(100));
+        assertEquals(generator.employee(5).getName(), manager.findById(5).getName());
+    }
+}
@@ -0,0 +1,128 @@
+import java.util.SplittableRandom;
+
+// Reproducible synthetic rosters for benchmarks and load tests.
+//
+// Employee i is derived from (seed, i) only, so the same seed always gives the same roster no
+// matter the roster size or the order employees are generated in. Every generated employee passes
+// the checks Main.addEmployee() applies. Departments and cities are skewed (a few big ones, a long
+// tail of small ones) and names repeat, which is closer to a real roster than round-robin data.
+public class EmployeeDataGenerator {
+    public static final long DEFAULT_SEED = 20240601L;
+
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Vivaan", "Aditya", "Vihaan", "Arjun", "Sai", "Reyansh", "Ayaan", "Krishna", "Ishaan",
+            "Ananya", "Diya", "Aadhya", "Saanvi", "Pari", "Anika", "Navya", "Myra", "Sara", "Ira",
+            "Rahul", "Priya", "Amit", "Neha", "Rohan", "Pooja", "Vikram", "Kavya", "Karan", "Meera",
+            "John", "Maria", "David", "Sofia", "James", "Emma", "Daniel", "Olivia", "Ravi", "Lakshmi" };
+    private static final String[] LAST_NAMES = {
+            "Sharma", "Verma", "Gupta", "Singh", "Kumar", "Patel", "Reddy", "Iyer", "Nair", "Rao",
+            "Mehta", "Joshi", "Das", "Bose", "Chopra", "Malhotra", "Kapoor", "Khan", "Pillai", "Menon",
+            "Agarwal", "Bhat", "Desai", "Ghosh", "Mishra", "Pandey", "Saxena", "Shetty", "Thomas", "Fernandes" };
+    private static final String[] CITIES = {
+            "Bengaluru", "Mumbai", "Delhi", "Hyderabad", "Pune", "Chennai", "Kolkata", "Ahmedabad",
+            "Jaipur", "Kochi", "Indore", "Lucknow", "Chandigarh", "Nagpur", "Coimbatore", "Bhopal" };
+    private static final String[] DESIGNATIONS = {
+            "Engineer", "Senior Engineer", "Lead", "Manager", "Analyst", "Associate", "Director", "Intern" };
+    private static final String[] GENDERS = { "Male", "Female", "Other" };
+
+    private final long seed;
+    private final int departments;
+
+    public EmployeeDataGenerator() {
+        this(DEFAULT_SEED, 25);
+    }
+
+    public EmployeeDataGenerator(long seed, int departments) {
+        this.seed = seed;
+        this.departments = Math.max(1, departments);
+    }
+
+    public int getDepartmentCount() {
+        return departments;
+    }
+
+    // department names are "Dept 0".."Dept n-1"; low numbers are the big departments
+    public String department(int index) {
+        return "Dept " + index;
+    }
+
+    public Employee employee(int id) {
+        SplittableRandom random = random(id);
+
+        String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String gender = GENDERS[random.nextInt(20) == 0 ? 2 : random.nextInt(2)];
+        String city = CITIES[skewed(random, CITIES.length)];
+        String address = (1 + random.nextInt(999)) + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " Road";
+        String department = department(skewed(random, departments));
+        String designation = DESIGNATIONS[random.nextInt(DESIGNATIONS.length)];
+
+        // joined between 2000 and 2024, at least 18 at joining and between 18 and 65 today
+        int doj = EpochDays.of(2000, 1, 1) + random.nextInt(25 * 365);
+        int dob = doj - 18 * 366 - random.nextInt(25 * 365);
+        int age = Math.max(18, Math.min(65, EpochDays.yearsBetween(dob, EpochDays.of(2024, 6, 1))));
+
+        // 20k - 2M, most people near the bottom
+        double salary = Math.round(20_000 * Math.pow(100, random.nextDouble() * random.nextDouble()));
+
+        return new Employee(id, name, salary, age, gender, address, city, dob, doj, department, designation,
+                pan(random), aadhaar(random));
+    }
+
+    public Employee[] employees(int count) {
+        Employee[] roster = new Employee[count];
+        for (int i = 0; i < count; i++) {
+            roster[i] = employee(i + 1);
+        }
+        return roster;
+    }
+
+    public EmployeManager roster(int count) {
+        EmployeManager manager = new EmployeManager();
+        for (int i = 1; i <= count; i++) {
+            manager.addEmployee(employee(i));
+        }
+        return manager;
+    }
+
+    // ids in [1, size] drawn from a fixed stream, for lookups and updates
+    public int[] randomIds(int size, int count) {
+        SplittableRandom random = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = 1 + random.nextInt(size);
+        }
+        return ids;
+    }
+
+    private SplittableRandom random(int id) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + id);
+    }
+
+    // index in [0, n), heavily biased towards the low end
+    private static int skewed(SplittableRandom random, int n) {
+        double u = random.nextDouble();
+        return Math.min(n - 1, (int) (n * u * u * u));
+    }
+
+    private static String pan(SplittableRandom random) {
+        char[] pan = new char[10];
+        for (int i = 0; i < 5; i++) {
+            pan[i] = (char) ('A' + random.nextInt(26));
+        }
+        for (int i = 5; i < 9; i++) {
+            pan[i] = (char) ('0' + random.nextInt(10));
+        }
+        pan[9] = (char) ('A' + random.nextInt(26));
+        return new String(pan);
+    }
+
+    private static String aadhaar(SplittableRandom random) {
+        char[] aadhaar = new char[12];
+        aadhaar[0] = (char) ('2' + random.nextInt(8));
+        for (int i = 1; i < 12; i++) {
+            aadhaar[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(aadhaar);
+    }
+}
@@ -0,0 +1,200 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the server on a free loopback port against a generated roster and talks to it over HTTP.
+class EmployeeHttpServerTest {
+    private static final int SIZE = 500;
+
+    private final EmployeeDataGenerator generator = new EmployeeDataGenerator();
+    private ConcurrentEmployeManager manager;
+    private EmployeeHttpServer server;
+    private HttpClient client;
+    private String base;
+
+    @BeforeEach
+    void start() throws Exception {
+        start(new ConcurrentEmployeManager());
+    }
+
+    private void start(ConcurrentEmployeManager manager) throws Exception {
+        if (server != null) {
+            server.close();
+        }
+        this.manager = manager;
+        manager.addEmployees(Arrays.asList(generator.employees(SIZE)));
+        server = new EmployeeHttpServer(manager, 0).start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        base = "http://127.0.0.1:" + server.getPort();
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+    }
+
+    // the load generator of the benchmark's http mode, smaller: concurrent clients mixing lookups,
+    // raises, searches and stats. Every request must succeed, and the 1% raises sent to one employee
+    // must all land.
+    @Test
+    void concurrentClientsSeeNoFailuresOrLostRaises() throws Exception {
+        int clients = 32;
+        int requests = 4_000;
+        int hotId = 7;
+        manager.updateSalaryById(hotId, 1_000);
+        AtomicInteger failed = new AtomicInteger();
+        int raises = 0;
+        Semaphore inFlight = new Semaphore(clients);
+        CountDownLatch done = new CountDownLatch(requests);
+        Random random = new Random(22);
+        for (int i = 0; i < requests; i++) {
+            int id = 1 + random.nextInt(SIZE);
+            int pick = random.nextInt(100);
+            HttpRequest.Builder request;
+            if (pick < 60) {
+                request = HttpRequest.newBuilder(URI.create(base + "/employees/" + id));
+            } else if (pick < 70) {
+                raises++;
+                request = HttpRequest.newBuilder(URI.create(base + "/employees/" + hotId))
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"raisePercent\":1}"));
+            } else if (pick < 85) {
+                request = HttpRequest.newBuilder(URI.create(base + "/employees/"
+                        + (id == hotId ? hotId + 1 : id)))
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"raisePercent\":0.5}"));
+            } else if (pick < 95) {
+                request = HttpRequest.newBuilder(URI.create(base + "/employees/search?department="
+                        + generator.department(random.nextInt(generator.getDepartmentCount())).replace(" ", "%20")
+                        + "&minAge=30&maxAge=40&sort=salary&descending=true&limit=20"));
+            } else {
+                request = HttpRequest.newBuilder(URI.create(base + "/stats"));
+            }
+            inFlight.acquire();
+            client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() >= 300) {
+                            failed.incrementAndGet();
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        assertTrue(done.await(2, TimeUnit.MINUTES), "requests still running");
+
+        double expected = 1_000;
+        for (int i = 0; i < raises; i++) {
+            expected = expected + (expected * 1 / 100);
+        }
+        assertEquals(0, failed.get(), "failed requests");
+        assertEquals(expected, manager.searchById(hotId).getSalary(), 1e-6, "lost raises");
+        assertEquals(SIZE, manager.getEmployeeCount());
+    }
+
+    @Test
+    void rejectsNumbersThatOverflowToInfinity() throws Exception {
+        double before = manager.getPayrollStats().getTotalSalary();
+
+        HttpResponse<String> response = post("/salary-revisions", "{\"changes\":[{\"all\":true,\"salary\":1e400}]}");
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("number out of range"), response.body());
+
+        response = patch("/employees/1", "{\"salary\":-1e400}");
+        assertEquals(400, response.statusCode());
+
+        // finite on the wire, but the raise takes every salary past the cap
+        response = post("/salary-revisions", "{\"changes\":[{\"all\":true,\"raisePercent\":1e300}]}");
+        assertEquals(409, response.statusCode());
+        assertTrue(response.body().contains("\"committed\":false"), response.body());
+
+        assertEquals(before, manager.getPayrollStats().getTotalSalary());
+    }
+
+    @Test
+    void acceptsEveryIntIdAndRejectsTheRest() throws Exception {
+        HttpResponse<String> response = post("/salary-revisions",
+                "{\"changes\":[{\"employeeId\":-2147483648,\"salary\":5}]}");
+        assertEquals(409, response.statusCode());
+        assertTrue(response.body().contains("Employee -2147483648 not found"), response.body());
+
+        response = post("/salary-revisions", "{\"changes\":[{\"employeeId\":-2147483649,\"salary\":5}]}");
+        assertEquals(400, response.statusCode());
+        response = post("/salary-revisions", "{\"changes\":[{\"employeeId\":2147483648,\"salary\":5}]}");
+        assertEquals(400, response.statusCode());
+    }
+
+    // every int is a valid id, so the first page has to include Integer.MIN_VALUE
+    @Test
+    void pagingVisitsEveryIdOnce() throws Exception {
+        Employee lowest = generator.employee(SIZE + 1);
+        manager.addEmployee(new Employee(Integer.MIN_VALUE, lowest.getName(), lowest.getSalary(), lowest.getAge(),
+                lowest.getGender(), lowest.getAddress(), lowest.getCity(), lowest.getDobEpochDay(),
+                lowest.getDojEpochDay(), lowest.getDepartmentName(), lowest.getDesignation(),
+                lowest.getPanCardNumber(), lowest.getAadharNumber()));
+
+        List<Integer> ids = new ArrayList<>();
+        String next = null;
+        do {
+            HttpResponse<String> response = get("/employees?limit=64" + (next == null ? "" : "&afterId=" + next));
+            assertEquals(200, response.statusCode());
+            Matcher id = Pattern.compile("\"id\":(-?\\d+)").matcher(response.body());
+            while (id.find()) {
+                ids.add(Integer.parseInt(id.group(1)));
+            }
+            Matcher cursor = Pattern.compile("\"nextAfterId\":(-?\\d+|null)").matcher(response.body());
+            assertTrue(cursor.find(), response.body());
+            next = cursor.group(1).equals("null") ? null : cursor.group(1);
+        } while (next != null);
+
+        assertEquals(SIZE + 1, ids.size());
+        assertEquals(Integer.MIN_VALUE, ids.get(0));
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) < ids.get(i), "id order");
+        }
+        try (RosterSnapshot snapshot = manager.snapshot()) {
+            assertEquals(Integer.MIN_VALUE, snapshot.getEmployeesAfter(null, 1).get(0).getEmployeeId());
+            assertEquals(1, snapshot.getEmployeesAfter(Integer.MIN_VALUE, 1).get(0).getEmployeeId());
+        }
+    }
+
+    @Test
+    void internalErrorsDoNotLeakDetails() throws Exception {
+        start(new ConcurrentEmployeManager() {
+            @Override
+            public DepartmentStats getPayrollStats() {
+                throw new IllegalStateException("secret internal state");
+            }
+        });
+        HttpResponse<String> response = get("/stats");
+        assertEquals(500, response.statusCode());
+        assertEquals("{\"error\":\"internal server error\"}", response.body());
+
+        // the server keeps serving
+        assertEquals(200, get("/employees/1").statusCode());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(base + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(base + path))
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> patch(String path, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(base + path))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(json)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,195 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeJournalTest {
+    @TempDir
+    Path dir;
+
+    private static Employee employee(int id, String name, double salary, String dept) {
+        return new Employee(id, name, salary, 30, "Male", "12 Park Street", "Pune", "1994-03-10",
+                "2018-07-01", dept, "Engineer", "ABCDE1234F", "234567890123");
+    }
+
+    private static List<List<Object>> rows(EmployeManager manager) {
+        List<List<Object>> rows = new ArrayList<>();
+        for (Employee emp : manager.getAllEmployees()) {
+            rows.add(Arrays.asList(emp.getEmployeeId(), emp.getName(), emp.getSalary(), emp.getAddress(),
+                    emp.getDob(), emp.getDepartmentName()));
+        }
+        return rows;
+    }
+
+    // one record per kind of change; returns the journaled manager
+    private EmployeManager journaledChanges(EmployeeJournal journal) {
+        EmployeManager manager = new EmployeManager();
+        manager.setJournal(journal);
+        manager.addEmployees(List.of(employee(1, "Ravi Kumar", 50_000, "Sales"),
+                employee(2, "Amit Rao", 60_000, "Sales"), employee(3, "Neha Shah", 70_000, "Support")));
+        manager.addEmployee(employee(4, "Asha Iyer", 80_000, "Support"));
+        manager.updateSalaryById(1, 55_000);
+        manager.updateSalaryByPercentageById(2, 10);
+        manager.updateSalaryByPercentageByDepartment("Support", 5);
+        manager.updateName(3, "Neha Sharma");
+        manager.updateAddress(4, "9 Lake Road");
+        manager.updateDob(4, "1990-01-31");
+        manager.deleteEmployee(1);
+        assertTrue(manager.beginSalaryRevision().setSalary(2, 61_000).raiseDepartment("Support", 1).commit());
+        return manager;
+    }
+
+    // offset and length of every record in a journal file, read the way replay does
+    private static List<int[]> records(byte[] bytes) {
+        List<int[]> records = new ArrayList<>();
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        while (in.remaining() >= 4) {
+            int start = in.position();
+            int length = in.getInt();
+            in.position(start + 4 + length + 4);
+            records.add(new int[] { start, 4 + length + 4 });
+        }
+        return records;
+    }
+
+    @Test
+    void replayRebuildsTheRoster() throws IOException {
+        Path file = dir.resolve("roster.journal");
+        EmployeManager original;
+        try (EmployeeJournal journal = new EmployeeJournal(file)) {
+            original = journaledChanges(journal);
+            assertEquals(12, journal.getLastSequence());
+            assertEquals(12, journal.getSyncedSequence());
+        }
+
+        EmployeManager recovered = new EmployeManager();
+        try (EmployeeJournal journal = new EmployeeJournal(file)) {
+            assertEquals(12, journal.replay(recovered, 0));
+            assertEquals(12, journal.getLastSequence());
+        }
+        assertEquals(rows(original), rows(recovered));
+
+        // a snapshot taken after record 5 already has the first five
+        EmployeManager fromFive = new EmployeManager();
+        try (EmployeeJournal journal = new EmployeeJournal(file)) {
+            assertEquals(7, journal.replay(fromFive, 5));
+        }
+    }
+
+    // a crash in the middle of a write leaves half a record; replay stops before it, cuts it off
+    // and appends after the last good record
+    @Test
+    void tornTailIsCutOff() throws IOException {
+        Path file = dir.resolve("roster.journal");
+        try (EmployeeJournal journal = new EmployeeJournal(file)) {
+            journaledChanges(journal);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        int[] last = records(bytes).get(11);
+        Files.write(file, Arrays.copyOf(bytes, last[0] + last[1] - 3));
+
+        EmployeManager recovered = new EmployeManager();
+        try (EmployeeJournal journal = new EmployeeJournal(file)) {
+            assertEquals(11, journal.replay(recovered, 0));
+            assertEquals(11, journal.getLastSequence());
+            assertEquals(last[0], Files.size(file));
+            recovered.setJournal(journal);
+            recovered.updateSalaryById(2, 99_000);
+            assertEquals(12, journal.getLastSequence());
+        }
+
+        EmployeManager again = new EmployeManager();
+        try (EmployeeJournal journal = new EmployeeJournal(file)) {
+            assertEquals(12, journal.replay(again, 0));
+        }
+        assertEquals(99_000, again.searchById(2).getSalary());
+        assertEquals(rows(recovered), rows(again));
+    }
+
+    // a flipped byte fails the record's CRC: nothing from there on is applied
+    @Test
+    void corruptRecordStopsReplay() throws IOException {
+        Path file = dir.resolve("roster.journal");
+        try (EmployeeJournal journal = new EmployeeJournal(file)) {
+            journaledChanges(journal);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        int[] fifth = records(bytes).get(4); // updateSalaryById(1, 55_000)
+        bytes[fifth[0] + fifth[1] - 6] ^= 0x40;
+        Files.write(file, bytes);
+
+        EmployeManager recovered = new EmployeManager();
+        try (EmployeeJournal journal = new EmployeeJournal(file)) {
+            assertEquals(4, journal.replay(recovered, 0));
+            assertEquals(fifth[0], Files.size(file));
+        }
+        assertEquals(4, recovered.getEmployeeCount());
+        assertEquals(50_000, recovered.searchById(1).getSalary());
+    }
+
+    // with group commit a change is written and fsynced before the call returns, also when several
+    // threads log at once; with async mode it may still be in the buffer
+    @Test
+    void groupCommitAcknowledgesOnlyDurableChanges() throws Exception {
+        Path file = dir.resolve("group.journal");
+        ConcurrentEmployeManager manager = new ConcurrentEmployeManager();
+        for (int id = 1; id <= 100; id++) {
+            manager.addEmployee(employee(id, "Employee", 1_000, "Sales"));
+        }
+        try (EmployeeJournal journal = new EmployeeJournal(file)) {
+            assertEquals(EmployeeJournal.Durability.GROUP_COMMIT, journal.getDurability());
+            manager.setJournal(journal);
+            List<Thread> threads = new ArrayList<>();
+            List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+            for (int t = 0; t < 4; t++) {
+                int first = t;
+                Thread thread = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < 50; i++) {
+                            assertTrue(manager.updateSalaryByPercentageById(1 + first + 4 * (i % 25), 1));
+                            // everything this thread logged so far is on disk
+                            assertTrue(journal.getSyncedSequence() >= i + 1);
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(List.of(), failures);
+            assertEquals(200, journal.getSyncedSequence());
+
+            // the file already holds every acknowledged change, before close()
+            EmployeManager copy = new EmployeManager();
+            for (int id = 1; id <= 100; id++) {
+                copy.addEmployee(employee(id, "Employee", 1_000, "Sales"));
+            }
+            try (EmployeeJournal reader = new EmployeeJournal(file)) {
+                assertEquals(200, reader.replay(copy, 0));
+            }
+            assertEquals(rows(manager), rows(copy));
+        }
+
+        Path async = dir.resolve("async.journal");
+        try (EmployeeJournal journal = new EmployeeJournal(async, 1_000, 0)) {
+            EmployeManager buffered = new EmployeManager();
+            buffered.setJournal(journal);
+            buffered.addEmployee(employee(1, "Ravi Kumar", 50_000, "Sales"));
+            assertEquals(0, Files.size(async));
+            assertEquals(0, journal.getSyncedSequence());
+            journal.sync();
+            assertTrue(Files.size(async) > 0);
+            assertEquals(1, journal.getSyncedSequence());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeQueryTest {
+    private static final int SIZE = 5_000;
+    private static final EmployeeDataGenerator GENERATOR = new EmployeeDataGenerator();
+    private static final EmployeManager MANAGER = GENERATOR.roster(SIZE);
+
+    private static EmployeeQuery.Access access(EmployeeQuery query) {
+        return query.plan(MANAGER).access();
+    }
+
+    // departments are skewed: "Dept 0" is the biggest, "Dept 24" one of the smallest
+    @Test
+    void plannerWalksTheIndexWithTheFewestRows() {
+        int small = MANAGER.searchByDepartment("Dept 24").size();
+        int big = MANAGER.searchByDepartment("Dept 0").size();
+        long topEarners = MANAGER.countEmployeesInSalaryRange(null, 500_000, 2_000_000);
+        assertTrue(small < topEarners && topEarners < big, small + " / " + topEarners + " / " + big);
+
+        assertEquals(EmployeeQuery.Access.DEPARTMENT, access(MANAGER.query().department("Dept 24")));
+        assertEquals(EmployeeQuery.Access.SALARY, access(MANAGER.query().salaryBetween(500_000, 2_000_000)));
+        assertEquals(EmployeeQuery.Access.ALL, access(MANAGER.query().city("Pune").ageBetween(30, 40)));
+        // both indexed: the smaller side wins
+        assertEquals(EmployeeQuery.Access.SALARY,
+                access(MANAGER.query().department("Dept 0").salaryBetween(500_000, 2_000_000)));
+        assertEquals(EmployeeQuery.Access.DEPARTMENT,
+                access(MANAGER.query().department("dept 24").salaryBetween(500_000, 2_000_000)));
+        // a top-10 by salary walks the salary index from the top and stops early
+        assertEquals(EmployeeQuery.Access.SALARY,
+                access(MANAGER.query().orderByDescending(EmployeeQuery.SortKey.SALARY).limit(10)));
+        // a department is walked in id order too, so a limit stops there after a few rows
+        assertEquals(EmployeeQuery.Access.DEPARTMENT, access(MANAGER.query().department("Dept 0").limit(5)));
+        assertEquals(5, MANAGER.query().department("Dept 0").limit(5).plan(MANAGER).scanned());
+
+        assertEquals("Walk department index (Dept 24, " + small + " rows), check city, sort by SALARY",
+                MANAGER.query().department("Dept 24").city("Pune").orderBy(EmployeeQuery.SortKey.SALARY).explain());
+        assertEquals("Walk salary index (descending, " + SIZE + " rows, about 10 until the limit), stop after 10",
+                MANAGER.query().orderByDescending(EmployeeQuery.SortKey.SALARY).limit(10).explain());
+        assertTrue(MANAGER.query().department("Nowhere").explain().startsWith("No match possible"));
+        assertEquals(List.of(), MANAGER.query().department("Nowhere").list());
+    }
+
+    // random combinations of criteria, order and limit against filtering and sorting everyone
+    @Test
+    void resultsMatchABruteForceFilter() {
+        Random random = new Random(18);
+        String[] cities = { null, "Pune", "bengaluru", "Kochi" };
+        String[] designations = { null, "Engineer", "MANAGER" };
+        String[] genders = { null, "Female", "other" };
+        EmployeeQuery.SortKey[] keys = EmployeeQuery.SortKey.values();
+        List<Employee> everyone = MANAGER.getAllEmployees();
+        Set<EmployeeQuery.Access> used = EnumSet.noneOf(EmployeeQuery.Access.class);
+
+        for (int i = 0; i < 400; i++) {
+            EmployeeQuery query = MANAGER.query();
+            List<Predicate<Employee>> criteria = new ArrayList<>();
+            if (random.nextInt(3) == 0) {
+                String dept = GENERATOR.department(random.nextInt(GENERATOR.getDepartmentCount()));
+                query.department(dept);
+                criteria.add(emp -> emp.getDepartmentName().equalsIgnoreCase(dept));
+            }
+            String city = cities[random.nextInt(cities.length)];
+            if (city != null) {
+                query.city(city);
+                criteria.add(emp -> emp.getCity().equalsIgnoreCase(city));
+            }
+            String designation = designations[random.nextInt(designations.length)];
+            if (designation != null) {
+                query.designation(designation);
+                criteria.add(emp -> emp.getDesignation().equalsIgnoreCase(designation));
+            }
+            String gender = genders[random.nextInt(genders.length)];
+            if (gender != null) {
+                query.gender(gender);
+                criteria.add(emp -> emp.getGender().equalsIgnoreCase(gender));
+            }
+            if (random.nextInt(3) == 0) {
+                int minAge = 20 + random.nextInt(30);
+                int maxAge = minAge + random.nextInt(15);
+                query.ageBetween(minAge, maxAge);
+                criteria.add(emp -> emp.getAge() >= minAge && emp.getAge() <= maxAge);
+            }
+            if (random.nextInt(2) == 0) {
+                // the same salary at both ends now and then, and exact salaries at the ends
+                double minSalary = everyone.get(random.nextInt(SIZE)).getSalary();
+                double maxSalary = random.nextInt(5) == 0 ? minSalary
+                        : minSalary + random.nextInt(3) * 1e6 * random.nextDouble();
+                query.salaryBetween(minSalary, maxSalary);
+                criteria.add(emp -> emp.getSalary() >= minSalary && emp.getSalary() <= maxSalary);
+            }
+            if (random.nextInt(4) == 0) {
+                int fromYear = 2000 + random.nextInt(20);
+                String from = fromYear + "-03-01";
+                String to = (fromYear + random.nextInt(6)) + "-02-28";
+                query.joinedBetween(from, to);
+                criteria.add(emp -> emp.getDoj().compareTo(from) >= 0 && emp.getDoj().compareTo(to) <= 0);
+            }
+            EmployeeQuery.SortKey key = keys[random.nextInt(keys.length)];
+            boolean descending = random.nextBoolean();
+            if (descending) {
+                query.orderByDescending(key);
+            } else {
+                query.orderBy(key);
+            }
+            int limit = random.nextInt(3) == 0 ? Integer.MAX_VALUE : random.nextInt(40);
+            query.limit(limit);
+
+            List<Employee> expected = new ArrayList<>();
+            for (Employee emp : everyone) {
+                if (criteria.stream().allMatch(test -> test.test(emp))) {
+                    expected.add(emp);
+                }
+            }
+            expected.sort(order(key, descending));
+            List<Employee> actual = query.list();
+            used.add(access(query));
+            assertEquals(ids(expected.subList(0, Math.min(limit, expected.size()))), ids(actual),
+                    query.explain());
+        }
+        assertEquals(EnumSet.allOf(EmployeeQuery.Access.class), used);
+    }
+
+    private static Comparator<Employee> order(EmployeeQuery.SortKey key, boolean descending) {
+        Comparator<Employee> byKey;
+        switch (key) {
+            case NAME:
+                byKey = Comparator.comparing(Employee::getName, String.CASE_INSENSITIVE_ORDER);
+                break;
+            case SALARY:
+                byKey = Comparator.comparingDouble(Employee::getSalary);
+                break;
+            case AGE:
+                byKey = Comparator.comparingInt(Employee::getAge);
+                break;
+            case JOINING_DATE:
+                byKey = Comparator.comparing(Employee::getDoj);
+                break;
+            default:
+                byKey = (a, b) -> 0;
+        }
+        Comparator<Employee> order = byKey.thenComparingInt(Employee::getEmployeeId);
+        return descending ? order.reversed() : order;
+    }
+
+    private static List<Integer> ids(List<Employee> employees) {
+        List<Integer> ids = new ArrayList<>();
+        for (Employee emp : employees) {
+            ids.add(emp.getEmployeeId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,182 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSnapshotStoreTest {
+    private static final int MAGIC = 0x454D5331;
+
+    @TempDir
+    Path dir;
+
+    private static List<Object> fields(Employee emp) {
+        return Arrays.asList(emp.getEmployeeId(), emp.getName(), emp.getSalary(), emp.getAge(), emp.getGender(),
+                emp.getAddress(), emp.getCity(), emp.getDob(), emp.getDoj(), emp.getDepartmentName(),
+                emp.getDesignation(), emp.getPanCardNumber(), emp.getAadharNumber());
+    }
+
+    private static void assertSameRoster(EmployeManager expected, EmployeManager actual) {
+        List<Employee> want = expected.getAllEmployees();
+        List<Employee> got = actual.getAllEmployees();
+        assertEquals(want.size(), got.size());
+        for (int i = 0; i < want.size(); i++) {
+            assertEquals(fields(want.get(i)), fields(got.get(i)));
+        }
+    }
+
+    // every field comes back, and the indexes loadAll builds in bulk answer like the ones built
+    // by adding one employee at a time
+    @Test
+    void roundTripKeepsEveryFieldAndIndex() throws IOException {
+        EmployeManager original = new EmployeManager();
+        original.addEmployees(List.of(new EmployeeDataGenerator().employees(2_000)));
+        EmployeeSnapshotStore store = new EmployeeSnapshotStore(dir.resolve("roster.snapshot"));
+        store.save(original);
+
+        EmployeManager loaded = new EmployeManager();
+        assertEquals(2_000, new EmployeeSnapshotStore(store.getFile()).load(loaded));
+        assertSameRoster(original, loaded);
+
+        Employee some = original.getAllEmployees().get(777);
+        String first = some.getName().split(" ")[0];
+        assertEquals(ids(original.searchByNamePrefix(first, 50)), ids(loaded.searchByNamePrefix(first, 50)));
+        assertEquals(ids(original.searchByNameFuzzy(some.getName().substring(1), 2, 50)),
+                ids(loaded.searchByNameFuzzy(some.getName().substring(1), 2, 50)));
+        assertEquals(ids(original.getTopSalaryEmployees(25)), ids(loaded.getTopSalaryEmployees(25)));
+        assertEquals(original.getSalaryRank(some.getEmployeeId()), loaded.getSalaryRank(some.getEmployeeId()));
+        for (DepartmentStats stats : original.getAllDepartmentStats()) {
+            DepartmentStats other = loaded.getDepartmentStats(stats.getDepartment());
+            assertEquals(stats.getHeadcount(), other.getHeadcount());
+            assertEquals(stats.getMinSalary(), other.getMinSalary());
+            assertEquals(stats.getMaxSalary(), other.getMaxSalary());
+        }
+
+        // loaded rows belong to the new manager and can be changed there
+        assertTrue(loaded.updateSalaryById(some.getEmployeeId(), 1));
+        assertEquals(1, loaded.getLowestSalaryEmployee().getSalary());
+        assertTrue(loaded.deleteEmployee(some.getEmployeeId()));
+        assertNull(loaded.searchById(some.getEmployeeId()));
+    }
+
+    // into a manager that already has people, ids it knows are skipped
+    @Test
+    void loadingIntoANonEmptyManagerSkipsKnownIds() throws IOException {
+        Employee[] rows = new EmployeeDataGenerator().employees(100);
+        EmployeManager original = new EmployeManager();
+        original.addEmployees(List.of(rows));
+        EmployeeSnapshotStore store = new EmployeeSnapshotStore(dir.resolve("roster.snapshot"));
+        store.save(original);
+
+        EmployeManager manager = new EmployeManager();
+        manager.addEmployees(List.of(new EmployeeDataGenerator().employees(40)));
+        assertEquals(60, store.load(manager));
+        assertEquals(100, manager.getAllEmployees().size());
+        assertSameRoster(original, manager);
+    }
+
+    // versions 1 and 2 stored DOB/DOJ as pooled strings; version 1 had no journal sequence
+    @Test
+    void readsVersionOneAndTwoFiles() throws IOException {
+        Employee[] rows = new EmployeeDataGenerator().employees(50);
+        for (int version = 1; version <= 2; version++) {
+            Path file = dir.resolve("v" + version + ".snapshot");
+            Files.write(file, legacyFile(version, rows, 42));
+            EmployeeSnapshotStore store = new EmployeeSnapshotStore(file);
+            EmployeManager manager = new EmployeManager();
+
+            assertEquals(rows.length, store.load(manager));
+            assertEquals(version == 1 ? 0 : 42, store.getJournalSequence());
+            for (Employee emp : rows) {
+                assertEquals(fields(emp), fields(manager.searchById(emp.getEmployeeId())));
+            }
+        }
+    }
+
+    // a damaged file fails the whole load with an IOException and adds nobody
+    @Test
+    void truncatedOrCorruptFilesAreRejected() throws IOException {
+        EmployeManager original = new EmployeManager();
+        original.addEmployees(List.of(new EmployeeDataGenerator().employees(200)));
+        Path file = dir.resolve("roster.snapshot");
+        new EmployeeSnapshotStore(file).save(original);
+        byte[] good = Files.readAllBytes(file);
+        long recordsOffset = ByteBuffer.wrap(good).getLong(16);
+
+        List<byte[]> damaged = new ArrayList<>();
+        damaged.add(Arrays.copyOf(good, good.length - 1)); // last record cut short
+        damaged.add(Arrays.copyOf(good, 20)); // not even a header
+        byte[] badMagic = good.clone();
+        badMagic[0] = 'X';
+        damaged.add(badMagic);
+        byte[] badVersion = good.clone();
+        ByteBuffer.wrap(badVersion).putInt(4, 9);
+        damaged.add(badVersion);
+        byte[] badLength = good.clone();
+        ByteBuffer.wrap(badLength).putInt(32, Integer.MAX_VALUE); // first string runs past the pool
+        damaged.add(badLength);
+        byte[] badRef = good.clone();
+        ByteBuffer.wrap(badRef).putInt((int) recordsOffset + 46, 1_000_000); // name of the first record
+        damaged.add(badRef);
+
+        for (byte[] bytes : damaged) {
+            Files.write(file, bytes);
+            EmployeManager manager = new EmployeManager();
+            assertThrows(IOException.class, () -> new EmployeeSnapshotStore(file).load(manager));
+            assertEquals(0, manager.getAllEmployees().size());
+        }
+    }
+
+    // the layout EmployeeSnapshotStore wrote before version 3
+    private static byte[] legacyFile(int version, Employee[] rows, long journalSequence) {
+        int headerSize = version == 1 ? 24 : 32;
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        int[][] refs = new int[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            Employee emp = rows[i];
+            String[] values = { emp.getName(), emp.getGender(), emp.getAddress(), emp.getCity(), emp.getDob(),
+                    emp.getDoj(), emp.getDepartmentName(), emp.getDesignation() };
+            refs[i] = new int[values.length];
+            for (int f = 0; f < values.length; f++) {
+                refs[i][f] = ids.computeIfAbsent(values[f], value -> ids.size());
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        buffer.position(headerSize);
+        for (String value : ids.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        long recordsOffset = buffer.position();
+        for (int i = 0; i < rows.length; i++) {
+            Employee emp = rows[i];
+            buffer.putInt(emp.getEmployeeId()).putDouble(emp.getSalary()).putInt(emp.getAge());
+            buffer.put(Arrays.copyOf(emp.getPanCardNumber().getBytes(StandardCharsets.US_ASCII), 10));
+            buffer.put(Arrays.copyOf(emp.getAadharNumber().getBytes(StandardCharsets.US_ASCII), 12));
+            for (int ref : refs[i]) {
+                buffer.putInt(ref);
+            }
+        }
+        int end = buffer.position();
+        buffer.putInt(0, MAGIC).putInt(4, version).putInt(8, rows.length).putInt(12, ids.size())
+                .putLong(16, recordsOffset);
+        if (version == 2) {
+            buffer.putLong(24, journalSequence);
+        }
+        return Arrays.copyOf(buffer.array(), end);
+    }
+
+    private static List<Integer> ids(List<Employee> employees) {
+        List<Integer> ids = new ArrayList<>();
+        for (Employee emp : employees) {
+            ids.add(emp.getEmployeeId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,118 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntEmployeeMapTest {
+    private static Employee employee(int id) {
+        return new Employee(id, "Employee", 50_000, 30, "Female", "12 Park Street", "Pune", "1994-03-10",
+                "2018-07-01", "Sales", "Engineer", "ABCDE1234F", "234567890123");
+    }
+
+    // ids that land in the same home slot of a 16-slot table, so they form one probe run
+    private static int[] collidingIds(int count) {
+        int[] ids = new int[count];
+        int found = 0;
+        int home = -1;
+        for (int id = 1; found < count; id++) {
+            int h = id * 0x9E3779B9;
+            int slot = (h ^ (h >>> 16)) & 15;
+            if (home == -1) {
+                home = slot;
+            }
+            if (slot == home) {
+                ids[found++] = id;
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    void growsPastManyResizes() {
+        IntEmployeeMap map = new IntEmployeeMap();
+        Employee[] rows = new Employee[100_000];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = employee(i + 1);
+            assertNull(map.put(i + 1, rows[i]));
+        }
+        assertEquals(rows.length, map.size());
+        for (int i = 0; i < rows.length; i++) {
+            assertSame(rows[i], map.get(i + 1));
+        }
+        assertNull(map.get(rows.length + 1));
+        assertNull(map.get(-5));
+
+        Employee replacement = employee(7);
+        assertSame(rows[6], map.put(7, replacement));
+        assertSame(replacement, map.get(7));
+        assertEquals(rows.length, map.size());
+    }
+
+    // deleting from the middle of a probe run pulls the later entries back, so none of them gets
+    // cut off behind a free slot
+    @Test
+    void deletesFromCollidingRunsKeepTheRestReachable() {
+        int[] ids = collidingIds(6);
+        IntEmployeeMap map = new IntEmployeeMap();
+        for (int id : ids) {
+            map.put(id, employee(id));
+        }
+        for (int victim : new int[] { ids[1], ids[0], ids[4] }) {
+            assertEquals(victim, map.remove(victim).getEmployeeId());
+            assertNull(map.remove(victim));
+            assertNull(map.get(victim));
+        }
+        for (int id : new int[] { ids[2], ids[3], ids[5] }) {
+            assertEquals(id, map.get(id).getEmployeeId(), "id " + id);
+        }
+        assertEquals(3, map.size());
+
+        map.put(ids[0], employee(ids[0]));
+        assertEquals(ids[0], map.get(ids[0]).getEmployeeId());
+        assertEquals(4, map.size());
+    }
+
+    // id 0 is the free-slot marker and is kept on the side
+    @Test
+    void idZeroAndNullValues() {
+        IntEmployeeMap map = new IntEmployeeMap();
+        assertNull(map.get(0));
+        Employee zero = employee(0);
+        assertNull(map.put(0, zero));
+        assertSame(zero, map.get(0));
+        assertTrue(map.containsKey(0));
+        assertEquals(1, map.size());
+        assertSame(zero, map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertTrue(map.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> map.put(3, null));
+    }
+
+    // random puts and removes, including ids that wrap the table and negative ids, against HashMap
+    @Test
+    void agreesWithHashMap() {
+        Random random = new Random(25);
+        IntEmployeeMap map = new IntEmployeeMap(4);
+        Map<Integer, Employee> expected = new HashMap<>();
+        for (int op = 0; op < 200_000; op++) {
+            int id = random.nextInt(5_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertSame(expected.remove(id), map.remove(id));
+            } else {
+                Employee emp = employee(id);
+                assertSame(expected.put(id, emp), map.put(id, emp));
+            }
+            if (op % 20_000 == 0) {
+                assertEquals(expected.size(), map.size());
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int id = -1_000; id < 4_000; id++) {
+            assertSame(expected.get(id), map.get(id), "id " + id);
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+    }
+}
@@ -0,0 +1,140 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+    private static final List<String> NAMES = List.of("ravi kumar", "amit rao", "ravindra jadeja", "kumar sanu",
+            "priya raman", "raman ravi", "neha sharma", "sharmila tagore", "anand rao", "amit rao");
+
+    private static NameIndex indexOf(Collection<String> names) {
+        NameIndex index = new NameIndex();
+        for (String name : names) {
+            index.add(name);
+        }
+        return index;
+    }
+
+    private static List<String> prefix(NameIndex index, String prefix) {
+        List<String> found = new ArrayList<>();
+        index.prefix(prefix, found::add);
+        return found;
+    }
+
+    private static List<String> substring(NameIndex index, String text) {
+        List<String> found = new ArrayList<>();
+        index.substring(text, found::add);
+        return found;
+    }
+
+    private static List<String> fuzzy(NameIndex index, String query, int maxEdits) {
+        List<String> found = new ArrayList<>();
+        index.fuzzy(query, maxEdits, found::add);
+        return found;
+    }
+
+    // whole-name prefixes first (alphabetical), then names where a later word starts with it
+    @Test
+    void prefixMatchesNameStartsThenLaterWords() {
+        NameIndex index = indexOf(NAMES);
+        assertEquals(List.of("ravi kumar", "ravindra jadeja", "raman ravi"), prefix(index, "rav"));
+        assertEquals(List.of("raman ravi", "ravi kumar", "ravindra jadeja", "priya raman", "amit rao",
+                "anand rao"), prefix(index, "ra"));
+        assertEquals(List.of("kumar sanu", "ravi kumar"), prefix(index, "kumar"));
+        assertEquals(List.of("ravi kumar"), prefix(index, "ravi k"));
+        assertEquals(List.of(), prefix(index, "zz"));
+    }
+
+    // prefix matches first, then the words containing the text in alphabetical order; text inside
+    // a word needs three letters, shorter text only matches word starts
+    @Test
+    void substringMatchesInsideWords() {
+        NameIndex index = indexOf(NAMES);
+        assertEquals(List.of("neha sharma", "sharmila tagore"), substring(index, "harm"));
+        assertEquals(List.of("raman ravi", "priya raman"), substring(index, "man"));
+        assertEquals(List.of("kumar sanu", "ravi kumar"), substring(index, "uma"));
+        assertEquals(List.of("kumar sanu", "ravi kumar"), substring(index, "ku"));
+        assertEquals(List.of("neha sharma"), substring(index, "eha sha"));
+        assertEquals(List.of(), substring(index, "xyz"));
+    }
+
+    // a wrong, missing, extra or swapped letter is one edit; words of 3-6 letters allow one, of
+    // 7-10 letters two, and the fewest edits come first
+    @Test
+    void fuzzyFindsNamesWithinTheAllowedEdits() {
+        NameIndex index = indexOf(NAMES);
+        assertEquals(List.of("ravi kumar"), fuzzy(index, "ravi kumr", 2));
+        assertEquals(List.of("ravi kumar"), fuzzy(index, "rvai kumar", 2));
+        assertEquals(List.of("ravindra jadeja"), fuzzy(index, "ravindar", 2));
+        assertEquals(List.of("ravindra jadeja"), fuzzy(index, "rvindraa", 2));
+        assertEquals(List.of(), fuzzy(index, "rvindraa", 1));
+        assertEquals(List.of(), fuzzy(index, "rxvjndrx", 2)); // three edits
+        assertEquals(List.of("amit rao", "anand rao"), fuzzy(index, "rao", 2));
+        assertEquals(List.of("sharmila tagore"), fuzzy(index, "sharmla tagroe", 2));
+        assertEquals(List.of(), fuzzy(index, "rau", 0));
+        assertEquals(1, NameIndex.editDistance("kumar", "kumra", 2));
+        assertEquals(-1, NameIndex.editDistance("kumar", "kmura", 1));
+    }
+
+    @Test
+    void removedNamesAreNoLongerFound() {
+        NameIndex index = indexOf(NAMES);
+        index.remove("ravi kumar");
+        assertEquals(List.of("ravindra jadeja", "raman ravi"), prefix(index, "rav"));
+        assertEquals(List.of("kumar sanu"), substring(index, "uma"));
+        assertEquals(List.of(), fuzzy(index, "ravi kumr", 2));
+
+        // two employees share "amit rao": it stays until both are gone
+        index.remove("amit rao");
+        assertEquals(List.of("amit rao"), prefix(index, "amit"));
+        index.remove("amit rao");
+        assertEquals(List.of(), prefix(index, "amit"));
+        assertEquals(List.of("anand rao"), fuzzy(index, "rao", 0));
+
+        // a removed name can come back
+        index.add("ravi kumar");
+        assertEquals(List.of("ravi kumar"), fuzzy(index, "ravi kumr", 2));
+    }
+
+    @Test
+    void renamesMoveAnEmployeeBetweenNames() {
+        EmployeManager manager = new EmployeManager();
+        manager.addEmployee(new Employee(1, "Ravi Kumar", 50_000, 30, "Male", "12 Park Street", "Pune",
+                "1994-03-10", "2018-07-01", "Sales", "Engineer", "ABCDE1234F", "234567890123"));
+        assertTrue(manager.updateName(1, "Sharmila Tagore"));
+
+        assertEquals(List.of(), manager.searchByNamePrefix("ravi", 10));
+        assertEquals(List.of(), manager.searchByNameFuzzy("ravi kumr", 2, 10));
+        assertEquals(1, manager.searchByNameContaining("tago", 10).size());
+        assertEquals(1, manager.searchByNameFuzzy("sharmla", 2, 10).size());
+        assertEquals(1, manager.searchByNamePrefix("TAG", 10).size());
+    }
+
+    // a batch (addEmployees, snapshot loads) posts the triples in one pass; every query must come
+    // out the same as adding the names one at a time
+    @Test
+    void addAllAnswersLikeOneAddPerName() {
+        Employee[] employees = new EmployeeDataGenerator().employees(5_000);
+        List<String> names = new ArrayList<>();
+        for (Employee emp : employees) {
+            names.add(emp.getName().toLowerCase(Locale.ROOT));
+        }
+        NameIndex one = indexOf(names.subList(0, 100));
+        NameIndex bulk = indexOf(names.subList(0, 100));
+        for (String name : names.subList(100, names.size())) {
+            one.add(name);
+        }
+        bulk.addAll(names.subList(100, names.size()));
+
+        Random random = new Random(17);
+        for (int i = 0; i < 300; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            int from = random.nextInt(name.length() - 2);
+            String piece = name.substring(from, from + 3);
+            assertEquals(prefix(one, name.substring(0, 2)), prefix(bulk, name.substring(0, 2)));
+            assertEquals(substring(one, piece), substring(bulk, piece), piece);
+            assertEquals(fuzzy(one, name.substring(1), 2), fuzzy(bulk, name.substring(1), 2), name);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RosterSnapshotTest {
+    private static Employee employee(int id, String name, double salary, String dept) {
+        return new Employee(id, name, salary, 30, "Male", "12 Park Street", "Pune", "1994-03-10",
+                "2018-07-01", dept, "Engineer", "ABCDE1234F", "234567890123");
+    }
+
+    private static EmployeManager roster(int size) {
+        EmployeManager manager = new EmployeManager();
+        for (int id = 1; id <= size; id++) {
+            manager.addEmployee(employee(id, "Employee " + id, 1_000 * id, id % 2 == 0 ? "Sales" : "Support"));
+        }
+        return manager;
+    }
+
+    private static List<Integer> ids(List<Employee> employees) {
+        List<Integer> ids = new ArrayList<>();
+        for (Employee emp : employees) {
+            ids.add(emp.getEmployeeId());
+        }
+        return ids;
+    }
+
+    @Test
+    void changesAfterTheSnapshotAreNotVisible() {
+        EmployeManager manager = roster(5);
+        try (RosterSnapshot snapshot = manager.snapshot()) {
+            manager.updateSalaryById(2, 99_000);
+            manager.updateName(3, "Renamed");
+            manager.updateAddress(3, "1 New Road");
+            manager.updateSalaryByPercentageForAll(10);
+            manager.addEmployee(employee(6, "Late Joiner", 500, "Sales"));
+
+            assertEquals(2_000, snapshot.searchById(2).getSalary());
+            assertEquals("Employee 3", snapshot.searchById(3).getName());
+            assertEquals("12 Park Street", snapshot.searchById(3).getAddress());
+            assertNull(snapshot.searchById(6));
+            assertEquals(List.of(1, 2, 3, 4, 5), ids(snapshot.getAllEmployees()));
+            assertEquals(5, snapshot.getEmployeeCount());
+            assertEquals(5_000, snapshot.getHighestSalaryEmployee().getSalary());
+            assertEquals(15_000, snapshot.getPayrollStats().getTotalSalary());
+
+            // the manager and a newer snapshot see the changes
+            assertEquals(108_900, manager.searchById(2).getSalary(), 1e-6);
+            try (RosterSnapshot later = manager.snapshot()) {
+                assertEquals(108_900, later.searchById(2).getSalary(), 1e-6);
+                assertEquals("Renamed", later.searchById(3).getName());
+                assertEquals(List.of(1, 2, 3, 4, 5, 6), ids(later.getAllEmployees()));
+            }
+
+            // rows handed out are copies
+            snapshot.searchById(1).setSalary(1);
+            assertEquals(1_000, snapshot.searchById(1).getSalary());
+            assertEquals(1_100, manager.searchById(1).getSalary(), 1e-6);
+        }
+    }
+
+    // a deleted row stays in the snapshots taken before the delete, in id order, also when the id
+    // comes back as someone else
+    @Test
+    void deletesAfterTheSnapshotAreStillVisible() {
+        EmployeManager manager = roster(3_000);
+        try (RosterSnapshot snapshot = manager.snapshot()) {
+            manager.updateSalaryById(1_500, 7);
+            assertTrue(manager.deleteEmployee(1_500));
+            assertTrue(manager.deleteEmployee(1));
+            assertTrue(manager.deleteEmployee(3_000));
+            manager.addEmployee(employee(1_500, "Someone Else", 42, "Sales"));
+
+            assertEquals(1_500_000, snapshot.searchById(1_500).getSalary());
+            assertEquals("Employee 1500", snapshot.searchById(1_500).getName());
+            assertEquals("Employee 1", snapshot.searchById(1).getName());
+            assertNull(manager.searchById(1));
+
+            List<Employee> all = snapshot.getAllEmployees();
+            assertEquals(3_000, all.size());
+            for (int i = 0; i < all.size(); i++) {
+                assertEquals(i + 1, all.get(i).getEmployeeId());
+                assertEquals(1_000 * (i + 1), all.get(i).getSalary());
+            }
+            assertEquals(List.of(1_499, 1_500, 1_501), ids(snapshot.getEmployeesAfter(1_498, 3)));
+            assertEquals(List.of(2_999, 3_000), ids(snapshot.getEmployeesAfter(2_998, 10)));
+            assertEquals(1_500, snapshot.searchByDepartment("sales").size());
+
+            try (RosterSnapshot later = manager.snapshot()) {
+                assertEquals(42, later.searchById(1_500).getSalary());
+                assertNull(later.searchById(1));
+                assertEquals(2_998, later.getAllEmployees().size());
+            }
+        }
+    }
+
+    // closing a snapshot drops the old states only it could see, and none a still open one needs
+    @Test
+    void closingSnapshotsTrimsTheHistory() {
+        EmployeManager manager = roster(3);
+        Employee row = manager.searchById(2);
+        RosterSnapshot first = manager.snapshot();
+        manager.updateSalaryById(2, 10);
+        RosterSnapshot second = manager.snapshot();
+        manager.updateSalaryById(2, 20);
+        RosterSnapshot third = manager.snapshot();
+        manager.updateSalaryById(2, 30);
+        assertTrue(manager.deleteEmployee(2));
+
+        second.close();
+        assertEquals(2_000, first.searchById(2).getSalary());
+        assertEquals(20, third.searchById(2).getSalary());
+        assertThrows(IllegalStateException.class, () -> second.searchById(2));
+
+        first.close();
+        assertEquals(20, third.searchById(2).getSalary());
+        // the state only the first snapshot saw is gone: asking for it gets the current row
+        assertEquals(30, row.rowAt(first.getVersion()).getSalary());
+        assertEquals(20, row.rowAt(third.getVersion()).getSalary());
+
+        third.close();
+        assertEquals(30, row.rowAt(third.getVersion()).getSalary());
+        try (RosterSnapshot latest = manager.snapshot()) {
+            assertNull(latest.searchById(2));
+            assertEquals(List.of(1, 3), ids(latest.getAllEmployees()));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The order-statistics tree against a plain list sorted by (salary, id). Salaries come from a
+// handful of values, so most rows tie with others and the id tie-break is what orders them.
+class SalaryRankIndexTest {
+    private static final Comparator<Employee> BY_SALARY = Comparator.comparingDouble(Employee::getSalary)
+            .thenComparingInt(Employee::getEmployeeId);
+
+    private static Employee employee(int id, double salary) {
+        return new Employee(id, "Employee", salary, 30, "Female", "12 Park Street", "Pune", "1994-03-10",
+                "2018-07-01", "Dept " + (id % 3), "Engineer", "ABCDE1234F", "234567890123");
+    }
+
+    @Test
+    void ranksAndSelectsFollowInsertsRemovesAndSalaryChanges() {
+        Random random = new Random(24);
+        double[] salaries = { 20_000, 35_000, 35_000.5, 50_000, 75_000, 120_000 };
+        SalaryRankIndex index = new SalaryRankIndex();
+        List<Employee> expected = new ArrayList<>();
+        Map<Integer, Employee> byId = new HashMap<>();
+        int nextId = 1;
+
+        for (int round = 0; round < 40; round++) {
+            for (int op = 0; op < 50; op++) {
+                int pick = random.nextInt(10);
+                if (pick < 5 || byId.isEmpty()) {
+                    Employee emp = employee(nextId++, salaries[random.nextInt(salaries.length)]);
+                    index.add(emp);
+                    byId.put(emp.getEmployeeId(), emp);
+                } else {
+                    Employee emp = expected.get(random.nextInt(expected.size()));
+                    if (pick < 8) {
+                        assertTrue(index.remove(emp.getSalary(), emp.getEmployeeId()));
+                        assertFalse(index.remove(emp.getSalary(), emp.getEmployeeId()), "removed twice");
+                        byId.remove(emp.getEmployeeId());
+                    } else {
+                        double old = emp.getSalary();
+                        emp.setSalary(salaries[random.nextInt(salaries.length)]);
+                        index.move(emp, old);
+                    }
+                }
+                expected.clear();
+                expected.addAll(byId.values());
+                expected.sort(BY_SALARY);
+            }
+            assertMatches(expected, index, salaries);
+        }
+    }
+
+    @Test
+    void buildGivesTheSameTreeAsInserts() {
+        Random random = new Random(7);
+        Employee[] rows = new Employee[1_000];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = employee(i + 1, 1_000 * random.nextInt(20));
+        }
+        Arrays.sort(rows, BY_SALARY);
+        SalaryRankIndex built = new SalaryRankIndex();
+        built.build(rows);
+        SalaryRankIndex inserted = new SalaryRankIndex();
+        for (Employee emp : rows) {
+            inserted.add(emp);
+        }
+        assertEquals(new ArrayList<>(inserted.all(false)), new ArrayList<>(built.all(false)));
+        assertMatches(Arrays.asList(rows), built, new double[] { 0, 5_000, 19_000, 25_000 });
+
+        built.build(new Employee[0]);
+        assertTrue(built.isEmpty());
+        assertNull(built.select(0));
+        assertTrue(Double.isNaN(built.lowestSalary()));
+        assertEquals(List.of(), new ArrayList<>(built.all(true)));
+    }
+
+    // the manager's ranked queries: equal salaries share a rank, and ties are listed by id
+    @Test
+    void managerTopBottomAndRanksHandleTies() {
+        EmployeManager manager = new EmployeManager();
+        double[] salaries = { 50_000, 90_000, 70_000, 90_000, 50_000, 30_000 };
+        for (int i = 0; i < salaries.length; i++) {
+            manager.addEmployee(employee(i + 1, salaries[i]));
+        }
+
+        assertEquals(List.of(4, 2, 3), ids(manager.getTopSalaryEmployees(3)));
+        assertEquals(List.of(6, 1, 5), ids(manager.getBottomSalaryEmployees(3)));
+        assertEquals(2, manager.getHighestSalaryEmployee().getEmployeeId()); // lowest id among the ties
+        assertEquals(6, manager.getLowestSalaryEmployee().getEmployeeId());
+        assertEquals(1, manager.getSalaryRank(2));
+        assertEquals(1, manager.getSalaryRank(4));
+        assertEquals(3, manager.getSalaryRank(3));
+        assertEquals(4, manager.getSalaryRank(1));
+        assertEquals(4, manager.getSalaryRank(5));
+        assertEquals(6, manager.getSalaryRank(6));
+        assertEquals(0, manager.getSalaryRank(99));
+        assertEquals(3, manager.countEmployeesInSalaryRange(null, 50_000, 70_000));
+
+        // a raise and a delete move people between ranks
+        manager.updateSalaryById(6, 100_000);
+        manager.deleteEmployee(4);
+        assertEquals(List.of(6, 2, 3), ids(manager.getTopSalaryEmployees(3)));
+        assertEquals(List.of(1, 5, 3, 2, 6), ids(manager.getBottomSalaryEmployees(10)));
+        assertEquals(2, manager.getSalaryRank(2));
+        assertEquals(1, manager.getEmployeeAtSalaryPercentile(null, 0).getEmployeeId());
+        assertEquals(3, manager.getEmployeeAtSalaryPercentile(null, 50).getEmployeeId());
+        assertEquals(6, manager.getEmployeeAtSalaryPercentile(null, 100).getEmployeeId());
+
+        // departments are "Dept 0" (3, 6), "Dept 1" (1) and "Dept 2" (2, 5)
+        assertEquals(List.of(6, 3), ids(manager.getTopSalaryEmployees("dept 0", 5)));
+        assertEquals(List.of(5, 2), ids(manager.getBottomSalaryEmployees("Dept 2", 5)));
+        assertEquals(2, manager.getDepartmentSalaryRank(3));
+        assertEquals(List.of(), manager.getTopSalaryEmployees("Nowhere", 5));
+    }
+
+    private static void assertMatches(List<Employee> expected, SalaryRankIndex index, double[] salaries) {
+        int n = expected.size();
+        assertEquals(n, index.size());
+        for (int k = 0; k < n; k++) {
+            Employee emp = expected.get(k);
+            assertSame(emp, index.select(k), "select(" + k + ")");
+            assertEquals(k, index.rank(emp.getSalary(), emp.getEmployeeId()), "rank of " + emp.getEmployeeId());
+        }
+        assertNull(index.select(-1));
+        assertNull(index.select(n));
+        assertEquals(n == 0 ? Double.NaN : expected.get(0).getSalary(), index.lowestSalary());
+        assertEquals(n == 0 ? Double.NaN : expected.get(n - 1).getSalary(), index.highestSalary());
+        for (double salary : salaries) {
+            for (double probe : new double[] { salary - 0.25, salary, salary + 0.25 }) {
+                long below = expected.stream().filter(emp -> emp.getSalary() < probe).count();
+                long atMost = expected.stream().filter(emp -> emp.getSalary() <= probe).count();
+                assertEquals(below, index.countBelow(probe), "countBelow(" + probe + ")");
+                assertEquals(atMost, index.countAtMost(probe), "countAtMost(" + probe + ")");
+            }
+        }
+
+        List<Employee> descending = new ArrayList<>(expected);
+        Collections.reverse(descending);
+        assertEquals(expected, new ArrayList<>(index.all(false)));
+        assertEquals(descending, new ArrayList<>(index.all(true)));
+        for (int k : new int[] { 0, 1, 5, n / 2, n }) {
+            // top-k and bottom-k are the first k of the walks
+            assertEquals(descending.subList(0, Math.min(k, n)), firstK(index.all(true), k), "top " + k);
+            assertEquals(expected.subList(0, Math.min(k, n)), firstK(index.all(false), k), "bottom " + k);
+        }
+        int from = n / 3;
+        int to = n - n / 4;
+        assertEquals(expected.subList(from, to), new ArrayList<>(index.range(from, to, false)));
+        List<Employee> slice = new ArrayList<>(expected.subList(from, to));
+        Collections.reverse(slice);
+        assertEquals(slice, new ArrayList<>(index.range(from, to, true)));
+    }
+
+    private static List<Employee> firstK(Collection<Employee> ordered, int k) {
+        List<Employee> result = new ArrayList<>();
+        for (Employee emp : ordered) {
+            if (result.size() == k) {
+                break;
+            }
+            result.add(emp);
+        }
+        return result;
+    }
+
+    private static List<Integer> ids(List<Employee> employees) {
+        List<Integer> ids = new ArrayList<>();
+        for (Employee emp : employees) {
+            ids.add(emp.getEmployeeId());
+        }
+        return ids;
+    }
+}
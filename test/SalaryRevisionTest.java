@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalaryRevisionTest {
+    @TempDir
+    Path dir;
+
+    private static Employee employee(int id, double salary, String dept) {
+        return new Employee(id, "Employee " + id, salary, 30, "Male", "12 Park Street", "Pune", "1994-03-10",
+                "2018-07-01", dept, "Engineer", "ABCDE1234F", "234567890123");
+    }
+
+    // 1..6; odd ids in Sales, even ids in Support, salary 10,000 * id
+    private static void fill(EmployeManager manager) {
+        for (int id = 1; id <= 6; id++) {
+            manager.addEmployee(employee(id, 10_000 * id, id % 2 == 1 ? "Sales" : "Support"));
+        }
+    }
+
+    private static List<Double> salaries(EmployeManager manager) {
+        List<Double> salaries = new ArrayList<>();
+        for (Employee emp : manager.getAllEmployees()) {
+            salaries.add(emp.getSalary());
+        }
+        return salaries;
+    }
+
+    // every change lands, later ones building on earlier ones, and the indexes follow
+    @Test
+    void commitAppliesEveryChange() {
+        for (EmployeManager manager : List.of(new EmployeManager(), new ConcurrentEmployeManager())) {
+            fill(manager);
+            SalaryRevision revision = manager.beginSalaryRevision()
+                    .raiseDepartment("sales", 10)
+                    .setSalary(2, 25_000)
+                    .raiseSalary(2, 20)
+                    .raiseAll(-50);
+            assertEquals(4, revision.getStagedChangeCount());
+            // nothing happens before commit()
+            assertEquals(10_000, manager.searchById(1).getSalary());
+
+            assertTrue(revision.commit());
+            assertFalse(revision.isOpen());
+            assertEquals(List.of(), revision.getErrors());
+            assertEquals(List.of(5_500.0, 15_000.0, 16_500.0, 20_000.0, 27_500.0, 30_000.0), salaries(manager));
+            assertEquals(5_500, manager.getLowestSalaryEmployee().getSalary(), 1e-6);
+            assertEquals(6, manager.getHighestSalaryEmployee().getEmployeeId());
+            assertEquals(3, manager.countEmployeesInSalaryRange(null, 15_000, 20_000));
+            assertEquals(5_500, manager.getDepartmentStats("Sales").getMinSalary(), 1e-6);
+            assertThrows(IllegalStateException.class, () -> revision.commit());
+            assertThrows(IllegalStateException.class, () -> revision.raiseAll(1));
+        }
+    }
+
+    // one bad change, or one employee pushed out of range, and nobody's salary moves
+    @Test
+    void oneInvalidChangeRollsBackEverything() {
+        for (EmployeManager manager : List.of(new EmployeManager(), new ConcurrentEmployeManager())) {
+            fill(manager);
+            List<Double> before = salaries(manager);
+
+            SalaryRevision missing = manager.beginSalaryRevision().raiseAll(5).setSalary(99, 1_000);
+            assertFalse(missing.commit());
+            assertEquals(1, missing.getErrors().size());
+            assertTrue(missing.getErrors().get(0).startsWith("Employee 99 not found"));
+            assertEquals(before, salaries(manager));
+
+            // only employee 6 would pass Rs.10,000,000
+            SalaryRevision tooHigh = manager.beginSalaryRevision().raiseDepartment("Sales", 1).raiseAll(17_000);
+            assertFalse(tooHigh.commit());
+            assertEquals(1, tooHigh.getErrors().size());
+            assertTrue(tooHigh.getErrors().get(0).startsWith("Employee 6 would go to"));
+            assertEquals(before, salaries(manager));
+            assertEquals(60_000, manager.getHighestSalaryEmployee().getSalary());
+
+            SalaryRevision invalid = manager.beginSalaryRevision().setSalary(1, -1).raiseSalary(2, Double.NaN);
+            assertFalse(invalid.commit());
+            assertEquals(2, invalid.getErrors().size());
+            assertEquals(before, salaries(manager));
+
+            // a failed revision stays open; rollback() drops it
+            assertTrue(invalid.isOpen());
+            invalid.rollback();
+            assertFalse(invalid.isOpen());
+            assertEquals(0, invalid.getStagedChangeCount());
+            assertEquals(before, salaries(manager));
+        }
+    }
+
+    // a revision is one journal record, replayed as a whole; a failed one writes nothing
+    @Test
+    void journalReplaysARevisionAsOneRecord() throws IOException {
+        Path file = dir.resolve("revision.journal");
+        EmployeManager original = new EmployeManager();
+        try (EmployeeJournal journal = new EmployeeJournal(file)) {
+            original.setJournal(journal);
+            fill(original);
+            assertEquals(6, journal.getLastSequence());
+            assertFalse(original.beginSalaryRevision().raiseAll(10).setSalary(42, 1).commit());
+            assertEquals(6, journal.getLastSequence());
+            assertTrue(original.beginSalaryRevision().raiseAll(10).raiseDepartment("Support", 5)
+                    .setSalary(3, 1_234.5).commit());
+            assertEquals(7, journal.getLastSequence());
+        }
+
+        EmployeManager recovered = new EmployeManager();
+        try (EmployeeJournal journal = new EmployeeJournal(file)) {
+            assertEquals(7, journal.replay(recovered, 0));
+        }
+        assertEquals(salaries(original), salaries(recovered));
+        assertEquals(1_234.5, recovered.searchById(3).getSalary());
+        assertEquals(23_100, recovered.searchById(2).getSalary(), 1e-6);
+
+        // from a snapshot taken before the revision, only the revision is replayed
+        EmployeManager fromSix = new EmployeManager();
+        fill(fromSix);
+        try (EmployeeJournal journal = new EmployeeJournal(file)) {
+            assertEquals(1, journal.replay(fromSix, 6));
+        }
+        assertEquals(salaries(original), salaries(fromSix));
+    }
+}
@@ -0,0 +1,191 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Validation's hand-written checks against the regex rules they replaced: both must accept and
+// reject exactly the same strings. The date and age rules are checked against java.time.
+class ValidationTest {
+    private static final Pattern AADHAAR_PATTERN = Pattern.compile("^[2-9]{1}[0-9]{11}$");
+    private static final Pattern PAN_PATTERN = Pattern.compile("^[A-Z]{5}[0-9]{4}[A-Z]{1}$");
+    private static final Pattern NAME_PATTERN = Pattern.compile("^[A-Za-z ]+$");
+
+    private static boolean regexAadhaar(String aadhaar) {
+        return aadhaar != null && AADHAAR_PATTERN.matcher(aadhaar).matches();
+    }
+
+    private static boolean regexPAN(String pan) {
+        return pan != null && PAN_PATTERN.matcher(pan).matches();
+    }
+
+    private static boolean regexName(String name) {
+        return name != null && !name.trim().isEmpty() &&
+                name.trim().length() >= 2 && name.trim().length() <= 50 &&
+                NAME_PATTERN.matcher(name.trim()).matches();
+    }
+
+    private static boolean regexString(String str, int minLength, int maxLength) {
+        return str != null && str.trim().length() >= minLength && str.trim().length() <= maxLength;
+    }
+
+    // every generated value plus random edits drawn from characters near the edges of the classes
+    // (digits and letters of other scripts, whitespace, controls)
+    @Test
+    void agreesWithRegexRulesOnGeneratedAndMangledValues() {
+        int size = 20_000;
+        Employee[] employees = new EmployeeDataGenerator().employees(size);
+        char[] alphabet = "09281AZazMm `@[{/:\t\n\r\u000b\u0000\u00a0\u2003\u0663\uff21\u00e9-.,".toCharArray();
+        Random random = new Random(20);
+        for (Employee emp : employees) {
+            for (String value : new String[] { emp.getName(), emp.getAddress(), emp.getPanCardNumber(),
+                    emp.getAadharNumber() }) {
+                for (int variant = 0; variant < 4; variant++) {
+                    assertAgrees(value);
+                    StringBuilder mangled = new StringBuilder(value);
+                    int position = random.nextInt(mangled.length() + 1);
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            mangled.insert(position, alphabet[random.nextInt(alphabet.length)]);
+                            break;
+                        case 1:
+                            if (position < mangled.length()) {
+                                mangled.setCharAt(position, alphabet[random.nextInt(alphabet.length)]);
+                            }
+                            break;
+                        case 2:
+                            if (position < mangled.length()) {
+                                mangled.deleteCharAt(position);
+                            }
+                            break;
+                        default:
+                            mangled.setLength(random.nextInt(mangled.length() + 1));
+                    }
+                    value = mangled.toString();
+                }
+            }
+        }
+    }
+
+    @Test
+    void agreesWithRegexRulesOnEdgeCases() {
+        for (String edge : new String[] { null, "", " ", "  A ", "Ab", " Ab\n", "A".repeat(50), "A".repeat(51),
+                "\tAb c\t", "234567890123", "134567890123", "23456789012", "234567890123\n", "ABCDE1234F",
+                "ABCDE1234F\n", "abcde1234f", "ABCD01234F", "\u0663".repeat(12) }) {
+            assertAgrees(edge);
+        }
+    }
+
+    @Test
+    void validateAllReportsEveryFailingRecordInOrder() {
+        Employee[] employees = new EmployeeDataGenerator().employees(3);
+        List<Validation.Candidate> batch = new ArrayList<>();
+        batch.add(candidate(employees[0], employees[0].getName(), employees[0].getSalary()));
+        batch.add(candidate(employees[1], "R2-D2", Double.POSITIVE_INFINITY));
+        batch.add(null);
+        batch.add(candidate(employees[2], employees[2].getName(), -1));
+
+        List<Validation.Failure> failures = Validation.validateAll(batch);
+        assertEquals(2, failures.size());
+        assertEquals(1, failures.get(0).index());
+        assertEquals(List.of("isValidName", "isValidSalary"), failures.get(0).rules());
+        assertEquals(3, failures.get(1).index());
+        assertEquals(List.of("isValidSalary"), failures.get(1).rules());
+    }
+
+    @Test
+    void datesMustExistOnTheCalendar() {
+        for (String valid : new String[] { "2024-02-29", "2000-02-29", "2023-02-28", "2023-01-31", "2023-04-30",
+                "2023-12-31", "2024-01-01", "1900-01-01", "2100-12-31" }) {
+            assertTrue(Validation.isValidDate(valid), valid);
+        }
+        for (String invalid : new String[] { "2023-02-29", "1900-02-29", "2100-02-29", "2024-02-30", "2023-04-31",
+                "2023-06-31", "2023-01-32", "2023-00-10", "2023-13-01", "2023-01-00", "1899-12-31",
+                "2101-01-01" }) {
+            assertFalse(Validation.isValidDate(invalid), invalid);
+        }
+    }
+
+    @Test
+    void malformedDatesAreRejected() {
+        for (String malformed : new String[] { null, "", "2023-1-05", "2023-01-5", "23-01-05", "2023/01/05",
+                "2023-01-05 ", " 2023-01-05", "2023-01-05T00:00", "20230105", "2023--01-05", "2023-0a-05",
+                "+023-01-05", "2023-01-\u0665\u0665", "\uff12\uff10\uff12\uff13-01-05", "abcd-ef-gh" }) {
+            assertEquals(EpochDays.NONE, EpochDays.parse(malformed), String.valueOf(malformed));
+            assertFalse(Validation.isValidDate(malformed), String.valueOf(malformed));
+        }
+    }
+
+    // every day of 1900-2100 parses to LocalDate's epoch day and formats back to the same string
+    @Test
+    void epochDaysAgreeWithLocalDate() {
+        for (LocalDate date = LocalDate.of(1900, 1, 1); date.getYear() <= 2100; date = date.plusDays(1)) {
+            String text = date.toString();
+            int epochDay = EpochDays.parse(text);
+            assertEquals(date.toEpochDay(), epochDay, text);
+            assertEquals(text, EpochDays.format(epochDay));
+            assertEquals(EpochDays.isLeapYear(date.getYear()), date.isLeapYear());
+        }
+        assertNull(EpochDays.format(EpochDays.NONE));
+        assertEquals(Integer.MIN_VALUE, EpochDays.NONE);
+    }
+
+    @Test
+    void eighteenthBirthdayOnTheJoiningDateIsOldEnough() {
+        assertTrue(Validation.isAgeAtLeast18AtJoining("2000-06-15", "2018-06-15"));
+        assertFalse(Validation.isAgeAtLeast18AtJoining("2000-06-15", "2018-06-14"));
+        // month and year boundaries
+        assertTrue(Validation.isAgeAtLeast18AtJoining("2000-12-31", "2018-12-31"));
+        assertFalse(Validation.isAgeAtLeast18AtJoining("2000-12-31", "2018-12-30"));
+        assertTrue(Validation.isAgeAtLeast18AtJoining("2000-01-01", "2018-01-01"));
+        assertFalse(Validation.isAgeAtLeast18AtJoining("2000-01-01", "2017-12-31"));
+        assertFalse(Validation.isAgeAtLeast18AtJoining("2000-05-01", "2018-04-30"));
+        // born on 29 Feb: 18 on 1 Mar in a non-leap year, on 29 Feb in a leap year
+        assertFalse(Validation.isAgeAtLeast18AtJoining("2000-02-29", "2018-02-28"));
+        assertTrue(Validation.isAgeAtLeast18AtJoining("2000-02-29", "2018-03-01"));
+        assertFalse(Validation.isAgeAtLeast18AtJoining("2004-02-29", "2022-02-28"));
+        assertTrue(Validation.isAgeAtLeast18AtJoining("1996-02-29", "2014-03-01"));
+        assertTrue(Validation.isAgeAtLeast18AtJoining("1988-02-29", "2016-02-29"));
+        // joining before birth, and dates that don't parse
+        assertFalse(Validation.isAgeAtLeast18AtJoining("2018-06-15", "2000-06-15"));
+        assertFalse(Validation.isAgeAtLeast18AtJoining("2000-06-15", "2018-02-30"));
+        assertFalse(Validation.isAgeAtLeast18AtJoining("not a date", "2018-06-15"));
+        assertFalse(Validation.isAgeAtLeast18AtJoining(null, "2018-06-15"));
+    }
+
+    // yearsBetween counts whole years the way Period does, around every kind of birthday
+    @Test
+    void yearsBetweenAgreesWithPeriod() {
+        Random random = new Random(9);
+        for (int i = 0; i < 100_000; i++) {
+            LocalDate dob = LocalDate.ofEpochDay(LocalDate.of(1900, 1, 1).toEpochDay() + random.nextInt(60_000));
+            LocalDate doj = random.nextBoolean() ? dob.plusYears(18).plusDays(random.nextInt(5) - 2)
+                    : dob.plusDays(random.nextInt(30_000));
+            if (doj.getYear() > 2100) {
+                continue;
+            }
+            assertEquals(Period.between(dob, doj).getYears(),
+                    EpochDays.yearsBetween((int) dob.toEpochDay(), (int) doj.toEpochDay()), dob + " to " + doj);
+            assertEquals(Period.between(dob, doj).getYears() >= 18,
+                    Validation.isAgeAtLeast18AtJoining(dob.toString(), doj.toString()), dob + " to " + doj);
+        }
+    }
+
+    private static Validation.Candidate candidate(Employee emp, String name, double salary) {
+        return new Validation.Candidate(name, salary, emp.getAge(), emp.getGender(), emp.getAddress(),
+                emp.getCity(), emp.getDobEpochDay(), emp.getDojEpochDay(), emp.getPanCardNumber(),
+                emp.getAadharNumber());
+    }
+
+    private static void assertAgrees(String value) {
+        String shown = value == null ? "null" : "\"" + value + "\"";
+        assertEquals(regexName(value), Validation.isValidName(value), "isValidName(" + shown + ")");
+        assertEquals(regexString(value, 5, 100), Validation.isValidString(value, 5, 100),
+                "isValidString(" + shown + ", 5, 100)");
+        assertEquals(regexPAN(value), Validation.isValidPAN(value), "isValidPAN(" + shown + ")");
+        assertEquals(regexAadhaar(value), Validation.isValidAadhaar(value), "isValidAadhaar(" + shown + ")");
+    }
+}